@@ -0,0 +1,205 @@
+package benchmarks;
+
+import models.Customer;
+import models.TimeSlot;
+import services.DatabaseManager;
+import services.PoolConfig;
+import services.SchemaMigrator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Temporäre SQLite-Datenbank mit einer festen Anzahl Reservierungen für Benchmarks.
+ * <p>
+ * Das Befüllen einer Vorlage mit 1 Mio. Reservierungen dauert deutlich länger als ein Benchmark-Durchlauf.
+ * Die Vorlage wird daher je Größe und Schemaversion einmal im temporären Verzeichnis angelegt und für jeden
+ * Durchlauf in eine eigene temporäre Datei kopiert, die danach wieder gelöscht wird.
+ * <p>
+ * Aufbau: {@link #TABLE_COUNT} Tische mit 2 bis 8 Plätzen, je Tisch und Tag bis zu {@link #SEATINGS}
+ * Zeitfenster à 2 Stunden, davon jeweils 4 belegt (80 %). Die Hälfte der Tage liegt in der Vergangenheit,
+ * die andere Hälfte ab heute (diese liefert getUpcomingReservations).
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(BenchmarkDatabase.class.getName());
+    static final int TABLE_COUNT = 40;
+    /** Beginn der Zeitfenster je Tag: 11, 13, 17, 19 und 21 Uhr */
+    static final int[] SEATINGS = {22, 26, 34, 38, 42};
+    static final int SEATING_DURATION = 4;
+    private static final int RESERVATIONS_PER_CUSTOMER = 4;
+    private static final long SEED = 42;
+
+    private final Path file;
+    private final DatabaseManager db;
+    private final LocalDate firstDate;
+    private final int days;
+
+    private BenchmarkDatabase(Path file, int reservations) {
+        this.file = file;
+        this.days = daysFor(reservations);
+        this.firstDate = LocalDate.now().minusDays(days / 2);
+        this.db = new DatabaseManager(url(), PoolConfig.fromSystemProperties());
+        db.initialize();
+    }
+
+    /**
+     * Öffnet eine frische Kopie der Vorlage mit der angegebenen Anzahl Reservierungen.
+     */
+    static BenchmarkDatabase open(int reservations) throws IOException, SQLException {
+        Path template = template(reservations);
+        Path file = Files.createTempFile("restaurant-bench-", ".db");
+        Files.copy(template, file, StandardCopyOption.REPLACE_EXISTING);
+        return new BenchmarkDatabase(file, reservations);
+    }
+
+    DatabaseManager database() {
+        return db;
+    }
+
+    /**
+     * JDBC-URL der Datei, z.B. für eine unabhängige Prüfverbindung außerhalb des Pools.
+     */
+    String url() {
+        return "jdbc:sqlite:" + file;
+    }
+
+    /**
+     * Erster Tag ab heute, der in den Daten enthalten ist.
+     */
+    LocalDate firstUpcomingDate() {
+        return LocalDate.now();
+    }
+
+    /**
+     * Erster Tag nach den befüllten Daten; dort sind alle Tische frei.
+     */
+    LocalDate firstEmptyDate() {
+        return firstDate.plusDays(days);
+    }
+
+    /**
+     * Anzahl der befüllten Tage ab heute.
+     */
+    int upcomingDays() {
+        return (int) (days - (LocalDate.now().toEpochDay() - firstDate.toEpochDay()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        db.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + "-wal"));
+        Files.deleteIfExists(Path.of(file + "-shm"));
+        // Sperrdatei jedes DatabaseManager und Buchungsjournal (restaurant.journal)
+        Files.deleteIfExists(Path.of(file + ".writers"));
+        Files.deleteIfExists(Path.of(file + ".bookings"));
+    }
+
+    private static int daysFor(int reservations) {
+        // Je Tisch und Tag bleibt genau eine Sitzung frei
+        int perDay = TABLE_COUNT * (SEATINGS.length - 1);
+        return (reservations + perDay - 1) / perDay;
+    }
+
+    /**
+     * Liefert die Vorlage für die Größe und legt sie bei Bedarf an. Die Daten liegen relativ zu heute,
+     * daher gilt eine Vorlage nur für den Tag, an dem sie angelegt wurde.
+     */
+    private static synchronized Path template(int reservations) throws IOException, SQLException {
+        Path template = Path.of(System.getProperty("java.io.tmpdir"),
+                "restaurant-bench-" + reservations + "-v" + SchemaMigrator.latestVersion()
+                        + "-" + LocalDate.now() + ".db");
+        if (Files.exists(template)) {
+            return template;
+        }
+        Path partial = Path.of(template + ".partial");
+        Files.deleteIfExists(partial);
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + partial)) {
+            new SchemaMigrator().migrate(connection);
+            seed(connection, reservations);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("ANALYZE");
+            }
+        }
+        Files.move(partial, template, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info(String.format("Benchmark-Vorlage mit %d Reservierungen angelegt in %.1f s: %s",
+                reservations, (System.nanoTime() - start) / 1e9, template));
+        return template;
+    }
+
+    private static void seed(Connection connection, int reservations) throws SQLException {
+        connection.setAutoCommit(false);
+        Random random = new Random(SEED);
+        try (PreparedStatement insertTable = connection.prepareStatement("INSERT INTO tables (capacity) VALUES (?)")) {
+            for (int i = 0; i < TABLE_COUNT; i++) {
+                insertTable.setInt(1, 2 + 2 * (i % 4));
+                insertTable.addBatch();
+            }
+            insertTable.executeBatch();
+        }
+
+        int customers = Math.max(1, reservations / RESERVATIONS_PER_CUSTOMER);
+        try (PreparedStatement insertCustomer = connection.prepareStatement(
+                "INSERT INTO customers (name, contact, contact_key) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= customers; i++) {
+                String contact = "gast" + i + "@example.com";
+                insertCustomer.setString(1, "Gast " + i);
+                insertCustomer.setString(2, contact);
+                insertCustomer.setString(3, Customer.normalizeContact(contact));
+                insertCustomer.addBatch();
+                if (i % 10_000 == 0) {
+                    insertCustomer.executeBatch();
+                }
+            }
+            insertCustomer.executeBatch();
+        }
+
+        LocalDate firstDate = LocalDate.now().minusDays(daysFor(reservations) / 2);
+        int inserted = 0;
+        try (PreparedStatement insertReservation = connection.prepareStatement(
+                "INSERT INTO reservations (date, slot, duration, persons, table_id, customer_id) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int day = 0; inserted < reservations; day++) {
+                String date = firstDate.plusDays(day).toString();
+                for (int table = 1; table <= TABLE_COUNT && inserted < reservations; table++) {
+                    int capacity = 2 + 2 * ((table - 1) % 4);
+                    for (int seating = 0; seating < SEATINGS.length && inserted < reservations; seating++) {
+                        if ((day + table + seating) % SEATINGS.length == 0) {
+                            continue;
+                        }
+                        insertReservation.setString(1, date);
+                        insertReservation.setInt(2, SEATINGS[seating]);
+                        insertReservation.setInt(3, SEATING_DURATION);
+                        insertReservation.setInt(4, 1 + random.nextInt(capacity));
+                        insertReservation.setInt(5, table);
+                        insertReservation.setInt(6, 1 + random.nextInt(customers));
+                        insertReservation.addBatch();
+                        if (++inserted % 10_000 == 0) {
+                            insertReservation.executeBatch();
+                        }
+                    }
+                }
+            }
+            insertReservation.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Zeitfenster einer der befüllten Sitzungen.
+     */
+    static TimeSlot seating(int index) {
+        return new TimeSlot(SEATINGS[index % SEATINGS.length], SEATING_DURATION);
+    }
+}
@@ -0,0 +1,30 @@
+package benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Startet die Benchmarks der Persistenzschicht. Ohne Argumente laufen alle Benchmarks mit allen Größen;
+ * die üblichen JMH-Optionen werden durchgereicht, z.B.:
+ * <pre>
+ *   BenchmarkRunner findAvailableTable -p reservations=100000
+ *   BenchmarkRunner -t 4 -rf json -rff ergebnisse.json
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(PersistenceBenchmark.class.getSimpleName());
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
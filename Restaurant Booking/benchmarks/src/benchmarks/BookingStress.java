@@ -0,0 +1,329 @@
+package benchmarks;
+
+import models.Reservation;
+import models.TimeSlot;
+import services.DatabaseManager;
+import services.PoolConfig;
+import services.ReservationService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lasttest gegen Doppelbuchungen: N Threads buchen und stornieren gleichzeitig zufällige Reservierungen
+ * für denselben Abend in einer Datenbank. Die Threads verteilen sich auf mehrere {@link DatabaseManager}
+ * auf derselben Datei (wie mehrere Arbeitsplätze), jeweils mit eigener Schreibverbindung und eigenem
+ * Verfügbarkeitsindex. Nur so treffen Buchungen wirklich auf den eindeutigen Index (veralteter Index des
+ * anderen Arbeitsplatzes) und auf die SQLite-Schreibsperre (SQLITE_BUSY, Wiederholung der Transaktion);
+ * innerhalb eines Managers serialisiert schon die Schreibsperre des Pools. Danach wird geprüft, dass kein Tisch am selben Tag in sich
+ * überschneidenden Zeitfenstern doppelt belegt ist (als Haupttisch oder dazugestellter Tisch) und dass genau die erfolgreichen Buchungen abzüglich
+ * der Stornierungen in der Datenbank stehen.
+ * <p>
+ * Ausgegeben werden Durchsatz, Konflikt- und Ausgebucht-Quote sowie Latenz-Perzentile je Operation.
+ * Bei verletzter Invariante endet das Programm mit Exit-Code 1, damit ein Build den Fehler erkennt; ebenso,
+ * wenn mit mehreren Managern weder Tisch-Konflikte noch Sperr-Wiederholungen aufgetreten sind (dann wäre
+ * der Schutz gar nicht geprüft worden).
+ * <p>
+ * Einstellungen per System-Property:
+ * <ul>
+ *   <li>{@code stress.threads} – Anzahl paralleler Clients (Default 16)</li>
+ *   <li>{@code stress.seconds} – Laufzeit in Sekunden (Default 30)</li>
+ *   <li>{@code stress.deleteRatio} – Anteil der Stornierungen an allen Operationen (Default 0.3)</li>
+ *   <li>{@code stress.customers} – Anzahl unterschiedlicher Kontakte (Default 500)</li>
+ *   <li>{@code stress.instances} – Anzahl DatabaseManager auf derselben Datei (Default 4)</li>
+ *   <li>{@code stress.busyTimeoutMs} – SQLite-Busy-Timeout je Manager; kurz, damit Sperrkonflikte als
+ *       SQLITE_BUSY ankommen (Default 20)</li>
+ * </ul>
+ */
+public class BookingStress {
+    /** Abendliche Startzeiten: 17:00 bis 21:00 Uhr im 30-Minuten-Raster */
+    private static final int FIRST_START = 34;
+    private static final int LAST_START = 42;
+    /** Dauer 1 bis 3 Stunden, damit sich Zeitfenster verschieden stark überschneiden */
+    private static final int MIN_DURATION = 2;
+    private static final int MAX_DURATION = 6;
+    private static final int MAX_PERSONS = 8;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("stress.threads", 16);
+        int seconds = Integer.getInteger("stress.seconds", 30);
+        double deleteRatio = Double.parseDouble(System.getProperty("stress.deleteRatio", "0.3"));
+        int customers = Integer.getInteger("stress.customers", 500);
+        int instances = Math.max(1, Integer.getInteger("stress.instances", 4));
+        int busyTimeoutMs = Integer.getInteger("stress.busyTimeoutMs", 20);
+
+        boolean ok;
+        try (BenchmarkDatabase database = BenchmarkDatabase.open(0)) {
+            LocalDate evening = database.firstEmptyDate();
+            System.out.printf("Lasttest: %d Threads auf %d Managern, %d s, %.0f %% Stornierungen, %d Tische, Abend %s%n",
+                    threads, instances, seconds, deleteRatio * 100, BenchmarkDatabase.TABLE_COUNT, evening);
+
+            PoolConfig config = new PoolConfig(2, busyTimeoutMs, PoolConfig.DEFAULT_ACQUIRE_TIMEOUT_MS);
+            List<DatabaseManager> managers = new ArrayList<>(instances);
+            List<ReservationService> services = new ArrayList<>(instances);
+            for (int i = 0; i < instances; i++) {
+                DatabaseManager manager = new DatabaseManager(database.url(), config);
+                manager.initialize();
+                managers.add(manager);
+                services.add(new ReservationService(manager));
+            }
+            List<Worker> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(new Worker(services.get(i % instances), evening, deleteRatio, customers));
+            }
+            long elapsedNanos = run(workers, TimeUnit.SECONDS.toNanos(seconds));
+
+            Result result = Result.merge(workers, elapsedNanos);
+            ReservationService.BookingStatistics statistics = total(services);
+            result.print(statistics);
+            ok = verify(database.url(), evening, result.created - result.deleted);
+            if (instances > 1 && statistics.conflictRetries() == 0) {
+                System.out.println("FEHLER: keine Tisch-Konflikte, der eindeutige Index wurde nicht geprüft");
+                ok = false;
+            }
+            if (instances > 1 && statistics.busyRetries() == 0) {
+                System.out.println("FEHLER: keine Sperr-Wiederholungen, die Wiederholung bei SQLITE_BUSY wurde nicht geprüft");
+                ok = false;
+            }
+            services.forEach(ReservationService::shutdown);
+            managers.forEach(DatabaseManager::close);
+        }
+        System.out.println(ok ? "OK: keine Doppelbuchungen" : "FEHLER: Invariante verletzt");
+        System.exit(ok ? 0 : 1);
+    }
+
+    /**
+     * Summiert die Buchungskennzahlen aller Manager.
+     */
+    private static ReservationService.BookingStatistics total(List<ReservationService> services) {
+        long attempts = 0, commits = 0, noTable = 0, conflicts = 0, busy = 0, failures = 0, elapsed = 0;
+        for (ReservationService service : services) {
+            ReservationService.BookingStatistics statistics = service.getBookingStatistics();
+            attempts += statistics.attempts();
+            commits += statistics.commits();
+            noTable += statistics.noTableAvailable();
+            conflicts += statistics.conflictRetries();
+            busy += statistics.busyRetries();
+            failures += statistics.failures();
+            elapsed = Math.max(elapsed, statistics.elapsedNanos());
+        }
+        return new ReservationService.BookingStatistics(attempts, commits, noTable, conflicts, busy, failures, elapsed);
+    }
+
+    /**
+     * Startet alle Worker gleichzeitig und wartet, bis die Laufzeit abgelaufen ist.
+     * @return tatsächliche Laufzeit in Nanosekunden
+     */
+    private static long run(List<Worker> workers, long durationNanos) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(workers.size());
+        long[] begin = new long[1];
+        for (Worker worker : workers) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                worker.run(begin[0] + durationNanos);
+                return null;
+            }));
+        }
+        begin[0] = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return System.nanoTime() - begin[0];
+    }
+
+    /**
+     * Prüft über eine eigene Verbindung (am Pool und an den Caches vorbei), dass sich keine zwei
+     * Reservierungen eines Tisches am selben Tag überschneiden (auch über zusammengestellte Tische) und die Anzahl zu den Operationen passt.
+     */
+    private static boolean verify(String url, LocalDate date, long expected) throws SQLException {
+        boolean ok = true;
+        try (Connection connection = DriverManager.getConnection(url)) {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "WITH occupied (id, table_id, date, slot, duration) AS (" +
+                    "SELECT id, table_id, date, slot, duration FROM reservations " +
+                    "UNION ALL SELECT reservation_id, table_id, date, slot, duration FROM reservation_tables) " +
+                    "SELECT a.id, b.id, a.table_id, a.slot, a.duration, b.slot, b.duration " +
+                    "FROM occupied a JOIN occupied b " +
+                    "ON a.table_id = b.table_id AND a.date = b.date AND a.id < b.id " +
+                    "AND a.slot < b.slot + b.duration AND b.slot < a.slot + a.duration " +
+                    "WHERE a.date = ?")) {
+                stmt.setString(1, date.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ok = false;
+                        System.out.printf("Doppelbuchung: Tisch %d, Reservierungen %d (%s) und %d (%s)%n",
+                                rs.getInt(3), rs.getInt(1), new TimeSlot(rs.getInt(4), rs.getInt(5)),
+                                rs.getInt(2), new TimeSlot(rs.getInt(6), rs.getInt(7)));
+                    }
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT COUNT(*) FROM reservations WHERE date = ?")) {
+                stmt.setString(1, date.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    long actual = rs.next() ? rs.getLong(1) : 0;
+                    System.out.printf("Reservierungen am Abend: %d (erwartet %d)%n", actual, expected);
+                    if (actual != expected) {
+                        ok = false;
+                    }
+                }
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Ein Client: bucht und storniert zufällig, bis die Laufzeit abgelaufen ist.
+     * Storniert werden nur eigene Buchungen, damit jede Stornierung genau einmal zählt.
+     */
+    private static final class Worker {
+        private final ReservationService service;
+        private final LocalDate date;
+        private final double deleteRatio;
+        private final int customers;
+        private final List<Integer> booked = new ArrayList<>();
+        private final Latencies createLatencies = new Latencies();
+        private final Latencies deleteLatencies = new Latencies();
+        private long created;
+        private long rejected;
+        private long deleted;
+        private long deleteFailures;
+
+        private Worker(ReservationService service, LocalDate date, double deleteRatio, int customers) {
+            this.service = service;
+            this.date = date;
+            this.deleteRatio = deleteRatio;
+            this.customers = customers;
+        }
+
+        private void run(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                if (!booked.isEmpty() && random.nextDouble() < deleteRatio) {
+                    int id = booked.remove(random.nextInt(booked.size()));
+                    long start = System.nanoTime();
+                    boolean success = service.deleteReservation(id);
+                    deleteLatencies.record(System.nanoTime() - start);
+                    if (success) {
+                        deleted++;
+                    } else {
+                        deleteFailures++;
+                    }
+                } else {
+                    int customer = random.nextInt(customers);
+                    TimeSlot slot = new TimeSlot(random.nextInt(FIRST_START, LAST_START + 1),
+                            random.nextInt(MIN_DURATION, MAX_DURATION + 1));
+                    long start = System.nanoTime();
+                    Reservation reservation = service.createReservation("Stressgast " + customer,
+                            "stress" + customer + "@example.com", date, slot, random.nextInt(1, MAX_PERSONS + 1));
+                    createLatencies.record(System.nanoTime() - start);
+                    if (reservation != null) {
+                        booked.add(reservation.getId());
+                        created++;
+                    } else {
+                        rejected++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gesammelte Laufzeiten einer Operation in Nanosekunden (je Thread, daher ohne Synchronisierung).
+     */
+    private static final class Latencies {
+        private long[] samples = new long[1024];
+        private int size;
+
+        private void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        private static Latencies merge(List<Latencies> parts) {
+            Latencies merged = new Latencies();
+            for (Latencies part : parts) {
+                for (int i = 0; i < part.size; i++) {
+                    merged.record(part.samples[i]);
+                }
+            }
+            Arrays.sort(merged.samples, 0, merged.size);
+            return merged;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * size) - 1;
+            return samples[Math.max(0, Math.min(size - 1, index))] / 1e6;
+        }
+
+        private String summary() {
+            return String.format("n=%d, p50=%.2f ms, p90=%.2f ms, p99=%.2f ms, p99.9=%.2f ms, max=%.2f ms",
+                    size, percentileMillis(50), percentileMillis(90), percentileMillis(99),
+                    percentileMillis(99.9), percentileMillis(100));
+        }
+    }
+
+    /**
+     * Zusammengefasste Ergebnisse aller Worker.
+     */
+    private record Result(long created, long rejected, long deleted, long deleteFailures,
+                          Latencies creates, Latencies deletes, long elapsedNanos) {
+
+        private static Result merge(List<Worker> workers, long elapsedNanos) {
+            long created = 0, rejected = 0, deleted = 0, deleteFailures = 0;
+            List<Latencies> creates = new ArrayList<>();
+            List<Latencies> deletes = new ArrayList<>();
+            for (Worker worker : workers) {
+                created += worker.created;
+                rejected += worker.rejected;
+                deleted += worker.deleted;
+                deleteFailures += worker.deleteFailures;
+                creates.add(worker.createLatencies);
+                deletes.add(worker.deleteLatencies);
+            }
+            return new Result(created, rejected, deleted, deleteFailures,
+                    Latencies.merge(creates), Latencies.merge(deletes), elapsedNanos);
+        }
+
+        private void print(ReservationService.BookingStatistics statistics) {
+            double seconds = elapsedNanos / 1e9;
+            long operations = creates.size + deletes.size;
+            long attempts = Math.max(1, statistics.attempts());
+            System.out.printf("Operationen: %d in %.1f s (%.0f/s)%n", operations, seconds, operations / seconds);
+            System.out.printf("Buchungen: %d erfolgreich, %d abgelehnt (ausgebucht %.1f %%)%n",
+                    created, rejected, 100.0 * statistics.noTableAvailable() / attempts);
+            System.out.printf("Konflikte: %d Tisch-Konflikte (%.2f je 100 Buchungen), %d Sperr-Wiederholungen, %d Fehler%n",
+                    statistics.conflictRetries(), 100.0 * statistics.conflictRetries() / attempts,
+                    statistics.busyRetries(), statistics.failures());
+            System.out.printf("Stornierungen: %d erfolgreich, %d fehlgeschlagen%n", deleted, deleteFailures);
+            System.out.println("Latenz Buchen:    " + creates.summary());
+            System.out.println("Latenz Stornieren: " + deletes.summary());
+            System.out.println(statistics);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package benchmarks;
+
+import models.Reservation;
+import models.Table;
+import models.TimeSlot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.DatabaseManager;
+import services.ReservationPage;
+import services.ReservationService;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks der Persistenzschicht gegen temporäre Datenbanken mit 10.000, 100.000 und 1 Mio. Reservierungen.
+ * Gemessen werden Durchsatz (ops/ms) und Latenz-Perzentile (SampleTime: p50, p90, p99, p99.9).
+ * <p>
+ * Jeder Durchlauf (Trial) arbeitet auf einer eigenen Kopie der Vorlage (siehe {@link BenchmarkDatabase}),
+ * schreibende Benchmarks verändern also nicht die Daten anderer Durchläufe.
+ * Buchungen landen auf Tagen nach den befüllten Daten, so dass immer ein Tisch frei ist und der
+ * eigentliche Schreibpfad gemessen wird, nicht der Fall "ausgebucht".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class PersistenceBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10000", "100000", "1000000"})
+    public int reservations;
+
+    private BenchmarkDatabase database;
+    private DatabaseManager db;
+    private ReservationService service;
+    private LocalDate firstUpcomingDate;
+    private int upcomingDays;
+    private LocalDate firstEmptyDate;
+    // Fortlaufende Nummer je Buchung; daraus ergeben sich freier Tag, Zeitfenster und Tisch
+    private final AtomicInteger bookings = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void open() throws IOException, SQLException {
+        database = BenchmarkDatabase.open(reservations);
+        db = database.database();
+        service = new ReservationService(db);
+        firstUpcomingDate = database.firstUpcomingDate();
+        upcomingDays = Math.max(1, database.upcomingDays());
+        firstEmptyDate = database.firstEmptyDate();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        service.shutdown();
+        database.close();
+    }
+
+    /**
+     * Verfügbarkeitsprüfung für einen zufälligen Tag mit Daten, eine zufällige Sitzung und 1 bis 8 Personen.
+     */
+    @Benchmark
+    public Table findAvailableTable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate date = firstUpcomingDate.plusDays(random.nextInt(upcomingDays));
+        return db.findAvailableTable(date, BenchmarkDatabase.seating(random.nextInt(BenchmarkDatabase.SEATINGS.length)),
+                1 + random.nextInt(8));
+    }
+
+    /**
+     * Speichert eine Reservierung direkt auf einem vorgegebenen, freien Tisch (ohne Tischsuche).
+     */
+    @Benchmark
+    public int addReservation() {
+        int booking = bookings.getAndIncrement();
+        int perDay = BenchmarkDatabase.TABLE_COUNT * BenchmarkDatabase.SEATINGS.length;
+        LocalDate date = firstEmptyDate.plusDays(booking / perDay);
+        TimeSlot slot = BenchmarkDatabase.seating(booking / BenchmarkDatabase.TABLE_COUNT);
+        int tableId = 1 + booking % BenchmarkDatabase.TABLE_COUNT;
+        return db.addReservation(date, slot, 2, tableId, 1 + booking % Math.max(1, reservations / 4));
+    }
+
+    /**
+     * Vollständige Buchung über den Service: Tischsuche, Kunde suchen bzw. anlegen, Reservierung speichern.
+     */
+    @Benchmark
+    public Reservation createReservation() {
+        int booking = bookings.getAndIncrement();
+        int perDay = BenchmarkDatabase.TABLE_COUNT * BenchmarkDatabase.SEATINGS.length;
+        LocalDate date = firstEmptyDate.plusDays(booking / perDay);
+        TimeSlot slot = BenchmarkDatabase.seating(booking / BenchmarkDatabase.TABLE_COUNT);
+        return service.createReservation("Benchmark " + booking, "bench" + booking + "@example.com", date, slot, 2);
+    }
+
+    /**
+     * Erste Seite der kommenden Reservierungen (so lädt die Übersicht).
+     */
+    @Benchmark
+    public ReservationPage getUpcomingReservationsPage() {
+        return db.getUpcomingReservations(ReservationPage.Cursor.start(), PAGE_SIZE);
+    }
+
+    /**
+     * Alle kommenden Reservierungen auf einmal (die Hälfte der befüllten Reservierungen).
+     */
+    @Benchmark
+    public List<Reservation> getUpcomingReservations() {
+        return db.getUpcomingReservations();
+    }
+}
@@ -0,0 +1,551 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import models.Reservation;
+import models.Table;
+import models.TimeSlot;
+import models.WaitlistEntry;
+import services.AssignmentPlan;
+import services.Occupancy;
+import services.ReservationPage;
+import services.ReservationService;
+import services.TableAssignment;
+import services.TenantRouter;
+import services.UnknownTenantException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Kopflose JSON-API für Buchungen über den im JDK enthaltenen HTTP-Server, z.B. für das Online-Buchungs-Widget
+ * oder die Telefonannahme. Jede Anfrage läuft auf einem eigenen virtuellen Thread; blockierende
+ * Datenbankzugriffe binden so keinen Plattform-Thread, und tausende gleichzeitige Verfügbarkeitsprüfungen
+ * werden aus dem speicherinternen Verfügbarkeitsindex beantwortet.
+ * <p>
+ * Endpunkte (Restaurant jeweils über {@code ?tenant=...}, Default {@link TenantRouter#DEFAULT_TENANT};
+ * nicht in {@code restaurant.tenants} konfigurierte Restaurants ergeben 404):
+ * <ul>
+ *   <li>{@code GET /api/reservations?limit=50&afterDate=...&afterId=...} – kommende Reservierungen seitenweise</li>
+ *   <li>{@code POST /api/reservations} – Buchung mit {@code {"name","contact","date","time","durationMinutes","persons"}};
+ *       mit {@code "waitlist": true} kommt die Gruppe ohne freien Tisch auf die Warteliste (202)</li>
+ *   <li>{@code DELETE /api/reservations/{id}} – Reservierung löschen</li>
+ *   <li>{@code GET /api/availability?date=...&time=...&durationMinutes=...&persons=...} – freien Tisch
+ *       (bzw. zusammenstellbare Nachbartische) prüfen</li>
+ *   <li>{@code GET /api/occupancy?date=...&tenants=a,b} – Auslastung mehrerer Restaurants (parallel abgefragt)</li>
+ *   <li>{@code GET /api/waitlist?date=...} – wartende Gruppen in Nachrück-Reihenfolge,
+ *       {@code DELETE /api/waitlist/{id}} nimmt eine Gruppe von der Warteliste</li>
+ *   <li>{@code GET /api/table-plan?date=...} – Neuverteilung der Tische eines Tages berechnen,
+ *       {@code POST} übernimmt sie (sofern vollständig und ohne sinkende Platzauslastung)</li>
+ * </ul>
+ */
+public class BookingApiServer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(BookingApiServer.class.getName());
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_BACKLOG = 4096;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final TenantRouter router;
+    private final HttpServer server;
+    // Ein virtueller Thread pro Anfrage
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param address Adresse, an die der Server gebunden wird (Port 0 wählt einen freien Port)
+     * @param backlog Länge der Warteschlange für noch nicht angenommene Verbindungen
+     */
+    public BookingApiServer(TenantRouter router, InetSocketAddress address, int backlog) throws IOException {
+        this.router = router;
+        this.server = HttpServer.create(address, backlog);
+        server.setExecutor(executor);
+        server.createContext("/api/reservations", exchange -> handle(exchange, this::reservations));
+        server.createContext("/api/availability", exchange -> handle(exchange, this::availability));
+        server.createContext("/api/occupancy", exchange -> handle(exchange, this::occupancy));
+        server.createContext("/api/table-plan", exchange -> handle(exchange, this::tablePlan));
+        server.createContext("/api/waitlist", exchange -> handle(exchange, this::waitlist));
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Buchungs-API gestartet auf " + server.getAddress());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Beendet den Server; laufende Anfragen haben bis zu einer Sekunde Zeit.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        LOGGER.info("Buchungs-API beendet");
+    }
+
+    // ------------------------------------------------------------------
+    // Endpunkte
+    // ------------------------------------------------------------------
+
+    private Response reservations(HttpExchange exchange, Map<String, String> query) throws ApiException {
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.substring("/api/reservations".length());
+        String method = exchange.getRequestMethod();
+        if (rest.isEmpty() || rest.equals("/")) {
+            if ("GET".equals(method)) {
+                return listReservations(query);
+            }
+            if ("POST".equals(method)) {
+                return createReservation(query, readBody(exchange));
+            }
+            throw new ApiException(405, "Methode nicht erlaubt");
+        }
+        if (!"DELETE".equals(method)) {
+            throw new ApiException(405, "Methode nicht erlaubt");
+        }
+        int id = parseInt(rest.substring(1), "id");
+        boolean deleted = withService(query, service -> service.deleteReservation(id));
+        if (!deleted) {
+            throw new ApiException(404, "Reservierung " + id + " nicht gefunden");
+        }
+        return new Response(204, null);
+    }
+
+    private Response listReservations(Map<String, String> query) throws ApiException {
+        int limit = query.containsKey("limit") ? parseInt(query.get("limit"), "limit") : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException(400, "limit muss zwischen 1 und " + MAX_PAGE_SIZE + " liegen");
+        }
+        ReservationPage.Cursor after = ReservationPage.Cursor.start();
+        if (query.containsKey("afterDate")) {
+            after = new ReservationPage.Cursor(parseDate(query.get("afterDate")),
+                    query.containsKey("afterId") ? parseInt(query.get("afterId"), "afterId") : 0);
+        }
+        ReservationPage.Cursor cursor = after;
+        ReservationPage page = withService(query, service -> service.getUpcomingReservations(cursor, limit));
+        List<Object> reservations = new ArrayList<>(page.reservations().size());
+        for (Reservation reservation : page.reservations()) {
+            reservations.add(toJson(reservation));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("reservations", reservations);
+        body.put("hasMore", page.hasMore());
+        body.put("next", Map.of("afterDate", page.next().date().toString(), "afterId", page.next().id()));
+        body.put("version", page.version());
+        return new Response(200, body);
+    }
+
+    private Response createReservation(Map<String, String> query, String body) throws ApiException {
+        Map<String, Object> request;
+        try {
+            request = Json.parseObject(body);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Ungültiges JSON: " + e.getMessage());
+        }
+        String name = requireString(request, "name");
+        String contact = requireString(request, "contact");
+        LocalDate date = parseDate(requireString(request, "date"));
+        int persons = requireInt(request, "persons");
+        TimeSlot slot = parseSlot(
+                request.get("time") == null ? null : String.valueOf(request.get("time")),
+                request.get("durationMinutes") == null ? null : String.valueOf(request.get("durationMinutes")));
+        validateBooking(date, persons);
+
+        Reservation reservation = withService(query,
+                service -> service.createReservation(name, contact, date, slot, persons));
+        if (reservation == null) {
+            if (Boolean.TRUE.equals(request.get("waitlist"))) {
+                WaitlistEntry entry = withService(query, service -> service.joinWaitlist(name, contact, date, slot, persons));
+                if (entry == null) {
+                    throw new ApiException(500, "Warteliste nicht verfügbar");
+                }
+                return new Response(202, Map.of("waitlist", toJson(entry)));
+            }
+            throw new ApiException(409, "Kein passender Tisch frei");
+        }
+        return new Response(201, toJson(reservation));
+    }
+
+    private Response waitlist(HttpExchange exchange, Map<String, String> query) throws ApiException {
+        String rest = exchange.getRequestURI().getPath().substring("/api/waitlist".length());
+        if (rest.isEmpty() || rest.equals("/")) {
+            requireGet(exchange);
+            LocalDate date = parseDate(requireParameter(query, "date"));
+            List<WaitlistEntry> entries = withService(query, service -> service.getWaitlist(date));
+            List<Object> waitlist = new ArrayList<>(entries.size());
+            for (WaitlistEntry entry : entries) {
+                waitlist.add(toJson(entry));
+            }
+            return new Response(200, Map.of("date", date.toString(), "waitlist", waitlist));
+        }
+        if (!"DELETE".equals(exchange.getRequestMethod())) {
+            throw new ApiException(405, "Methode nicht erlaubt");
+        }
+        int id = parseInt(rest.substring(1), "id");
+        boolean removed = withService(query, service -> service.leaveWaitlist(id));
+        if (!removed) {
+            throw new ApiException(404, "Wartender Eintrag " + id + " nicht gefunden");
+        }
+        return new Response(204, null);
+    }
+
+    private Response availability(HttpExchange exchange, Map<String, String> query) throws ApiException {
+        requireGet(exchange);
+        LocalDate date = parseDate(requireParameter(query, "date"));
+        int persons = parseInt(requireParameter(query, "persons"), "persons");
+        TimeSlot slot = parseSlot(query.get("time"), query.get("durationMinutes"));
+        validateBooking(date, persons);
+
+        TableAssignment assignment = withService(query, service -> service.findTableAssignment(date, slot, persons));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("available", assignment != null);
+        body.put("table", assignment == null ? null : toJson(assignment.primary()));
+        body.put("tables", assignment == null ? List.of() : toJson(assignment.tables()));
+        body.put("seats", assignment == null ? 0 : assignment.seats());
+        return new Response(200, body);
+    }
+
+    private Response tablePlan(HttpExchange exchange, Map<String, String> query) throws ApiException {
+        String method = exchange.getRequestMethod();
+        if (!"GET".equals(method) && !"POST".equals(method)) {
+            throw new ApiException(405, "Methode nicht erlaubt");
+        }
+        LocalDate date = parseDate(requireParameter(query, "date"));
+        boolean apply = "POST".equals(method);
+        AssignmentPlan plan = withService(query, service -> service.optimizeDay(date, apply));
+        if (plan == null) {
+            throw new ApiException(500, "Tischplan konnte nicht berechnet werden");
+        }
+        Map<String, Object> assignments = new LinkedHashMap<>();
+        plan.assignments().forEach((id, assignment) -> assignments.put(String.valueOf(id), toJson(assignment.tables())));
+        List<Object> unassigned = new ArrayList<>(plan.unassigned().size());
+        for (Reservation reservation : plan.unassigned()) {
+            unassigned.add(reservation.getId());
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("date", date.toString());
+        body.put("applied", apply && plan.isWorthApplying());
+        body.put("moved", plan.moved());
+        body.put("seatUtilizationBefore", plan.seatUtilizationBefore());
+        body.put("seatUtilizationAfter", plan.seatUtilizationAfter());
+        body.put("assignments", assignments);
+        body.put("unassigned", unassigned);
+        return new Response(200, body);
+    }
+
+    private Response occupancy(HttpExchange exchange, Map<String, String> query) throws ApiException {
+        requireGet(exchange);
+        LocalDate date = query.containsKey("date") ? parseDate(query.get("date")) : LocalDate.now();
+        List<String> tenants = query.containsKey("tenants")
+                ? Arrays.stream(query.get("tenants").split(",")).map(String::trim).filter(t -> !t.isEmpty()).toList()
+                : TenantRouter.configuredTenants();
+        for (String tenant : tenants) {
+            requireKnownTenant(tenant);
+        }
+        Map<String, Occupancy> occupancies = router.getGroupOccupancyAsync(tenants, date).join();
+        Map<String, Object> restaurants = new LinkedHashMap<>();
+        occupancies.forEach((tenant, occupancy) -> restaurants.put(tenant, toJson(occupancy)));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("date", date.toString());
+        body.put("restaurants", restaurants);
+        body.put("total", toJson(Occupancy.total(date, occupancies.values())));
+        return new Response(200, body);
+    }
+
+    // ------------------------------------------------------------------
+    // Anfrageverarbeitung
+    // ------------------------------------------------------------------
+
+    /**
+     * Führt einen Endpunkt aus und schreibt seine Antwort bzw. den Fehler als JSON.
+     */
+    private void handle(HttpExchange exchange, Route route) throws IOException {
+        Response response;
+        try {
+            response = route.handle(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (ApiException e) {
+            response = new Response(e.getStatus(), Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Fehler bei " + exchange.getRequestMethod() + " " + exchange.getRequestURI(), e);
+            response = new Response(500, Map.of("error", "Interner Fehler"));
+        }
+        try (exchange) {
+            if (response.body() == null) {
+                exchange.sendResponseHeaders(response.status(), -1);
+                return;
+            }
+            byte[] bytes = Json.write(response.body()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Führt eine Aufgabe mit dem Service des angefragten Restaurants aus.
+     */
+    private <T> T withService(Map<String, String> query, Function<ReservationService, T> work)
+            throws ApiException {
+        String tenant = query.getOrDefault("tenant", TenantRouter.DEFAULT_TENANT);
+        requireKnownTenant(tenant);
+        try {
+            return router.withTenant(tenant, work);
+        } catch (UnknownTenantException e) {
+            throw new ApiException(404, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ApiException(503, "Restaurant " + tenant + " nicht verfügbar");
+        }
+    }
+
+    /**
+     * Nur konfigurierte Restaurants sind erreichbar; unbekannte IDs öffnen oder erzeugen keine Datei.
+     */
+    private void requireKnownTenant(String tenant) throws ApiException {
+        if (!router.isKnown(tenant)) {
+            throw new ApiException(404, "Restaurant " + tenant + " nicht gefunden");
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws ApiException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Anfrage zu groß");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ApiException(400, "Anfrage konnte nicht gelesen werden");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static void requireGet(HttpExchange exchange) throws ApiException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            throw new ApiException(405, "Methode nicht erlaubt");
+        }
+    }
+
+    private static String requireParameter(Map<String, String> query, String name) throws ApiException {
+        String value = query.get(name);
+        if (value == null || value.isBlank()) {
+            throw new ApiException(400, "Parameter " + name + " fehlt");
+        }
+        return value;
+    }
+
+    private static String requireString(Map<String, Object> request, String name) throws ApiException {
+        Object value = request.get(name);
+        if (!(value instanceof String string) || string.isBlank()) {
+            throw new ApiException(400, "Feld " + name + " fehlt");
+        }
+        return string.trim();
+    }
+
+    private static int requireInt(Map<String, Object> request, String name) throws ApiException {
+        Object value = request.get(name);
+        if (!(value instanceof Long number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new ApiException(400, "Feld " + name + " muss eine ganze Zahl sein");
+        }
+        return number.intValue();
+    }
+
+    private static int parseInt(String value, String name) throws ApiException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " muss eine ganze Zahl sein");
+        }
+    }
+
+    private static LocalDate parseDate(String value) throws ApiException {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Datum muss im Format JJJJ-MM-TT angegeben werden");
+        }
+    }
+
+    /**
+     * Zeitfenster aus Uhrzeit ("HH:mm") und Dauer in Minuten; ohne Uhrzeit das Standard-Zeitfenster.
+     */
+    private static TimeSlot parseSlot(String time, String durationMinutes) throws ApiException {
+        if (time == null || time.isBlank()) {
+            return TimeSlot.defaultSlot();
+        }
+        int duration = durationMinutes == null
+                ? TimeSlot.DEFAULT_DURATION * TimeSlot.SLOT_MINUTES
+                : parseInt(durationMinutes, "durationMinutes");
+        if (duration < 1) {
+            throw new ApiException(400, "durationMinutes muss positiv sein");
+        }
+        try {
+            return TimeSlot.parse(time, duration);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Uhrzeit muss im Format HH:mm angegeben werden");
+        }
+    }
+
+    private static void validateBooking(LocalDate date, int persons) throws ApiException {
+        if (persons < 1) {
+            throw new ApiException(400, "persons muss mindestens 1 sein");
+        }
+        if (date.isBefore(LocalDate.now())) {
+            throw new ApiException(400, "Datum liegt in der Vergangenheit");
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // JSON-Darstellung
+    // ------------------------------------------------------------------
+
+    private static Map<String, Object> toJson(Reservation reservation) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", reservation.getId());
+        json.put("date", reservation.getDate().toString());
+        json.put("time", reservation.getSlot().getStartTime().toString());
+        json.put("endTime", reservation.getSlot().getEndTime().toString());
+        json.put("durationMinutes", reservation.getSlot().getDurationMinutes());
+        json.put("persons", reservation.getPersons());
+        json.put("table", reservation.getTable() == null ? null : toJson(reservation.getTable()));
+        json.put("tables", toJson(reservation.getTables()));
+        json.put("seats", reservation.getSeats());
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("id", reservation.getCustomer() == null ? null : reservation.getCustomer().getId());
+        customer.put("name", reservation.getName());
+        customer.put("contact", reservation.getContact());
+        json.put("customer", customer);
+        return json;
+    }
+
+    private static Map<String, Object> toJson(WaitlistEntry entry) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", entry.getId());
+        json.put("date", entry.getDate().toString());
+        json.put("time", entry.getSlot().getStartTime().toString());
+        json.put("endTime", entry.getSlot().getEndTime().toString());
+        json.put("durationMinutes", entry.getSlot().getDurationMinutes());
+        json.put("persons", entry.getPersons());
+        json.put("requestedAt", entry.getRequestedAt().toString());
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("id", entry.getCustomer().getId());
+        customer.put("name", entry.getCustomer().getName());
+        customer.put("contact", entry.getCustomer().getContact());
+        json.put("customer", customer);
+        return json;
+    }
+
+    private static Map<String, Object> toJson(Table table) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", table.getId());
+        json.put("capacity", table.getCapacity());
+        if (table.getArea() != null) {
+            json.put("area", table.getArea());
+            json.put("position", table.getPosition());
+        }
+        return json;
+    }
+
+    private static List<Object> toJson(List<Table> tables) {
+        List<Object> json = new ArrayList<>(tables.size());
+        for (Table table : tables) {
+            json.add(toJson(table));
+        }
+        return json;
+    }
+
+    private static Map<String, Object> toJson(Occupancy occupancy) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("tables", occupancy.tables());
+        json.put("seats", occupancy.seats());
+        json.put("reservations", occupancy.reservations());
+        json.put("guests", occupancy.guests());
+        json.put("bookedTableSlots", occupancy.bookedTableSlots());
+        json.put("tableSlotUtilization", occupancy.tableSlotUtilization());
+        return json;
+    }
+
+    /**
+     * Ein Endpunkt; liefert die Antwort oder wirft eine {@link ApiException}.
+     */
+    private interface Route {
+        Response handle(HttpExchange exchange, Map<String, String> query) throws ApiException;
+    }
+
+    /**
+     * HTTP-Status und JSON-Inhalt (null für Antworten ohne Inhalt).
+     */
+    private record Response(int status, Object body) {
+    }
+
+    /**
+     * Fehler, der als JSON {@code {"error": ...}} mit dem angegebenen Status beantwortet wird.
+     */
+    private static final class ApiException extends Exception {
+        private final int status;
+
+        private ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        private int getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * Startet die Buchungs-API ohne Oberfläche.
+     * Port über das erste Argument oder {@code restaurant.api.port} (Default 8080), gebunden an
+     * {@code restaurant.api.host} (Default 127.0.0.1, also nur lokal erreichbar).
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("restaurant.api.port", DEFAULT_PORT);
+        String host = System.getProperty("restaurant.api.host", "127.0.0.1");
+        int backlog = Integer.getInteger("restaurant.api.backlog", DEFAULT_BACKLOG);
+
+        TenantRouter router = new TenantRouter();
+        router.start();
+        BookingApiServer apiServer = new BookingApiServer(router, new InetSocketAddress(host, port), backlog);
+        // Beim Beenden erst keine Anfragen mehr annehmen, dann die Datenbanken schließen
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.close();
+            router.close();
+        }));
+        apiServer.start();
+    }
+}
@@ -0,0 +1,287 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimales JSON für die Buchungs-API (das Projekt hat keine JSON-Bibliothek).
+ * Geschrieben werden {@link Map}, {@link Iterable}, {@link String}, {@link Number}, {@link Boolean} und null;
+ * gelesen werden dieselben Typen (Objekte als {@link LinkedHashMap}, Zahlen als {@link Long} bzw. {@link Double}).
+ */
+final class Json {
+
+    // Größte Verschachtelungstiefe beim Lesen; tiefere Eingaben würden den Stack des Parsers sprengen
+    static final int MAX_DEPTH = 32;
+
+    private Json() {
+    }
+
+    /**
+     * Wandelt einen Wert in JSON-Text um.
+     */
+    static String write(Object value) {
+        StringBuilder out = new StringBuilder(256);
+        write(out, value);
+        return out.toString();
+    }
+
+    private static void write(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String string) {
+            writeString(out, string);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Map<?, ?> map) {
+            out.append('{');
+            Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<?, ?> entry = entries.next();
+                writeString(out, String.valueOf(entry.getKey()));
+                out.append(':');
+                write(out, entry.getValue());
+                if (entries.hasNext()) {
+                    out.append(',');
+                }
+            }
+            out.append('}');
+        } else if (value instanceof Iterable<?> iterable) {
+            out.append('[');
+            Iterator<?> items = iterable.iterator();
+            while (items.hasNext()) {
+                write(out, items.next());
+                if (items.hasNext()) {
+                    out.append(',');
+                }
+            }
+            out.append(']');
+        } else {
+            writeString(out, value.toString());
+        }
+    }
+
+    private static void writeString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Liest einen JSON-Text.
+     * @throws IllegalArgumentException bei ungültigem JSON oder mehr als {@link #MAX_DEPTH} Ebenen
+     */
+    static Object parse(String text) {
+        Parser parser = new Parser(text);
+        Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("Unerwartete Zeichen nach dem Ende");
+        }
+        return value;
+    }
+
+    /**
+     * Liest ein JSON-Objekt.
+     * @throws IllegalArgumentException bei ungültigem JSON oder wenn der Text kein Objekt ist
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("JSON-Objekt erwartet");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int position;
+        private int depth;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private Object value() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw error("Unerwartetes Ende");
+            }
+            char c = text.charAt(position);
+            switch (c) {
+                case '{':
+                    enter();
+                    Map<String, Object> object = object();
+                    depth--;
+                    return object;
+                case '[':
+                    enter();
+                    List<Object> array = array();
+                    depth--;
+                    return array;
+                case '"':
+                    return string();
+                case 't':
+                    return literal("true", Boolean.TRUE);
+                case 'f':
+                    return literal("false", Boolean.FALSE);
+                case 'n':
+                    return literal("null", null);
+                default:
+                    return number();
+            }
+        }
+
+        private void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw error("Mehr als " + MAX_DEPTH + " Ebenen verschachtelt");
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return result;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Schlüssel erwartet");
+                }
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                result.put(key, value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect('}');
+                    return result;
+                }
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> result = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return result;
+            }
+            while (true) {
+                result.add(value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect(']');
+                    return result;
+                }
+            }
+        }
+
+        private String string() {
+            StringBuilder result = new StringBuilder();
+            position++;
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return result.toString();
+                }
+                if (c != '\\') {
+                    result.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n' -> result.append('\n');
+                    case 'r' -> result.append('\r');
+                    case 't' -> result.append('\t');
+                    case 'b' -> result.append('\b');
+                    case 'f' -> result.append('\f');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error("Unvollständige Unicode-Escape-Sequenz");
+                        }
+                        result.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> result.append(escaped);
+                }
+            }
+            throw error("Nicht abgeschlossene Zeichenkette");
+        }
+
+        private Object number() {
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            String number = text.substring(start, position);
+            try {
+                if (number.contains(".") || number.contains("e") || number.contains("E")) {
+                    return Double.parseDouble(number);
+                }
+                return Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                throw error("Ungültiger Wert");
+            }
+        }
+
+        private Object literal(String literal, Object value) {
+            if (!text.startsWith(literal, position)) {
+                throw error("Ungültiger Wert");
+            }
+            position += literal.length();
+            return value;
+        }
+
+        private char peek() {
+            return position < text.length() ? text.charAt(position) : '\0';
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("'" + c + "' erwartet");
+            }
+            position++;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " (Position " + position + ")");
+        }
+    }
+}
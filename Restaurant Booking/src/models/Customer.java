@@ -41,6 +41,29 @@ public class Customer {
         this.contact = contact;
     }
 
+    /**
+     * Normalisierter Kontakt als Identitätsschlüssel eines Kunden: E-Mail-Adressen klein geschrieben,
+     * Telefonnummern ohne Leer- und Trennzeichen ("0171 / 123-45" → "017112345", "0049…" → "+49…").
+     * @return der Schlüssel, oder null wenn kein Kontakt angegeben ist
+     */
+    public static String normalizeContact(String contact) {
+        if (contact == null) {
+            return null;
+        }
+        String trimmed = contact.trim().toLowerCase();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        if (trimmed.contains("@")) {
+            return trimmed.replaceAll("\\s+", "");
+        }
+        String phone = trimmed.replaceAll("[\\s\\-/().]", "");
+        if (phone.startsWith("00")) {
+            phone = "+" + phone.substring(2);
+        }
+        return phone.isEmpty() ? trimmed : phone;
+    }
+
     @Override
     public String toString() {
         return "Kunde #" + id + ": " + name + " (" + contact + ")";
@@ -1,10 +1,14 @@
 package models;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Model-Klasse für eine Tischreservierung.
- * Beinhaltet das Reservierungsdatum, die Personenanzahl, sowie Referenzen auf den zugewiesenen Tisch und den Kunden.
+ * Beinhaltet das Reservierungsdatum, das Zeitfenster, die Personenanzahl, sowie Referenzen auf den
+ * zugewiesenen Tisch und den Kunden. Für größere Gruppen können weitere, benachbarte Tische
+ * dazugestellt sein ({@link #getJoinedTables()}).
  */
 public class Reservation {
     private final int id;
@@ -12,13 +16,33 @@ public class Reservation {
     private final int persons;
     private final Table table;
     private final Customer customer;
-    private final String time = "18:00"; // Standardzeit für alle Reservierungen
+    private final TimeSlot slot;
+    private final List<Table> joinedTables;
 
+    /**
+     * Reservierung im Standard-Zeitfenster (18:00–20:00 Uhr).
+     */
     public Reservation(int id, LocalDate date, int persons, Table table, Customer customer) {
+        this(id, date, TimeSlot.defaultSlot(), persons, table, customer);
+    }
+
+    public Reservation(int id, LocalDate date, TimeSlot slot, int persons, Table table, Customer customer) {
+        this(id, date, slot, persons, table, List.of(), customer);
+    }
+
+    /**
+     * Reservierung an zusammengestellten Tischen.
+     * @param table        Haupttisch
+     * @param joinedTables dazugestellte Tische (ohne den Haupttisch, ggf. leer)
+     */
+    public Reservation(int id, LocalDate date, TimeSlot slot, int persons, Table table, List<Table> joinedTables,
+                       Customer customer) {
         this.id = id;
         this.date = date;
+        this.slot = slot;
         this.persons = persons;
         this.table = table;
+        this.joinedTables = List.copyOf(joinedTables);
         this.customer = customer;
     }
 
@@ -38,6 +62,50 @@ public class Reservation {
         return table;
     }
 
+    /**
+     * Dazugestellte Tische ohne den Haupttisch; leer, wenn nur ein Tisch reserviert ist.
+     */
+    public List<Table> getJoinedTables() {
+        return joinedTables;
+    }
+
+    /**
+     * Haupttisch und alle dazugestellten Tische.
+     */
+    public List<Table> getTables() {
+        List<Table> tables = new ArrayList<>(1 + joinedTables.size());
+        if (table != null) {
+            tables.add(table);
+        }
+        tables.addAll(joinedTables);
+        return tables;
+    }
+
+    /**
+     * Sitzplätze aller reservierten Tische zusammen.
+     */
+    public int getSeats() {
+        int seats = table != null ? table.getCapacity() : 0;
+        for (Table joined : joinedTables) {
+            seats += joined.getCapacity();
+        }
+        return seats;
+    }
+
+    /**
+     * Tischnummern für die Anzeige, z.B. "3" oder "3+4".
+     */
+    public String getTableNumbers() {
+        StringBuilder numbers = new StringBuilder();
+        for (Table t : getTables()) {
+            if (numbers.length() > 0) {
+                numbers.append('+');
+            }
+            numbers.append(t.getId());
+        }
+        return numbers.toString();
+    }
+
     public Customer getCustomer() {
         return customer;
     }
@@ -50,7 +118,14 @@ public class Reservation {
         return customer != null ? customer.getContact() : "";
     }
 
+    public TimeSlot getSlot() {
+        return slot;
+    }
+
+    /**
+     * Beginn der Reservierung im Format "HH:mm".
+     */
     public String getTime() {
-        return time;
+        return slot.getStartTime().toString();
     }
 }
\ No newline at end of file
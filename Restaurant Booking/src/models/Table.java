@@ -1,8 +1,14 @@
 package models;
 
 public class Table {
+    /** Bereich neu angelegter Tische ohne eigene Angabe */
+    public static final String DEFAULT_AREA = "Saal";
+
     protected int id;
     protected int capacity;
+    // Aufstellung: Tische im selben Bereich mit aufeinanderfolgender Position stehen nebeneinander
+    protected String area;
+    protected int position;
 
     public Table(int capacity) {
         this.id = 0; // ID wird automatisch von der Datenbank vergeben (Auto-Increment)
@@ -14,6 +20,18 @@ public class Table {
         this.capacity = capacity;
     }
 
+    /**
+     * Tisch mit Aufstellung, z.B. für das Zusammenstellen benachbarter Tische.
+     * @param area     Bereich (z.B. "Saal", "Terrasse")
+     * @param position Platz innerhalb des Bereichs, fortlaufend ab 1 (0 = ohne Aufstellung)
+     */
+    public Table(int id, int capacity, String area, int position) {
+        this.id = id;
+        this.capacity = capacity;
+        this.area = area;
+        this.position = position;
+    }
+
     public int getId() {
         return id;
     }
@@ -30,6 +48,22 @@ public class Table {
         this.capacity = capacity;
     }
 
+    public String getArea() {
+        return area;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Gibt an, ob der Tisch direkt neben dem anderen steht und mit ihm zusammengestellt werden kann.
+     */
+    public boolean isAdjacentTo(Table other) {
+        return area != null && position > 0 && other.position > 0
+                && area.equals(other.area) && Math.abs(position - other.position) == 1;
+    }
+
     @Override
     public String toString() {
         return "Tisch #" + id + " (Plätze: " + capacity + ")";
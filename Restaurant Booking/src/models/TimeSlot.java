@@ -0,0 +1,112 @@
+package models;
+
+import java.time.LocalTime;
+
+/**
+ * Zeitfenster einer Reservierung im 30-Minuten-Raster: Startfenster (Index ab Mitternacht) und Dauer.
+ * Ein Tag hat 48 Fenster, daher lässt sich die Belegung eines Tisches pro Tag als long-Bitmaske darstellen.
+ */
+public class TimeSlot {
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    /** Standardbeginn 18:00 Uhr (bisherige feste Reservierungszeit) */
+    public static final int DEFAULT_START = 36;
+    /** Standarddauer 2 Stunden */
+    public static final int DEFAULT_DURATION = 4;
+
+    private final int start;
+    private final int duration;
+
+    public TimeSlot(int start, int duration) {
+        if (start < 0 || duration < 1 || start + duration > SLOTS_PER_DAY) {
+            throw new IllegalArgumentException("Ungültiges Zeitfenster: Start " + start + ", Dauer " + duration);
+        }
+        this.start = start;
+        this.duration = duration;
+    }
+
+    /**
+     * Standard-Zeitfenster 18:00–20:00 Uhr.
+     */
+    public static TimeSlot defaultSlot() {
+        return new TimeSlot(DEFAULT_START, DEFAULT_DURATION);
+    }
+
+    /**
+     * Erstellt ein Zeitfenster aus Uhrzeit und Dauer; die Uhrzeit wird auf das Raster abgerundet,
+     * die Dauer aufgerundet.
+     */
+    public static TimeSlot of(LocalTime startTime, int durationMinutes) {
+        int start = (startTime.getHour() * 60 + startTime.getMinute()) / SLOT_MINUTES;
+        int duration = Math.max(1, (durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        return new TimeSlot(start, Math.min(duration, SLOTS_PER_DAY - start));
+    }
+
+    /**
+     * Erstellt ein Zeitfenster aus einer Uhrzeit im Format "HH:mm" und einer Dauer in Minuten.
+     */
+    public static TimeSlot parse(String startTime, int durationMinutes) {
+        return of(LocalTime.parse(startTime), durationMinutes);
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    /** Erstes Fenster nach dem Ende (exklusiv) */
+    public int getEnd() {
+        return start + duration;
+    }
+
+    public int getDurationMinutes() {
+        return duration * SLOT_MINUTES;
+    }
+
+    public LocalTime getStartTime() {
+        return LocalTime.of(0, 0).plusMinutes((long) start * SLOT_MINUTES);
+    }
+
+    public LocalTime getEndTime() {
+        return LocalTime.of(0, 0).plusMinutes((long) getEnd() * SLOT_MINUTES);
+    }
+
+    /**
+     * Prüft, ob sich zwei Zeitfenster überschneiden (Ende ist exklusiv).
+     */
+    public boolean overlaps(TimeSlot other) {
+        return start < other.getEnd() && other.start < getEnd();
+    }
+
+    /**
+     * Bitmaske der belegten Fenster (Bit i = Fenster i).
+     */
+    public long toMask() {
+        return ((1L << duration) - 1) << start;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimeSlot)) {
+            return false;
+        }
+        TimeSlot other = (TimeSlot) o;
+        return start == other.start && duration == other.duration;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * start + duration;
+    }
+
+    @Override
+    public String toString() {
+        return getStartTime() + "–" + (getEnd() == SLOTS_PER_DAY ? "24:00" : getEndTime().toString());
+    }
+}
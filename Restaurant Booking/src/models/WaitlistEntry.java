@@ -0,0 +1,74 @@
+package models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Model-Klasse für einen Eintrag auf der Warteliste: eine Gruppe, für die beim Buchen kein Tisch frei war.
+ * Wird eine passende Reservierung storniert, rückt der Eintrag automatisch nach; die dabei angelegte
+ * Reservierung steht dann in {@link #getReservationId()}.
+ */
+public class WaitlistEntry {
+    private final int id;
+    private final LocalDate date;
+    private final TimeSlot slot;
+    private final int persons;
+    private final Customer customer;
+    private final LocalDateTime requestedAt;
+    private final int reservationId;
+
+    /**
+     * @param requestedAt   Zeitpunkt der Anfrage (bestimmt zusammen mit der Gruppengröße die Reihenfolge)
+     * @param reservationId ID der Reservierung nach dem Nachrücken, 0 solange der Eintrag wartet
+     */
+    public WaitlistEntry(int id, LocalDate date, TimeSlot slot, int persons, Customer customer,
+                         LocalDateTime requestedAt, int reservationId) {
+        this.id = id;
+        this.date = date;
+        this.slot = slot;
+        this.persons = persons;
+        this.customer = customer;
+        this.requestedAt = requestedAt;
+        this.reservationId = reservationId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public TimeSlot getSlot() {
+        return slot;
+    }
+
+    public int getPersons() {
+        return persons;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public LocalDateTime getRequestedAt() {
+        return requestedAt;
+    }
+
+    public int getReservationId() {
+        return reservationId;
+    }
+
+    /**
+     * Gibt an, ob der Eintrag bereits zu einer Reservierung nachgerückt ist.
+     */
+    public boolean isPromoted() {
+        return reservationId > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Warteliste #" + id + " (" + date + ", " + slot + ", " + persons + " Personen)";
+    }
+}
@@ -0,0 +1,33 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Ereignis für eine vollständige Buchung über {@code ReservationService.createReservation}
+ * (Tischsuche, Kunde, Reservierung und COMMIT inklusive Wiederholungen). Die einzelnen Schritte
+ * stehen als eigene Ereignisse im selben Thread innerhalb dieses Zeitraums.
+ */
+@Name("restaurant.Booking")
+@Label("Buchung")
+@Category({"Restaurant", "Buchung"})
+@Description("Vollständige Buchung einer Reservierung")
+@StackTrace(false)
+public class BookingEvent extends SlotEvent {
+    @Label("Tisch")
+    @Description("Gebuchter Tisch, 0 wenn keiner frei war oder die Buchung fehlschlug")
+    public int tableId;
+
+    @Label("Reservierung")
+    public int reservationId;
+
+    @Label("Versuche")
+    @Description("Anzahl Transaktionen (mehr als 1 nach SQLITE_BUSY)")
+    public int attempts;
+
+    @Label("Erfolgreich")
+    public boolean success;
+}
@@ -0,0 +1,26 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Ereignis für das Suchen bzw. Anlegen des Kunden einer Buchung.
+ */
+@Name("restaurant.CustomerLookup")
+@Label("Kunde suchen/anlegen")
+@Category({"Restaurant", "Buchung"})
+@Description("Kunde über den normalisierten Kontakt suchen oder neu anlegen")
+@StackTrace(false)
+public class CustomerLookupEvent extends jdk.jfr.Event {
+    @Label("Kunde")
+    public int customerId;
+
+    @Label("Cache-Treffer")
+    public boolean cacheHit;
+
+    @Label("Neu angelegt")
+    public boolean created;
+}
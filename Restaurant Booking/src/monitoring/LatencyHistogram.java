@@ -0,0 +1,125 @@
+package monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-freies Histogramm für Laufzeiten in Nanosekunden mit fester Größe.
+ * <p>
+ * Die Buckets sind logarithmisch-linear aufgeteilt: jede Zweierpotenz wird in {@code 2^SUB_BITS}
+ * gleich breite Buckets zerlegt. Ein Perzentil ist damit auf höchstens 12,5 % genau, unabhängig davon,
+ * ob die Werte im Mikro- oder Sekundenbereich liegen, und das Aufzeichnen kostet nur einige
+ * atomare Inkremente (keine Sortierung, kein Speicher pro Wert).
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Zeichnet eine Laufzeit auf; negative Werte werden als 0 gezählt.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Setzt das Histogramm zurück. Gleichzeitig aufgezeichnete Werte können dabei verloren gehen.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Momentaufnahme mit Anzahl, Mittelwert und den üblichen Perzentilen.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long maxNanos = max.get();
+        return new Snapshot(total, sum.sum(), maxNanos,
+                percentile(counts, total, 50, maxNanos),
+                percentile(counts, total, 90, maxNanos),
+                percentile(counts, total, 99, maxNanos),
+                percentile(counts, total, 99.9, maxNanos));
+    }
+
+    private static long percentile(long[] counts, long total, double percentile, long maxNanos) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Obergrenze des Buckets, aber nie mehr als der tatsächlich gemessene Höchstwert
+                return Math.min(lowerBound(i + 1) - 1, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return ((magnitude - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        if (index >= BUCKETS) {
+            return Long.MAX_VALUE;
+        }
+        int magnitude = (index >> SUB_BITS) + SUB_BITS - 1;
+        long sub = index & (SUB_BUCKETS - 1);
+        return (SUB_BUCKETS + sub) << (magnitude - SUB_BITS);
+    }
+
+    /**
+     * Unveränderliche Momentaufnahme eines Histogramms (Zeiten in Nanosekunden).
+     */
+    public record Snapshot(long count, long sumNanos, long maxNanos,
+                           long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos) {
+
+        public double meanMillis() {
+            return count == 0 ? 0 : sumNanos / 1_000_000.0 / count;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package monitoring;
+
+import java.util.Map;
+
+/**
+ * JMX-Sicht auf die Kennzahlen einer Datenbank (siehe {@link MetricsRegistry}).
+ */
+public interface MetricsMXBean {
+
+    /** Name der Datenbank */
+    String getName();
+
+    /** Laufzeiten, Aufrufe und Fehler je Operation, nach Namen sortiert */
+    Map<String, OperationStats> getOperations();
+
+    /** Aktuelle Messwerte wie Trefferquoten, nach Namen sortiert */
+    Map<String, Double> getGauges();
+
+    /** Alle Kennzahlen als Text, wie sie auch ins Log geschrieben werden */
+    String dump();
+
+    /** Setzt Laufzeiten und Fehlerzähler zurück, z.B. vor einem Lasttest */
+    void reset();
+}
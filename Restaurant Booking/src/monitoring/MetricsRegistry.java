@@ -0,0 +1,218 @@
+package monitoring;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Kennzahlen einer Datenbank: Laufzeit-Histogramm, Aufrufe und Fehler je Operation sowie
+ * Messwerte (z.B. Trefferquoten), die erst beim Abfragen gelesen werden.
+ * <p>
+ * Nach {@link #start()} sind die Kennzahlen per JMX unter {@code restaurant:type=Metrics,name=<name>}
+ * abrufbar (z.B. mit JConsole oder VisualVM) und werden alle {@code restaurant.metrics.logSeconds}
+ * Sekunden (Default 300, 0 = aus) ins Log geschrieben, sofern seit dem letzten Mal etwas passiert ist.
+ */
+public class MetricsRegistry implements MetricsMXBean, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(MetricsRegistry.class.getName());
+    public static final long DEFAULT_LOG_SECONDS = 300;
+
+    private final String name;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+    private ScheduledFuture<?> logTask;
+    private long lastLoggedCalls;
+
+    /**
+     * @param name Name der Datenbank, z.B. die Datei; wird Teil des JMX-Namens
+     */
+    public MetricsRegistry(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Liefert die Kennzahlen einer Operation und legt sie beim ersten Zugriff an.
+     */
+    public Operation operation(String operation) {
+        Operation metrics = operations.get(operation);
+        return metrics != null ? metrics : operations.computeIfAbsent(operation, o -> new Operation(new LatencyHistogram()));
+    }
+
+    /**
+     * Nimmt ein bereits bestehendes Histogramm (z.B. die Wartezeiten des Verbindungspools) mit auf.
+     */
+    public void register(String operation, LatencyHistogram histogram) {
+        operations.put(operation, new Operation(histogram));
+    }
+
+    /**
+     * Nimmt einen Messwert auf, der bei jeder Abfrage neu gelesen wird.
+     */
+    public void gauge(String gauge, DoubleSupplier value) {
+        gauges.put(gauge, value);
+    }
+
+    /**
+     * Führt eine Operation aus und zeichnet ihre Laufzeit auf (auch wenn sie mit einer Exception endet).
+     */
+    public <T> T time(String operation, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            operation(operation).histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Wie {@link #time(String, Supplier)}, für Operationen ohne Ergebnis.
+     */
+    public void time(String operation, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            operation(operation).histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Zählt einen Fehler der Operation.
+     */
+    public void error(String operation) {
+        operation(operation).errors.increment();
+    }
+
+    /**
+     * Meldet die Kennzahlen per JMX an und startet die regelmäßige Ausgabe ins Log.
+     */
+    public synchronized void start() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName candidate = new ObjectName("restaurant:type=Metrics,name=" + ObjectName.quote(name));
+            server.registerMBean(this, candidate);
+            objectName = candidate;
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.warning("Kennzahlen für " + name + " sind bereits per JMX angemeldet");
+        } catch (JMException e) {
+            LOGGER.warning("Kennzahlen für " + name + " konnten nicht per JMX angemeldet werden: " + e);
+        }
+        long seconds = Long.getLong("restaurant.metrics.logSeconds", DEFAULT_LOG_SECONDS);
+        if (seconds > 0) {
+            logTask = Reporter.EXECUTOR.scheduleWithFixedDelay(this::logIfActive, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Meldet die Kennzahlen bei JMX ab und beendet die Ausgabe ins Log.
+     */
+    @Override
+    public synchronized void close() {
+        if (logTask != null) {
+            logTask.cancel(false);
+            logTask = null;
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOGGER.warning("Kennzahlen für " + name + " konnten nicht bei JMX abgemeldet werden: " + e);
+            }
+            objectName = null;
+        }
+    }
+
+    private synchronized void logIfActive() {
+        long calls = 0;
+        for (Operation operation : operations.values()) {
+            calls += operation.histogram.getCount() + operation.errors.sum();
+        }
+        if (calls != lastLoggedCalls) {
+            lastLoggedCalls = calls;
+            LOGGER.info(dump());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, OperationStats> getOperations() {
+        Map<String, OperationStats> result = new TreeMap<>();
+        operations.forEach((operation, metrics) -> result.put(operation, metrics.stats()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getGauges() {
+        Map<String, Double> result = new TreeMap<>();
+        gauges.forEach((gauge, value) -> result.put(gauge, value.getAsDouble()));
+        return result;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder("Kennzahlen ").append(name).append(':');
+        getOperations().forEach((operation, stats) -> out.append("\n  ").append(operation).append(": ").append(stats));
+        getGauges().forEach((gauge, value) -> out.append(String.format("%n  %s = %.3f", gauge, value)));
+        return out.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (Operation operation : operations.values()) {
+            operation.histogram.reset();
+            operation.errors.reset();
+        }
+    }
+
+    /**
+     * Laufzeiten und Fehler einer Operation.
+     */
+    public static final class Operation {
+        private final LatencyHistogram histogram;
+        private final LongAdder errors = new LongAdder();
+
+        private Operation(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        public void record(long nanos) {
+            histogram.record(nanos);
+        }
+
+        public void error() {
+            errors.increment();
+        }
+
+        public OperationStats stats() {
+            return OperationStats.of(histogram.snapshot(), errors.sum());
+        }
+    }
+
+    /**
+     * Ein gemeinsamer Daemon-Thread für die Log-Ausgabe aller Datenbanken (erst bei Bedarf gestartet).
+     */
+    private static final class Reporter {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
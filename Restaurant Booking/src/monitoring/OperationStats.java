@@ -0,0 +1,20 @@
+package monitoring;
+
+/**
+ * Momentaufnahme der Kennzahlen einer Operation, Zeiten in Millisekunden.
+ */
+public record OperationStats(long calls, long errors, double meanMillis, double p50Millis, double p90Millis,
+                             double p99Millis, double p999Millis, double maxMillis) {
+
+    static OperationStats of(LatencyHistogram.Snapshot snapshot, long errors) {
+        return new OperationStats(snapshot.count(), errors, snapshot.meanMillis(),
+                snapshot.p50Nanos() / 1e6, snapshot.p90Nanos() / 1e6, snapshot.p99Nanos() / 1e6,
+                snapshot.p999Nanos() / 1e6, snapshot.maxNanos() / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d, Fehler=%d, Ø %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                calls, errors, meanMillis, p50Millis, p90Millis, p99Millis, p999Millis, maxMillis);
+    }
+}
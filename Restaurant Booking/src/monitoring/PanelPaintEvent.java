@@ -0,0 +1,27 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Ereignis für das Zeichnen einer Reservierungsliste auf dem EDT.
+ */
+@Name("restaurant.PanelPaint")
+@Label("Liste zeichnen")
+@Category({"Restaurant", "Oberfläche"})
+@Description("Zeichnen der sichtbaren Zeilen einer Reservierungsliste")
+@StackTrace(false)
+public class PanelPaintEvent extends jdk.jfr.Event {
+    @Label("Ansicht")
+    public String panel;
+
+    @Label("Gezeichnete Zeilen")
+    public int rows;
+
+    public PanelPaintEvent(String panel) {
+        this.panel = panel;
+    }
+}
@@ -0,0 +1,42 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR-Ereignis für das Aktualisieren einer Reservierungsliste: von der Anfrage über die Abfrage im
+ * Hintergrund und das Warten auf den EDT bis zur übernommenen Anzeige.
+ */
+@Name("restaurant.PanelRefresh")
+@Label("Liste aktualisieren")
+@Category({"Restaurant", "Oberfläche"})
+@Description("Seite oder Änderungen laden und in die Liste übernehmen")
+@StackTrace(false)
+public class PanelRefreshEvent extends jdk.jfr.Event {
+    @Label("Ansicht")
+    public String panel;
+
+    @Label("Art")
+    @Description("Seite, Änderungen oder Ereignisse")
+    public String kind;
+
+    @Label("Geladene Zeilen")
+    public int rows;
+
+    @Label("Zeilen gesamt")
+    public int totalRows;
+
+    @Label("Dauer auf dem EDT")
+    @Description("Übernahme in Modell und Ansicht auf dem Event Dispatch Thread")
+    @Timespan(Timespan.NANOSECONDS)
+    public long applyTime;
+
+    public PanelRefreshEvent(String panel, String kind) {
+        this.panel = panel;
+        this.kind = kind;
+    }
+}
@@ -0,0 +1,28 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Ereignis für das Einfügen einer Reservierung auf einem Tisch (Belegungsprüfung und INSERT).
+ */
+@Name("restaurant.ReservationInsert")
+@Label("Reservierung speichern")
+@Category({"Restaurant", "Buchung"})
+@Description("Belegung des Tisches prüfen und Reservierung einfügen")
+@StackTrace(false)
+public class ReservationInsertEvent extends SlotEvent {
+    @Label("Tisch")
+    public int tableId;
+
+    @Label("Reservierung")
+    @Description("Neue Reservierungs-ID, 0 wenn der Tisch belegt war")
+    public int reservationId;
+
+    @Label("Tisch belegt")
+    @Description("true, wenn der Tisch inzwischen von einer anderen Buchung belegt war")
+    public boolean conflict;
+}
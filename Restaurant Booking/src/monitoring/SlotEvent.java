@@ -0,0 +1,30 @@
+package monitoring;
+
+import jdk.jfr.Label;
+import models.TimeSlot;
+
+import java.time.LocalDate;
+
+/**
+ * Gemeinsame Basis der JFR-Ereignisse, die sich auf Datum, Zeitfenster und Personenzahl einer Buchung beziehen.
+ */
+public abstract class SlotEvent extends jdk.jfr.Event {
+    @Label("Datum")
+    public String date;
+
+    @Label("Zeitfenster")
+    public String slot;
+
+    @Label("Personen")
+    public int persons;
+
+    /**
+     * Setzt die beschreibenden Felder; erst nach {@code shouldCommit()} aufrufen, damit ohne laufende
+     * Aufzeichnung keine Texte erzeugt werden.
+     */
+    public void describe(LocalDate date, TimeSlot slot, int persons) {
+        this.date = date.toString();
+        this.slot = slot.toString();
+        this.persons = persons;
+    }
+}
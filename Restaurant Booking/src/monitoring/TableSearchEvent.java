@@ -0,0 +1,28 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Ereignis für die Suche nach freien Tischen (Verfügbarkeitsindex oder SQL).
+ */
+@Name("restaurant.TableSearch")
+@Label("Tischsuche")
+@Category({"Restaurant", "Buchung"})
+@Description("Suche nach freien Tischen für ein Zeitfenster")
+@StackTrace(false)
+public class TableSearchEvent extends SlotEvent {
+    @Label("Gefundene Tische")
+    public int rows;
+
+    @Label("Erster Tisch")
+    @Description("Kleinster passender freier Tisch, 0 wenn keiner frei ist")
+    public int tableId;
+
+    @Label("Aus dem Index")
+    @Description("true, wenn der Verfügbarkeitsindex ohne SQL-Abfrage geantwortet hat")
+    public boolean fromIndex;
+}
@@ -0,0 +1,26 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR-Ereignis für eine Schreibtransaktion von BEGIN IMMEDIATE bis COMMIT bzw. ROLLBACK.
+ */
+@Name("restaurant.Transaction")
+@Label("Schreibtransaktion")
+@Category({"Restaurant", "Datenbank"})
+@Description("Schreibtransaktion auf der SQLite-Schreibverbindung")
+@StackTrace(false)
+public class TransactionEvent extends jdk.jfr.Event {
+    @Label("Bestätigt")
+    @Description("true bei COMMIT, false bei ROLLBACK")
+    public boolean committed;
+
+    @Label("Dauer COMMIT")
+    @Timespan(Timespan.NANOSECONDS)
+    public long commitTime;
+}
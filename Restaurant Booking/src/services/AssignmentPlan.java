@@ -0,0 +1,40 @@
+package services;
+
+import models.Reservation;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ergebnis von {@link TableAssigner#optimize}: neue Tische je Reservierungs-ID, Reservierungen ohne Platz,
+ * Anzahl umgesetzter Reservierungen und die Platzauslastung vor und nach der Neuverteilung
+ * (Σ Personen·Dauer / Σ reservierte Plätze·Dauer, 0 bis 1).
+ */
+public record AssignmentPlan(LocalDate date,
+                             Map<Integer, TableAssignment> assignments,
+                             List<Reservation> unassigned,
+                             int moved,
+                             double seatUtilizationBefore,
+                             double seatUtilizationAfter) {
+
+    /** Alle Reservierungen haben im Plan einen Platz */
+    public boolean isComplete() {
+        return unassigned.isEmpty();
+    }
+
+    /**
+     * Der Plan kann übernommen werden: vollständig, mindestens eine Reservierung wird umgesetzt
+     * und die Platzauslastung sinkt nicht.
+     */
+    public boolean isWorthApplying() {
+        return isComplete() && moved > 0 && seatUtilizationAfter >= seatUtilizationBefore;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Tischplan %s: %d Reservierungen, %d umgesetzt, %d ohne Platz, Platzauslastung %.1f %% -> %.1f %%",
+                date, assignments.size() + unassigned.size(), moved, unassigned.size(),
+                seatUtilizationBefore * 100, seatUtilizationAfter * 100);
+    }
+}
@@ -0,0 +1,244 @@
+package services;
+
+import models.Table;
+import models.TimeSlot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Speicherinterner Verfügbarkeitsindex: je Datum und Tisch eine Bitmaske der belegten 30-Minuten-Fenster
+ * (siehe {@link TimeSlot#toMask()}) sowie alle Tische nach Kapazität sortiert. Beantwortet
+ * "freier Tisch für N Personen am Datum D im Zeitfenster S" ohne SQLite: ein Tisch ist frei,
+ * wenn seine Maske sich nicht mit der Maske des gewünschten Zeitfensters überschneidet.
+ * <p>
+ * Der Index kennt nur Tage ab dem Aufwärmzeitpunkt ({@link #getHorizonStart()}); für frühere Tage
+ * liefert er {@code null}, der Aufrufer muss dann auf die Datenbank zurückgreifen.
+ * Änderungen anderer Prozesse sieht der Index nicht; er dient daher als schneller Vorfilter,
+ * die Eindeutigkeitsbedingung in der Datenbank bleibt die verbindliche Prüfung.
+ */
+public class AvailabilityIndex {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Je Datum: Belegungsmaske pro Tisch, indiziert über die Tisch-ID
+    private final Map<LocalDate, long[]> occupiedByDate = new HashMap<>();
+    // Tische aufsteigend nach (Kapazität, ID) sortiert; IDs und Kapazitäten zusätzlich als parallele Arrays
+    private Table[] tables = new Table[0];
+    private int[] tableIds = new int[0];
+    private int[] capacities = new int[0];
+    private LocalDate horizonStart = LocalDate.MAX;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Ersetzt den gesamten Indexinhalt (Aufwärmen beim Start).
+     * @param tables       alle Tische
+     * @param horizonStart erstes Datum, für das {@code occupied} vollständig ist
+     * @param occupied     Belegungsmasken je Datum ab {@code horizonStart}, aufgebaut mit {@link #mark}
+     */
+    public void load(List<Table> tables, LocalDate horizonStart, Map<LocalDate, long[]> occupied) {
+        lock.writeLock().lock();
+        try {
+            setTables(tables);
+            this.horizonStart = horizonStart;
+            occupiedByDate.clear();
+            occupiedByDate.putAll(occupied);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nimmt einen neu angelegten Tisch in die sortierte Tischliste auf.
+     */
+    public void addTable(Table table) {
+        lock.writeLock().lock();
+        try {
+            List<Table> grown = new ArrayList<>(tables.length + 1);
+            grown.addAll(Arrays.asList(tables));
+            grown.add(table);
+            setTables(grown);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setTables(List<Table> list) {
+        Table[] sorted = list.toArray(new Table[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(Table::getCapacity).thenComparingInt(Table::getId));
+        tables = sorted;
+        tableIds = new int[sorted.length];
+        capacities = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            tableIds[i] = sorted[i].getId();
+            capacities[i] = sorted[i].getCapacity();
+        }
+    }
+
+    /**
+     * Trägt eine Belegung in eine (noch nicht geladene) Belegungstabelle ein, z.B. beim Aufwärmen.
+     */
+    public static void mark(Map<LocalDate, long[]> occupied, LocalDate date, int tableId, TimeSlot slot) {
+        long[] masks = occupied.get(date);
+        if (masks == null || masks.length <= tableId) {
+            long[] grown = new long[Math.max(tableId + 1, masks == null ? 16 : masks.length * 2)];
+            if (masks != null) {
+                System.arraycopy(masks, 0, grown, 0, masks.length);
+            }
+            masks = grown;
+            occupied.put(date, masks);
+        }
+        masks[tableId] |= slot.toMask();
+    }
+
+    public void markOccupied(LocalDate date, int tableId, TimeSlot slot) {
+        lock.writeLock().lock();
+        try {
+            if (!date.isBefore(horizonStart)) {
+                mark(occupiedByDate, date, tableId, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Belegt den Tisch im Zeitfenster, sofern er dort laut Index frei ist (Prüfen und Eintragen atomar).
+     * @return false, wenn der Tisch belegt ist oder das Datum vor dem Indexhorizont liegt
+     */
+    public boolean tryMarkOccupied(LocalDate date, int tableId, TimeSlot slot) {
+        lock.writeLock().lock();
+        try {
+            if (date.isBefore(horizonStart) || !isFree(occupiedByDate.get(date), tableId, slot.toMask())) {
+                return false;
+            }
+            mark(occupiedByDate, date, tableId, slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markFree(LocalDate date, int tableId, TimeSlot slot) {
+        lock.writeLock().lock();
+        try {
+            long[] masks = occupiedByDate.get(date);
+            if (masks != null && tableId < masks.length) {
+                masks[tableId] &= ~slot.toMask();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Liefert alle freien Tische mit ausreichender Kapazität, kleinste zuerst (mit Aufstellung,
+     * z.B. für {@link TableAssigner}; mit {@code persons = 1} alle freien Tische).
+     * @return Liste der Tische (ggf. leer), oder null, wenn das Datum vor dem Indexhorizont liegt
+     */
+    public List<Table> findFreeTables(LocalDate date, TimeSlot slot, int persons) {
+        lock.readLock().lock();
+        try {
+            if (date.isBefore(horizonStart)) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            long[] masks = occupiedByDate.get(date);
+            long wanted = slot.toMask();
+            List<Table> free = new ArrayList<>();
+            for (int i = firstWithCapacity(persons); i < tableIds.length; i++) {
+                if (isFree(masks, tableIds[i], wanted)) {
+                    free.add(tables[i]);
+                }
+            }
+            return free;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liefert den kleinsten freien Tisch mit ausreichender Kapazität.
+     * Liegt das Datum vor dem Indexhorizont, wird ebenfalls null geliefert; dies ggf. vorher über
+     * {@link #covers(LocalDate)} prüfen.
+     * @return freier Tisch, oder null wenn keiner frei ist
+     */
+    public Table findFreeTable(LocalDate date, TimeSlot slot, int persons) {
+        lock.readLock().lock();
+        try {
+            if (date.isBefore(horizonStart)) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            long[] masks = occupiedByDate.get(date);
+            long wanted = slot.toMask();
+            for (int i = firstWithCapacity(persons); i < tableIds.length; i++) {
+                if (isFree(masks, tableIds[i], wanted)) {
+                    return tables[i];
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isFree(long[] masks, int tableId, long wanted) {
+        return masks == null || tableId >= masks.length || (masks[tableId] & wanted) == 0;
+    }
+
+    /**
+     * Gibt an, ob der Index für das Datum vollständige Belegungsdaten hat.
+     */
+    public boolean covers(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            return !date.isBefore(horizonStart);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Binärsuche nach dem ersten Tisch mit capacity >= persons
+    private int firstWithCapacity(int persons) {
+        int low = 0;
+        int high = capacities.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (capacities[mid] < persons) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public LocalDate getHorizonStart() {
+        lock.readLock().lock();
+        try {
+            return horizonStart;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Anzahl der direkt aus dem Index beantworteten Anfragen */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** Anzahl der Anfragen außerhalb des Indexhorizonts (Rückfall auf SQLite) */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
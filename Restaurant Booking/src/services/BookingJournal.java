@@ -0,0 +1,425 @@
+package services;
+
+import models.TimeSlot;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Write-Ahead-Journal für Buchungen: {@link DatabaseManager#addReservation} hängt die Buchung an eine
+ * speicherabgebildete Datei an und bestätigt sofort; ein Hintergrund-Thread übernimmt alle angesammelten
+ * Buchungen gemeinsam in einer SQLite-Transaktion (Group Commit). Jede andere Schreibtransaktion übernimmt
+ * die ausstehenden Buchungen ebenfalls zuerst, sodass Prüfungen per SQL immer den vollständigen Stand sehen.
+ * Nur Leser (Übersicht, API-Listen) sehen eine Buchung erst nach der Übernahme, also bis zu
+ * {@code restaurant.journal.flushMillis} später.
+ * <p>
+ * Aufbau der Datei: 16 Byte Kopf (Kennung, Formatversion, Offset bis zu dem alles übernommen ist), danach
+ * Einträge fester Länge mit Prüfsumme. Hinter dem letzten Eintrag steht immer eine 0 als Ende-Markierung.
+ * Beim Start werden die nicht übernommenen Einträge nachgespielt; schon übernommene erkennt
+ * {@link DatabaseManager} an der vorab vergebenen Reservierungs-ID. Sind alle Einträge übernommen, beginnt
+ * die Datei wieder vorne.
+ * <p>
+ * Ohne {@code restaurant.journal.fsync=true} übersteht eine bestätigte Buchung einen Absturz des Programms
+ * (die Seiten liegen im Betriebssystem), aber keinen Stromausfall. Das Journal setzt voraus, dass nur dieser
+ * Prozess in die Datenbank schreibt: frei ist ein Tisch, wenn der {@link AvailabilityIndex} es sagt.
+ * {@link DatabaseManager} sichert das über {@link DatabaseFileLock}.
+ * <p>
+ * Scheitert die Übernahme einer Buchung trotzdem (Tisch belegt oder ID anders vergeben, weil doch jemand
+ * anderes geschrieben hat), kommt sie in die Tabelle {@code journal_quarantine}, wird als SEVERE protokolliert
+ * und in {@code journal.quarantined} gezählt; die übrigen Einträge werden normal übernommen. Danach bestätigt
+ * das Journal nichts mehr ({@link #suspend()}), Buchungen gehen bis zum Neustart über normale Transaktionen.
+ * Zur Behebung: den zweiten Schreiber der Datenbank finden und abstellen, für jede Zeile in
+ * {@code journal_quarantine} den Gast ({@code customer_id}) benachrichtigen bzw. die Buchung über die Anwendung
+ * neu anlegen und die Zeile löschen, dann die Anwendung neu starten.
+ */
+public class BookingJournal implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(BookingJournal.class.getName());
+    public static final int DEFAULT_SIZE_MB = 16;
+    public static final long DEFAULT_FLUSH_MILLIS = 20;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final int MAGIC = 0x424A524E; // "BJRN"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int APPLIED_OFFSET_POSITION = 8;
+    // Länge + Prüfsumme + Inhalt (id, Tag, Beginn, Dauer, Personen, Tisch, Kunde)
+    private static final int PAYLOAD_SIZE = 4 + 4 + 2 + 2 + 4 + 4 + 4;
+    private static final int RECORD_SIZE = 4 + 4 + PAYLOAD_SIZE;
+    private static final long FULL_WAIT_MILLIS = 1000;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean fsync;
+    private final long flushMillis;
+    private final int batchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Signal an den Übernahme-Thread: genug Einträge für einen Batch oder Datei voll
+    private final Condition flushWanted = lock.newCondition();
+    // Signal an wartende Schreiber: Datei wurde nach vollständiger Übernahme zurückgesetzt
+    private final Condition drained = lock.newCondition();
+    private int appliedOffset;
+    private int writeOffset;
+    private int pending;
+    private boolean closed;
+    // Nach einer Buchung in Quarantäne: nichts mehr bestätigen; Offenes wird weiter übernommen
+    private boolean suspended;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private Thread flusher;
+
+    private BookingJournal(Path path, FileChannel channel, MappedByteBuffer buffer, boolean fsync, long flushMillis,
+                           int batchSize) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.fsync = fsync;
+        this.flushMillis = flushMillis;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Öffnet das Journal mit den Einstellungen aus den System-Properties
+     * ({@code restaurant.journal.sizeMb}, {@code .flushMillis}, {@code .batchSize}, {@code .fsync}).
+     */
+    public static BookingJournal open(Path path) throws IOException {
+        return open(path, Integer.getInteger("restaurant.journal.sizeMb", DEFAULT_SIZE_MB),
+                Long.getLong("restaurant.journal.flushMillis", DEFAULT_FLUSH_MILLIS),
+                Integer.getInteger("restaurant.journal.batchSize", DEFAULT_BATCH_SIZE),
+                Boolean.getBoolean("restaurant.journal.fsync"));
+    }
+
+    /**
+     * Öffnet bzw. legt das Journal an und ermittelt die noch nicht übernommenen Einträge.
+     * Die Datei bleibt bis {@link #close()} gesperrt.
+     * @param sizeMb Größe der Datei; ist sie voll, warten Schreiber auf die Übernahme
+     */
+    public static BookingJournal open(Path path, int sizeMb, long flushMillis, int batchSize, boolean fsync)
+            throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // Nur ein Besitzer je Datei (anderer Prozess oder zweiter DatabaseManager auf derselben Datenbank)
+            FileLock owner;
+            try {
+                owner = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                owner = null;
+            }
+            if (owner == null) {
+                throw new IOException("Journal " + path + " wird bereits verwendet");
+            }
+            long size = Math.max(channel.size(), (long) sizeMb * 1024 * 1024);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal " + path + " ist zu groß");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            BookingJournal journal = new BookingJournal(path, channel, buffer, fsync, flushMillis, Math.max(1, batchSize));
+            journal.recover();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Liest den Kopf und sucht das Ende der gültigen Einträge (erste Ende-Markierung oder falsche Prüfsumme,
+     * z.B. ein beim Absturz nur halb geschriebener Eintrag).
+     */
+    private void recover() throws IOException {
+        if (buffer.getInt(0) == 0) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putLong(APPLIED_OFFSET_POSITION, HEADER_SIZE);
+            buffer.putInt(HEADER_SIZE, 0);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(path + " ist kein Buchungsjournal im Format " + FORMAT_VERSION);
+        }
+        appliedOffset = (int) buffer.getLong(APPLIED_OFFSET_POSITION);
+        writeOffset = appliedOffset;
+        while (writeOffset + RECORD_SIZE <= buffer.capacity() && readEntry(writeOffset) != null) {
+            nextId.accumulateAndGet(buffer.getInt(writeOffset + 8) + 1, Math::max);
+            writeOffset += RECORD_SIZE;
+            pending++;
+        }
+        terminate(writeOffset);
+        if (pending > 0) {
+            LOGGER.info(pending + " Buchungen im Journal " + path + " sind noch nicht übernommen");
+        }
+    }
+
+    /**
+     * Nächste freie Reservierungs-ID. Bei aktivem Journal vergibt {@link DatabaseManager} alle IDs hierüber,
+     * damit vorab bestätigte und direkt gespeicherte Reservierungen nie dieselbe ID bekommen.
+     */
+    public int nextId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Setzt die nächste ID mindestens auf den angegebenen Wert (z.B. höchste ID der Datenbank + 1).
+     */
+    public void reserveIdsBelow(int id) {
+        nextId.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Sperrt das Anhängen für den aufrufenden Thread (wiedereintrittsfähig). {@link DatabaseManager} hält die
+     * Sperre, während eine Schreibtransaktion per SQL über freie Tische entscheidet, damit keine Buchung
+     * bestätigt wird, die diese Transaktion nicht mehr sieht; ebenso beim Prüfen und Anhängen selbst.
+     */
+    public void lockAppends() {
+        lock.lock();
+    }
+
+    public void unlockAppends() {
+        lock.unlock();
+    }
+
+    /**
+     * Hängt eine Buchung an und bestätigt sie. Ist die Datei voll, wird bis zu einer Sekunde auf die
+     * Übernahme gewartet.
+     * @return false, wenn das Journal voll, ausgesetzt oder geschlossen ist (der Aufrufer speichert dann direkt)
+     */
+    public boolean append(int reservationId, LocalDate date, TimeSlot slot, int persons, int tableId, int customerId) {
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FULL_WAIT_MILLIS);
+            // Platz für den Eintrag und die folgende Ende-Markierung
+            while (!closed && !suspended && writeOffset + RECORD_SIZE + 4 > buffer.capacity()) {
+                flushWanted.signal();
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    LOGGER.warning("Journal " + path + " ist voll; Buchung wird direkt gespeichert");
+                    return false;
+                }
+                drained.awaitNanos(remaining);
+            }
+            if (closed || suspended) {
+                return false;
+            }
+            int offset = writeOffset;
+            int payload = offset + 8;
+            buffer.putInt(payload, reservationId);
+            buffer.putInt(payload + 4, (int) date.toEpochDay());
+            buffer.putShort(payload + 8, (short) slot.getStart());
+            buffer.putShort(payload + 10, (short) slot.getDuration());
+            buffer.putInt(payload + 12, persons);
+            buffer.putInt(payload + 16, tableId);
+            buffer.putInt(payload + 20, customerId);
+            buffer.putInt(offset + 4, checksum(payload));
+            terminate(offset + RECORD_SIZE);
+            // Die Länge zuletzt: erst damit wird der Eintrag beim Nachspielen gültig
+            buffer.putInt(offset, PAYLOAD_SIZE);
+            if (fsync) {
+                buffer.force(offset, RECORD_SIZE + 4);
+            }
+            writeOffset = offset + RECORD_SIZE;
+            if (++pending >= batchSize) {
+                flushWanted.signal();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Liefert alle noch nicht übernommenen Einträge. Nach dem COMMIT ihrer Übernahme
+     * {@link #markApplied(Batch)} aufrufen.
+     */
+    public Batch pending() {
+        lock.lock();
+        try {
+            List<Entry> entries = new ArrayList<>(pending);
+            for (int offset = appliedOffset; offset < writeOffset; offset += RECORD_SIZE) {
+                entries.add(readEntry(offset));
+            }
+            return new Batch(entries, writeOffset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Vermerkt, dass die Einträge des Batches in SQLite übernommen sind. Ist danach nichts mehr offen,
+     * beginnt das Journal wieder am Dateianfang.
+     */
+    public void markApplied(Batch batch) {
+        lock.lock();
+        try {
+            if (batch.end() <= appliedOffset) {
+                return;
+            }
+            pending -= batch.entries().size();
+            appliedOffset = batch.end();
+            if (appliedOffset == writeOffset) {
+                appliedOffset = HEADER_SIZE;
+                writeOffset = HEADER_SIZE;
+                terminate(HEADER_SIZE);
+                drained.signalAll();
+            }
+            buffer.putLong(APPLIED_OFFSET_POSITION, appliedOffset);
+            if (fsync) {
+                buffer.force(0, HEADER_SIZE + 4);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bestätigt bis zum {@link #close()} keine Buchungen mehr, weil der {@link AvailabilityIndex} nach einem
+     * Konflikt bei der Übernahme nicht mehr verlässlich ist. Schon angehängte Einträge werden weiter übernommen.
+     */
+    public void suspend() {
+        lock.lock();
+        try {
+            suspended = true;
+            drained.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** true nach {@link #suspend()} */
+    public boolean isSuspended() {
+        lock.lock();
+        try {
+            return suspended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Anzahl der bestätigten, noch nicht übernommenen Buchungen */
+    public int getPending() {
+        lock.lock();
+        try {
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Startet den Übernahme-Thread. Er ruft {@code flush} auf, sobald ein Batch voll ist, spätestens
+     * aber alle {@code restaurant.journal.flushMillis} Millisekunden, wenn etwas offen ist.
+     * @param flush übernimmt alle offenen Einträge in einer Transaktion (z.B. eine leere Schreibtransaktion)
+     */
+    public void start(Runnable flush) {
+        flusher = Thread.ofPlatform().daemon().name("booking-journal").start(() -> {
+            while (true) {
+                lock.lock();
+                try {
+                    if (!closed && pending < batchSize) {
+                        flushWanted.await(flushMillis, TimeUnit.MILLISECONDS);
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    if (pending == 0) {
+                        continue;
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    flush.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Übernahme aus dem Buchungsjournal fehlgeschlagen", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Beendet den Übernahme-Thread. Offene Einträge bleiben im Journal und werden beim nächsten Start
+     * nachgespielt; vorher ggf. noch einmal übernehmen.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            flushWanted.signalAll();
+            drained.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Journal " + path + " konnte nicht geschlossen werden", e);
+        }
+    }
+
+    private Entry readEntry(int offset) {
+        if (buffer.getInt(offset) != PAYLOAD_SIZE) {
+            return null;
+        }
+        int payload = offset + 8;
+        if (buffer.getInt(offset + 4) != checksum(payload)) {
+            return null;
+        }
+        return new Entry(buffer.getInt(payload),
+                LocalDate.ofEpochDay(buffer.getInt(payload + 4)),
+                new TimeSlot(buffer.getShort(payload + 8), buffer.getShort(payload + 10)),
+                buffer.getInt(payload + 12), buffer.getInt(payload + 16), buffer.getInt(payload + 20));
+    }
+
+    private int checksum(int payload) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(payload, PAYLOAD_SIZE));
+        return (int) crc.getValue();
+    }
+
+    // Ende-Markierung, damit alte Einträge hinter dem Schreib-Offset nie als gültig gelesen werden
+    private void terminate(int offset) {
+        if (offset + 4 <= buffer.capacity()) {
+            buffer.putInt(offset, 0);
+        }
+    }
+
+    /**
+     * Eine vorab bestätigte Buchung.
+     */
+    public record Entry(int reservationId, LocalDate date, TimeSlot slot, int persons, int tableId, int customerId) {
+    }
+
+    /**
+     * Offene Einträge und der Offset, bis zu dem sie reichen.
+     */
+    public record Batch(List<Entry> entries, int end) {
+    }
+}
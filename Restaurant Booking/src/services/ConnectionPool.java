@@ -0,0 +1,303 @@
+package services;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import monitoring.LatencyHistogram;
+
+/**
+ * Verbindungspool für die SQLite-Datenbank im WAL-Modus.
+ * Es gibt genau eine Schreibverbindung, die serialisiert vergeben wird, sowie mehrere
+ * Leseverbindungen, die parallel zum Schreiber genutzt werden können.
+ * Leseverbindungen werden erst bei Bedarf geöffnet (höchstens {@link PoolConfig#getReaderCount()}).
+ * Jede Verbindung hat einen eigenen {@link StatementCache} für vorbereitete Anweisungen.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final PoolConfig config;
+    private final Connection writer;
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private final LinkedBlockingQueue<Connection> idleReaders = new LinkedBlockingQueue<>();
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    // Kennzahlen für Wartezeiten auf Verbindungen
+    private final LatencyHistogram writerWait = new LatencyHistogram();
+    private final LatencyHistogram readerWait = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    public ConnectionPool(String url, PoolConfig config) throws SQLException {
+        this.url = url;
+        this.config = config;
+        this.writer = openConnection(false);
+        LOGGER.info("Verbindungspool geöffnet: " + url + " " + config);
+    }
+
+    /**
+     * Öffnet eine neue Verbindung und setzt die SQLite-Pragmas (WAL, Busy-Timeout).
+     */
+    private Connection openConnection(boolean readOnly) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + config.getBusyTimeoutMs());
+            if (!readOnly) {
+                // WAL wird in der Datenbankdatei gespeichert, daher genügt es, ihn über den Schreiber zu setzen
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("PRAGMA synchronous = NORMAL");
+            } else {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        statementCaches.put(connection, new StatementCache(connection, statementHits, statementMisses));
+        return connection;
+    }
+
+    /**
+     * Liefert den Anweisungs-Cache der (geliehenen) Verbindung.
+     */
+    StatementCache statementCache(Connection connection) {
+        StatementCache cache = statementCaches.get(connection);
+        if (cache == null) {
+            throw new IllegalArgumentException("Verbindung gehört nicht zu diesem Pool");
+        }
+        return cache;
+    }
+
+    /**
+     * Liefert die (einzige) Schreibverbindung. Blockiert, solange ein anderer Thread sie hält.
+     * Derselbe Thread darf die Schreibverbindung verschachtelt anfordern.
+     */
+    public Lease acquireWriter() throws SQLException {
+        ensureOpen();
+        long start = System.nanoTime();
+        try {
+            if (!writerLock.tryLock(config.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLException("Zeitüberschreitung beim Warten auf die Schreibverbindung");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf die Schreibverbindung unterbrochen", e);
+        }
+        writerWait.record(System.nanoTime() - start);
+        return new Lease(writer, true);
+    }
+
+    /**
+     * Liefert eine Leseverbindung aus dem Pool. Hält der aktuelle Thread bereits die Schreibverbindung,
+     * wird diese zurückgegeben, damit eigene (noch nicht bestätigte) Änderungen sichtbar bleiben.
+     */
+    public Lease acquireReader() throws SQLException {
+        ensureOpen();
+        if (writerLock.isHeldByCurrentThread()) {
+            writerLock.lock();
+            return new Lease(writer, true);
+        }
+        long start = System.nanoTime();
+        Connection connection = idleReaders.poll();
+        if (connection == null) {
+            connection = openReaderIfAllowed();
+        }
+        if (connection == null) {
+            try {
+                connection = idleReaders.poll(config.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Warten auf eine Leseverbindung unterbrochen", e);
+            }
+            if (connection == null) {
+                timeouts.increment();
+                throw new SQLException("Zeitüberschreitung beim Warten auf eine Leseverbindung");
+            }
+        }
+        readerWait.record(System.nanoTime() - start);
+        return new Lease(connection, false);
+    }
+
+    private Connection openReaderIfAllowed() throws SQLException {
+        while (true) {
+            int current = openReaders.get();
+            if (current >= config.getReaderCount()) {
+                return null;
+            }
+            if (openReaders.compareAndSet(current, current + 1)) {
+                try {
+                    return openConnection(true);
+                } catch (SQLException e) {
+                    openReaders.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void release(Connection connection, boolean isWriter) {
+        if (isWriter) {
+            writerLock.unlock();
+            return;
+        }
+        if (closed) {
+            closeQuietly(connection);
+            return;
+        }
+        idleReaders.offer(connection);
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Verbindungspool ist bereits geschlossen");
+        }
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Momentaufnahme der Pool-Kennzahlen (Anzahl Anforderungen, Wartezeiten, Zeitüberschreitungen).
+     */
+    public PoolStatistics getStatistics() {
+        return new PoolStatistics(
+                openReaders.get(),
+                idleReaders.size(),
+                writerLock.isLocked(),
+                writerWait.getCount(),
+                writerWait.getSumNanos(),
+                writerWait.getMaxNanos(),
+                readerWait.getCount(),
+                readerWait.getSumNanos(),
+                readerWait.getMaxNanos(),
+                timeouts.sum(),
+                statementHits.sum(),
+                statementMisses.sum()
+        );
+    }
+
+    /**
+     * Verteilung der Wartezeiten auf die Schreibverbindung.
+     */
+    public LatencyHistogram getWriterWait() {
+        return writerWait;
+    }
+
+    /**
+     * Verteilung der Wartezeiten auf eine Leseverbindung.
+     */
+    public LatencyHistogram getReaderWait() {
+        return readerWait;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idleReaders.poll()) != null) {
+            closeQuietly(connection);
+        }
+        closeQuietly(writer);
+        LOGGER.info("Verbindungspool geschlossen: " + getStatistics());
+    }
+
+    private void closeQuietly(Connection connection) {
+        StatementCache cache = statementCaches.remove(connection);
+        if (cache != null) {
+            cache.close();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.warning("Verbindung konnte nicht geschlossen werden: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Geliehene Verbindung; wird per try-with-resources an den Pool zurückgegeben.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Connection connection;
+        private final boolean isWriter;
+        private boolean released;
+
+        private Lease(Connection connection, boolean isWriter) {
+            this.connection = connection;
+            this.isWriter = isWriter;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        public boolean isWriter() {
+            return isWriter;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(connection, isWriter);
+            }
+        }
+    }
+
+    /**
+     * Unveränderliche Momentaufnahme der Pool-Kennzahlen.
+     */
+    public record PoolStatistics(int openReaders,
+                                 int idleReaders,
+                                 boolean writerBusy,
+                                 long writerAcquisitions,
+                                 long writerWaitNanos,
+                                 long writerMaxWaitNanos,
+                                 long readerAcquisitions,
+                                 long readerWaitNanos,
+                                 long readerMaxWaitNanos,
+                                 long timeouts,
+                                 long statementCacheHits,
+                                 long statementCacheMisses) {
+
+        public double averageWriterWaitMillis() {
+            return writerAcquisitions == 0 ? 0 : writerWaitNanos / 1_000_000.0 / writerAcquisitions;
+        }
+
+        public double averageReaderWaitMillis() {
+            return readerAcquisitions == 0 ? 0 : readerWaitNanos / 1_000_000.0 / readerAcquisitions;
+        }
+
+        public double statementCacheHitRate() {
+            long total = statementCacheHits + statementCacheMisses;
+            return total == 0 ? 0 : (double) statementCacheHits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Pool[Leser offen=%d, frei=%d, Schreiber belegt=%s, Schreibzugriffe=%d (Ø %.3f ms, max %.3f ms), "
+                            + "Lesezugriffe=%d (Ø %.3f ms, max %.3f ms), Zeitüberschreitungen=%d, "
+                            + "Statement-Cache Treffer=%d, Fehlgriffe=%d (%.1f %%)]",
+                    openReaders, idleReaders, writerBusy,
+                    writerAcquisitions, averageWriterWaitMillis(), writerMaxWaitNanos / 1_000_000.0,
+                    readerAcquisitions, averageReaderWaitMillis(), readerMaxWaitNanos / 1_000_000.0,
+                    timeouts,
+                    statementCacheHits, statementCacheMisses, statementCacheHitRate() * 100);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package services;
+
+import models.Customer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Begrenzter LRU-Cache der zuletzt gebuchten Kunden, Schlüssel ist der normalisierte Kontakt
+ * (siehe {@link Customer#normalizeContact(String)}). Erspart Stammgästen die Suche in der Datenbank.
+ */
+public class CustomerCache {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    private final Map<String, Customer> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CustomerCache(int capacity) {
+        this.capacity = capacity;
+        // accessOrder = true: get() verschiebt den Eintrag ans Ende, der älteste steht vorne
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Customer> eldest) {
+                return size() > CustomerCache.this.capacity;
+            }
+        };
+    }
+
+    public synchronized Customer get(String contactKey) {
+        Customer customer = entries.get(contactKey);
+        if (customer == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return customer;
+    }
+
+    public synchronized void put(String contactKey, Customer customer) {
+        entries.put(contactKey, customer);
+    }
+
+    public synchronized void remove(String contactKey) {
+        entries.remove(contactKey);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,341 @@
+package services;
+
+import models.Customer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Speicherinterner Präfixindex über Kundenname und Kontakt für die Sofortsuche.
+ * <p>
+ * Je Kunde werden mehrere Suchschlüssel abgelegt (jedes Wort des Namens, der Kontakt klein geschrieben
+ * und der normalisierte Kontakt, siehe {@link Customer#normalizeContact(String)}). Die Schlüssel liegen
+ * sortiert in einem Array; alle Schlüssel mit einem Präfix bilden darin einen zusammenhängenden Bereich,
+ * der per Binärsuche gefunden wird. Einfügen verschiebt das Array (System.arraycopy), was bei
+ * 100.000 Kunden im Bereich einer Millisekunde bleibt.
+ */
+public class CustomerIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[\\s\\-]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sortierte Schlüssel und zugehörige Kunden-IDs (gültig sind die ersten size Einträge)
+    private String[] keys = new String[0];
+    private int[] ids = new int[0];
+    private int size;
+    private final Map<Integer, Customer> customers = new HashMap<>();
+    // Schlüssel je Kunde, zum Entfernen und zum Prüfen weiterer Suchwörter an wenigen Kandidaten
+    private final Map<Integer, String[]> keysById = new HashMap<>();
+    // Treffer für einbuchstabige Präfixe; diese Bereiche sind groß und werden bei jeder Eingabe zuerst getippt
+    private final Map<Character, BitSet> singleCharCache = new HashMap<>();
+
+    /**
+     * Baut den Index aus allen Kunden neu auf.
+     */
+    public void load(Collection<Customer> all) {
+        Map<Integer, String[]> newKeysById = new HashMap<>(all.size() * 2);
+        int total = 0;
+        for (Customer customer : all) {
+            String[] customerKeys = keysOf(customer);
+            newKeysById.put(customer.getId(), customerKeys);
+            total += customerKeys.length;
+        }
+        // Schlüssel samt Position sortieren, dann die IDs in derselben Reihenfolge ablegen
+        String[] unsortedKeys = new String[total];
+        int[] unsortedIds = new int[total];
+        int n = 0;
+        for (Map.Entry<Integer, String[]> entry : newKeysById.entrySet()) {
+            for (String key : entry.getValue()) {
+                unsortedKeys[n] = key;
+                unsortedIds[n] = entry.getKey();
+                n++;
+            }
+        }
+        Integer[] permutation = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            permutation[i] = i;
+        }
+        Arrays.sort(permutation, (a, b) -> {
+            int byKey = unsortedKeys[a].compareTo(unsortedKeys[b]);
+            return byKey != 0 ? byKey : Integer.compare(unsortedIds[a], unsortedIds[b]);
+        });
+        String[] newKeys = new String[total];
+        int[] newIds = new int[total];
+        for (int i = 0; i < total; i++) {
+            newKeys[i] = unsortedKeys[permutation[i]];
+            newIds[i] = unsortedIds[permutation[i]];
+        }
+        lock.writeLock().lock();
+        try {
+            keys = newKeys;
+            ids = newIds;
+            size = total;
+            keysById.clear();
+            keysById.putAll(newKeysById);
+            customers.clear();
+            for (Customer customer : all) {
+                customers.put(customer.getId(), customer);
+            }
+            singleCharCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fügt einen Kunden hinzu bzw. ersetzt seine Suchschlüssel (z.B. nach Namensänderung).
+     */
+    public void put(Customer customer) {
+        lock.writeLock().lock();
+        try {
+            Customer previous = customers.put(customer.getId(), customer);
+            if (previous != null) {
+                if (Objects.equals(previous.getName(), customer.getName())
+                        && Objects.equals(previous.getContact(), customer.getContact())) {
+                    return;
+                }
+                removeKeys(previous.getId());
+            }
+            String[] customerKeys = keysOf(customer);
+            keysById.put(customer.getId(), customerKeys);
+            for (String key : customerKeys) {
+                insert(key, customer.getId());
+            }
+            singleCharCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Entfernt einen Kunden aus dem Index.
+     */
+    public void remove(int customerId) {
+        lock.writeLock().lock();
+        try {
+            if (customers.remove(customerId) != null) {
+                removeKeys(customerId);
+                singleCharCache.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Liefert die IDs aller Kunden, auf die die Suche passt. Bei mehreren Wörtern muss jedes Wort
+     * Präfix eines Schlüssels desselben Kunden sein; zusätzlich wird die gesamte Eingabe als
+     * Kontakt-Präfix gesucht (z.B. "0171 123" für "0171 / 12345").
+     * @return Menge der Kunden-IDs (leer bei leerer Eingabe)
+     */
+    public BitSet searchIds(String query) {
+        if (query == null || query.isBlank()) {
+            return new BitSet();
+        }
+        String[] tokens = WHITESPACE.split(query.trim().toLowerCase(Locale.ROOT));
+        String contactKey = Customer.normalizeContact(query);
+        // Wörter mit kleinem Trefferbereich zuerst; weitere Wörter werden dann nur an den Kandidaten geprüft
+        int[][] ranges = new int[tokens.length][];
+        Integer[] byRangeSize = new Integer[tokens.length];
+        lock.readLock().lock();
+        try {
+            for (int t = 0; t < tokens.length; t++) {
+                ranges[t] = range(tokens[t]);
+                byRangeSize[t] = t;
+            }
+            Arrays.sort(byRangeSize, (a, b) -> Integer.compare(ranges[a][1] - ranges[a][0], ranges[b][1] - ranges[b][0]));
+
+            BitSet result = null;
+            for (int t : byRangeSize) {
+                if (result == null) {
+                    result = collect(tokens[t], ranges[t]);
+                } else if (result.cardinality() < ranges[t][1] - ranges[t][0]) {
+                    retainMatching(result, tokens[t]);
+                } else {
+                    result.and(collect(tokens[t], ranges[t]));
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            if (contactKey != null && !(tokens.length == 1 && contactKey.equals(tokens[0]))) {
+                int[] contactRange = range(contactKey);
+                for (int i = contactRange[0]; i < contactRange[1]; i++) {
+                    result.set(ids[i]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liefert höchstens {@code limit} passende Kunden (nach ID geordnet).
+     */
+    public List<Customer> search(String query, int limit) {
+        BitSet matches = searchIds(query);
+        List<Customer> result = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        lock.readLock().lock();
+        try {
+            for (int id = matches.nextSetBit(0); id >= 0 && result.size() < limit; id = matches.nextSetBit(id + 1)) {
+                Customer customer = customers.get(id);
+                if (customer != null) {
+                    result.add(customer);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return customers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bereich [von, bis) der Schlüssel mit dem Präfix.
+     */
+    private int[] range(String prefix) {
+        return new int[] {lowerBound(prefix), lowerBound(prefix + Character.MAX_VALUE)};
+    }
+
+    private BitSet collect(String prefix, int[] range) {
+        if (prefix.length() == 1) {
+            // Der Cache wird unter der Lesesperre befüllt, daher synchronisiert
+            synchronized (singleCharCache) {
+                BitSet cached = singleCharCache.get(prefix.charAt(0));
+                if (cached == null) {
+                    cached = collectRange(range);
+                    singleCharCache.put(prefix.charAt(0), cached);
+                }
+                return (BitSet) cached.clone();
+            }
+        }
+        return collectRange(range);
+    }
+
+    private BitSet collectRange(int[] range) {
+        BitSet result = new BitSet();
+        for (int i = range[0]; i < range[1]; i++) {
+            result.set(ids[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Behält nur Kandidaten, bei denen ein Schlüssel mit dem Präfix beginnt.
+     */
+    private void retainMatching(BitSet candidates, String prefix) {
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            String[] customerKeys = keysById.get(id);
+            boolean matches = false;
+            if (customerKeys != null) {
+                for (String key : customerKeys) {
+                    if (key.startsWith(prefix)) {
+                        matches = true;
+                        break;
+                    }
+                }
+            }
+            if (!matches) {
+                candidates.clear(id);
+            }
+        }
+    }
+
+    /**
+     * Erste Position, deren Schlüssel nicht kleiner als {@code key} ist.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void insert(String key, int id) {
+        int position = lowerBound(key);
+        // Gleiche Schlüssel nach ID ordnen, damit removeKeys den Eintrag eindeutig findet
+        while (position < size && keys[position].equals(key) && ids[position] < id) {
+            position++;
+        }
+        if (position < size && keys[position].equals(key) && ids[position] == id) {
+            return;
+        }
+        if (size == keys.length) {
+            int capacity = Math.max(16, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        keys[position] = key;
+        ids[position] = id;
+        size++;
+    }
+
+    private void removeKeys(int customerId) {
+        String[] customerKeys = keysById.remove(customerId);
+        if (customerKeys == null) {
+            return;
+        }
+        for (String key : customerKeys) {
+            for (int i = lowerBound(key); i < size && keys[i].equals(key); i++) {
+                if (ids[i] == customerId) {
+                    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                    keys[size] = null;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Suchschlüssel eines Kunden (ohne Duplikate).
+     */
+    private static String[] keysOf(Customer customer) {
+        List<String> result = new ArrayList<>(4);
+        if (customer.getName() != null) {
+            for (String word : WORD_SEPARATOR.split(customer.getName().toLowerCase(Locale.ROOT))) {
+                addKey(result, word);
+            }
+        }
+        if (customer.getContact() != null) {
+            addKey(result, customer.getContact().trim().toLowerCase(Locale.ROOT));
+            addKey(result, Customer.normalizeContact(customer.getContact()));
+        }
+        return result.toArray(new String[0]);
+    }
+
+    private static void addKey(List<String> keys, String key) {
+        if (key != null && !key.isEmpty() && !keys.contains(key)) {
+            keys.add(key);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package services;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sperre einer Datenbankdatei über die Datei {@code <datei>.writers} daneben. Jeder {@link DatabaseManager}
+ * auf der Datei hält sie geteilt; das {@link BookingJournal} braucht sie exklusiv, weil es voraussetzt, dass
+ * niemand sonst in die Datenbank schreibt. Solange ein Journal läuft, lässt sich daher kein weiterer Manager
+ * öffnen, und umgekehrt startet kein Journal, solange ein anderer Manager die Datei verwendet.
+ * <p>
+ * Betriebssystem-Sperren gelten je Prozess (Java erlaubt je Datei und JVM nur eine); die Manager einer JVM
+ * teilen sich deshalb eine Sperre und werden hier gezählt.
+ */
+final class DatabaseFileLock implements AutoCloseable {
+    private static final Map<Path, Holder> HOLDERS = new HashMap<>();
+
+    private final Path path;
+    private boolean exclusive;
+    private boolean closed;
+
+    private DatabaseFileLock(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Sperrt die Datenbankdatei geteilt.
+     * @throws IOException wenn ein Manager mit Buchungsjournal (in diesem oder einem anderen Prozess) sie verwendet
+     */
+    static DatabaseFileLock acquire(Path databaseFile) throws IOException {
+        Path path = Path.of(databaseFile.toAbsolutePath().normalize() + ".writers");
+        synchronized (HOLDERS) {
+            Holder holder = HOLDERS.get(path);
+            if (holder == null) {
+                FileChannel channel = FileChannel.open(path,
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock lock = tryLock(channel, true);
+                if (lock == null) {
+                    channel.close();
+                    throw new IOException("Datenbank " + databaseFile
+                            + " wird von einem anderen Prozess mit Buchungsjournal verwendet");
+                }
+                holder = new Holder(channel, lock);
+                HOLDERS.put(path, holder);
+            } else if (holder.exclusive) {
+                throw new IOException("Datenbank " + databaseFile + " wird bereits mit Buchungsjournal verwendet");
+            }
+            holder.users++;
+        }
+        return new DatabaseFileLock(path);
+    }
+
+    /**
+     * Sperrt die Datenbankdatei exklusiv für das Buchungsjournal.
+     * @throws IOException wenn ein weiterer Manager (in diesem oder einem anderen Prozess) sie verwendet
+     */
+    void lockExclusive() throws IOException {
+        synchronized (HOLDERS) {
+            Holder holder = HOLDERS.get(path);
+            if (closed || exclusive) {
+                throw new IllegalStateException("Sperre " + path + " ist nicht geteilt gehalten");
+            }
+            if (holder.users > 1) {
+                throw new IOException("Weitere DatabaseManager verwenden " + path + " in diesem Prozess");
+            }
+            if (holder.lock != null) {
+                holder.lock.release();
+            }
+            FileLock lock = tryLock(holder.channel, false);
+            if (lock == null) {
+                // Zurück zur geteilten Sperre; andere Prozesse halten ebenfalls nur geteilte
+                holder.lock = tryLock(holder.channel, true);
+                throw new IOException("Ein anderer Prozess verwendet " + path);
+            }
+            holder.lock = lock;
+            holder.exclusive = true;
+            exclusive = true;
+        }
+    }
+
+    /**
+     * Gibt die exklusive Sperre ab und hält die Datei wieder geteilt.
+     */
+    void unlockExclusive() throws IOException {
+        synchronized (HOLDERS) {
+            if (closed || !exclusive) {
+                return;
+            }
+            Holder holder = HOLDERS.get(path);
+            holder.lock.release();
+            holder.lock = tryLock(holder.channel, true);
+            holder.exclusive = false;
+            exclusive = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (HOLDERS) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Holder holder = HOLDERS.get(path);
+            if (exclusive) {
+                holder.exclusive = false;
+            }
+            if (--holder.users == 0) {
+                HOLDERS.remove(path);
+                // Schließen gibt auch die Sperre frei
+                holder.channel.close();
+            }
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel, boolean shared) throws IOException {
+        try {
+            return channel.tryLock(0, Long.MAX_VALUE, shared);
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static final class Holder {
+        private final FileChannel channel;
+        private FileLock lock;
+        private int users;
+        private boolean exclusive;
+
+        private Holder(FileChannel channel, FileLock lock) {
+            this.channel = channel;
+            this.lock = lock;
+        }
+    }
+}
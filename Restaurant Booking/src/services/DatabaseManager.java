@@ -1,75 +1,444 @@
 package services;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import models.Table;
 import models.Customer;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import models.Reservation;
+import models.TimeSlot;
+import models.WaitlistEntry;
+import monitoring.CustomerLookupEvent;
+import monitoring.MetricsRegistry;
+import monitoring.ReservationInsertEvent;
+import monitoring.TableSearchEvent;
+import monitoring.TransactionEvent;
 
 /**
  * DatabaseManager verwaltet die Verbindung zur SQLite-Datenbank
  * und führt alle Datenbankzugriffe (Tabellen erstellen, CRUD-Operationen) durch.
+ * Laufzeiten und Fehler jeder öffentlichen Operation werden in {@link #getMetrics()} erfasst.
+ * <p>
+ * Mit {@code -Drestaurant.journal=true} bestätigt {@link #addReservation(LocalDate, TimeSlot, int, int, int)}
+ * Buchungen über das {@link BookingJournal} neben der Datenbankdatei und übernimmt sie gebündelt.
+ * Das Journal setzt voraus, dass allein dieser Manager in die Datei schreibt; jeder Manager hält daher, auch
+ * ohne Journal, die {@link DatabaseFileLock Sperre} der Datei ({@code <datei>.writers}), die das Journal
+ * exklusiv braucht.
  */
 public class DatabaseManager {
+    private static final Logger LOGGER = Logger.getLogger(DatabaseManager.class.getName());
     private static final String DB_URL = "jdbc:sqlite:restaurant.db";
-    private Connection connection;
+    private ConnectionPool pool;
+    private final MetricsRegistry metrics;
+    // Verschachtelungstiefe der laufenden Transaktion; nur unter der Schreibsperre gelesen/geschrieben
+    private int transactionDepth;
+    // Indexänderungen, die erst nach erfolgreichem COMMIT angewendet werden (ebenfalls unter der Schreibsperre)
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final AvailabilityIndex availability = new AvailabilityIndex();
+    private final CustomerIndex customerIndex = new CustomerIndex();
+    private final CustomerCache customerCache =
+            new CustomerCache(Integer.getInteger("restaurant.customerCache.size", CustomerCache.DEFAULT_CAPACITY));
+    // Datei des Buchungsjournals (null bei In-Memory-Datenbanken); das Journal selbst ist null, solange es aus ist
+    private final Path journalPath;
+    private volatile BookingJournal journal;
+    // Sperre der Datenbankdatei (null bei In-Memory-Datenbanken); exklusiv, solange das Journal läuft
+    private DatabaseFileLock fileLock;
+    // Benachrichtigt z.B. den Ereignisbus, sobald bestätigte Buchungen in SQLite stehen
+    private final List<Runnable> journalListeners = new CopyOnWriteArrayList<>();
+    // Bestätigte Buchungen, die nicht übernommen werden konnten (Tabelle journal_quarantine)
+    private final LongAdder journalQuarantined = new LongAdder();
 
     public DatabaseManager() {
+        this(DB_URL, PoolConfig.fromSystemProperties());
+    }
+
+    /**
+     * @param url    JDBC-URL der SQLite-Datenbank
+     * @param config Einstellungen des Verbindungspools (Leseverbindungen, Busy-Timeout)
+     */
+    public DatabaseManager(String url, PoolConfig config) {
+        metrics = new MetricsRegistry(url.startsWith("jdbc:sqlite:") ? url.substring("jdbc:sqlite:".length()) : url);
+        Path databaseFile = databaseFile(url);
+        journalPath = databaseFile == null ? null : Path.of(databaseFile + ".bookings");
         try {
             // SQLite JDBC-Treiber laden (falls erforderlich)
             Class.forName("org.sqlite.JDBC");
-            // Verbindung zur SQLite-Datenbank herstellen (Datei "restaurant.db")
-            connection = DriverManager.getConnection(DB_URL);
-        } catch (ClassNotFoundException | SQLException e) {
-            e.printStackTrace();
-            System.err.println("Datenbankverbindung konnte nicht hergestellt werden.");
+            // Keine Datenbank öffnen, in die ein Buchungsjournal schreibt
+            fileLock = databaseFile == null ? null : DatabaseFileLock.acquire(databaseFile);
+            // Verbindungspool zur SQLite-Datenbank öffnen (eine Schreib-, mehrere Leseverbindungen im WAL-Modus)
+            pool = new ConnectionPool(url, config);
+            registerMetrics();
+        } catch (ClassNotFoundException | SQLException | IOException e) {
+            LOGGER.log(Level.SEVERE, "Datenbankverbindung konnte nicht hergestellt werden.", e);
+            releaseFileLock();
         }
     }
 
+    /**
+     * Nimmt die Wartezeiten des Pools und die Trefferquoten der Caches in die Kennzahlen auf
+     * und meldet sie per JMX an.
+     */
+    private void registerMetrics() {
+        metrics.register("pool.writerWait", pool.getWriterWait());
+        metrics.register("pool.readerWait", pool.getReaderWait());
+        metrics.gauge("pool.timeouts", () -> pool.getStatistics().timeouts());
+        metrics.gauge("pool.statementCacheHitRate", () -> pool.getStatistics().statementCacheHitRate());
+        metrics.gauge("availability.hitRate", () -> hitRate(availability.getHits(), availability.getMisses()));
+        metrics.gauge("customerCache.hitRate", () -> hitRate(customerCache.getHits(), customerCache.getMisses()));
+        metrics.start();
+    }
+
+    /**
+     * Datenbankdatei der URL (null bei In-Memory-Datenbanken und URI-Dateinamen). Das Journal liegt daneben
+     * ({@code <datei>.bookings}; nicht {@code -journal}, das verwendet SQLite selbst).
+     */
+    private static Path databaseFile(String url) {
+        String file = url.startsWith("jdbc:sqlite:") ? url.substring("jdbc:sqlite:".length()) : "";
+        if (file.isEmpty() || file.startsWith(":") || file.startsWith("file:") || file.contains("?")) {
+            return null;
+        }
+        return Path.of(file);
+    }
+
+    private void releaseFileLock() {
+        if (fileLock == null) {
+            return;
+        }
+        try {
+            fileLock.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Sperre der Datenbankdatei konnte nicht freigegeben werden", e);
+        }
+        fileLock = null;
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Kennzahlen dieser Datenbank: Laufzeit-Histogramme, Aufrufe und Fehler je Operation,
+     * Wartezeiten auf Verbindungen und Trefferquoten.
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Protokolliert einen fehlgeschlagenen Datenbankzugriff und zählt ihn bei der Operation.
+     */
+    private void failed(String operation, Exception e) {
+        metrics.error(operation);
+        LOGGER.log(Level.WARNING, "Datenbankzugriff " + operation + " fehlgeschlagen", e);
+    }
+
+    /**
+     * Liefert die aktuellen Kennzahlen des Verbindungspools (Wartezeiten, Zugriffe).
+     */
+    public ConnectionPool.PoolStatistics getPoolStatistics() {
+        return pool.getStatistics();
+    }
+
+    /**
+     * Schließt alle Datenbankverbindungen. Danach ist der DatabaseManager nicht mehr nutzbar.
+     */
+    public void close() {
+        metrics.close();
+        BookingJournal closing = journal;
+        if (closing != null) {
+            flushJournal();
+            closing.close();
+            journal = null;
+        }
+        if (pool != null) {
+            pool.close();
+        }
+        releaseFileLock();
+    }
+
     /**
      * Initialisiert die Datenbankstruktur: erstellt Tabellen und fügt Default-Daten ein.
      * Diese Methode wird beim Programmstart einmalig aufgerufen.
      */
     public void initialize() {
-        createTables();
-        insertDefaultTablesIfEmpty();
+        initialize(new StartupTimer());
     }
 
     /**
-     * Legt die benötigten Tabellen (tables, customers, reservations) in der DB an, falls noch nicht vorhanden.
+     * Wie {@link #initialize()}, protokolliert aber die Dauer jeder Phase.
+     * Schema und Standard-Tische werden nacheinander über die Schreibverbindung angelegt; danach laufen
+     * das Aufräumen des Lösch-Protokolls und das Füllen der Indizes parallel (WAL erlaubt Leser neben dem Schreiber).
      */
-    private void createTables() {
-        try (Statement stmt = connection.createStatement()) {
-            // Tabelle für Tische
-            String sqlTable = "CREATE TABLE IF NOT EXISTS tables ("
-                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                    + "capacity INTEGER"
-                    + ")";
-            stmt.execute(sqlTable);
-
-            // Tabelle für Kunden
-            String sqlCustomer = "CREATE TABLE IF NOT EXISTS customers ("
-                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                    + "name TEXT,"
-                    + "contact TEXT"
-                    + ")";
-            stmt.execute(sqlCustomer);
-
-            // Tabelle für Reservierungen (mit Fremdschlüsseln auf Tisch und Kunde)
-            String sqlReservation = "CREATE TABLE IF NOT EXISTS reservations ("
-                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                    + "date TEXT,"
-                    + "persons INTEGER,"
-                    + "table_id INTEGER,"
-                    + "customer_id INTEGER,"
-                    + "FOREIGN KEY(table_id) REFERENCES tables(id),"
-                    + "FOREIGN KEY(customer_id) REFERENCES customers(id)"
-                    + ")";
-            stmt.execute(sqlReservation);
+    public void initialize(StartupTimer timer) {
+        if (pool == null) {
+            throw new IllegalStateException("Keine Datenbankverbindung vorhanden");
+        }
+        timer.time("Schema migrieren", this::migrateSchema);
+        timer.time("Standard-Tische prüfen", this::insertDefaultTablesIfEmpty);
+        timer.time("Buchungsjournal nachspielen", this::openJournal);
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("startup-warm-", 0).factory())) {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> timer.time("Lösch-Protokoll aufräumen", this::pruneDeletionLog), executor),
+                    CompletableFuture.runAsync(() -> timer.time("Verfügbarkeitsindex laden", this::warmAvailabilityIndex), executor),
+                    CompletableFuture.runAsync(() -> timer.time("Kundenindex laden", this::warmCustomerIndex), executor)
+            ).join();
+        }
+    }
+
+    /**
+     * Öffnet das Buchungsjournal, falls {@code restaurant.journal} gesetzt ist, übernimmt die beim letzten
+     * Lauf nicht mehr übernommenen Buchungen und startet die gebündelte Übernahme. Verwendet ein weiterer
+     * Manager (auch in einem anderen Prozess) dieselbe Datei, bleibt das Journal aus.
+     */
+    private void openJournal() {
+        if (!Boolean.getBoolean("restaurant.journal") || journalPath == null || fileLock == null) {
+            return;
+        }
+        try {
+            fileLock.lockExclusive();
+            BookingJournal opened = BookingJournal.open(journalPath);
+            // AUTOINCREMENT vergibt keine ID doppelt, auch nicht die gelöschter Reservierungen
+            opened.reserveIdsBelow(highestReservationId() + 1);
+            journal = opened;
+            flushJournal();
+            opened.start(this::flushJournal);
+            metrics.gauge("journal.pending", opened::getPending);
+            metrics.gauge("journal.quarantined", journalQuarantined::sum);
+        } catch (IOException | SQLException e) {
+            failed("db.openJournal", e);
+            if (journal != null) {
+                journal.close();
+            }
+            journal = null;
+            try {
+                fileLock.unlockExclusive();
+            } catch (IOException unlockError) {
+                LOGGER.log(Level.WARNING, "Sperre der Datenbankdatei konnte nicht geteilt werden", unlockError);
+            }
+        }
+    }
+
+    /**
+     * Gibt an, ob Buchungen über das Journal bestätigt werden ({@code restaurant.journal}); nach einer Buchung
+     * in Quarantäne nicht mehr.
+     */
+    public boolean isJournalActive() {
+        BookingJournal current = journal;
+        return current != null && !current.isSuspended();
+    }
+
+    /**
+     * Meldet eine Aktion an, die nach jeder Übernahme von Journaleinträgen läuft (nach dem COMMIT).
+     */
+    public void addJournalListener(Runnable listener) {
+        journalListeners.add(listener);
+    }
+
+    private int highestReservationId() throws SQLException {
+        try (ConnectionPool.Lease lease = pool.acquireWriter();
+             Statement stmt = lease.connection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(COALESCE((SELECT seq FROM sqlite_sequence "
+                     + "WHERE name = 'reservations'), 0), COALESCE((SELECT MAX(id) FROM reservations), 0))")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Übernimmt alle offenen Journaleinträge in einer Transaktion (Group Commit).
+     */
+    private void flushJournal() {
+        try {
+            runTransaction(connection -> null, false);
+        } catch (SQLException e) {
+            failed("db.flushJournal", e);
+        }
+    }
+
+    /**
+     * Fügt die offenen Journaleinträge in der laufenden Transaktion ein. Schon vorhandene IDs stammen aus einer
+     * Übernahme, deren Vermerk im Journal ein Absturz verhindert hat, und werden übersprungen. Buchungen, die
+     * sich nicht wie bestätigt speichern lassen, kommen in die Quarantäne ({@link #quarantine}).
+     */
+    private void applyJournal(Connection connection, BookingJournal journal) throws SQLException {
+        BookingJournal.Batch batch = journal.pending();
+        if (batch.entries().isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (BookingJournal.Entry entry : batch.entries()) {
+            if (isApplied(connection, journal, entry)) {
+                continue;
+            }
+            try {
+                insertReservationRow(connection, entry.date(), entry.slot(), entry.persons(),
+                        List.of(entry.tableId()), entry.customerId(), entry.reservationId());
+            } catch (TableOccupiedException e) {
+                quarantine(connection, journal, entry, "Tisch " + entry.tableId() + " ist am " + entry.date()
+                        + " im Zeitfenster " + entry.slot() + " belegt");
+            }
+        }
+        afterCommit(() -> {
+            journal.markApplied(batch);
+            journalListeners.forEach(Runnable::run);
+        });
+        metrics.operation("journal.apply").record(System.nanoTime() - start);
+    }
+
+    /**
+     * Prüft, ob die Buchung schon übernommen ist (Absturz zwischen COMMIT und Vermerk im Journal). Trägt ihre
+     * ID eine andere Reservierung, kommt sie in die Quarantäne und gilt damit ebenfalls als erledigt.
+     */
+    private boolean isApplied(Connection connection, BookingJournal journal, BookingJournal.Entry entry)
+            throws SQLException {
+        PreparedStatement pstmt = prepare(connection,
+                "SELECT date, slot, duration, persons, table_id, customer_id FROM reservations WHERE id = ?");
+        pstmt.setInt(1, entry.reservationId());
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next()) {
+                return false;
+            }
+            boolean same = entry.date().toString().equals(rs.getString("date"))
+                    && rs.getInt("slot") == entry.slot().getStart()
+                    && rs.getInt("duration") == entry.slot().getDuration()
+                    && rs.getInt("persons") == entry.persons()
+                    && rs.getInt("table_id") == entry.tableId()
+                    && rs.getInt("customer_id") == entry.customerId();
+            if (!same) {
+                quarantine(connection, journal, entry, "ID ist bereits an eine andere Reservierung vergeben");
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Eine bestätigte Buchung lässt sich nicht übernehmen: trotz {@link DatabaseFileLock} hat jemand anderes in
+     * die Datenbank geschrieben. Sie wird in der laufenden Transaktion in {@code journal_quarantine} abgelegt,
+     * damit die übrigen Einträge übernommen werden und der Schreib-Offset des Journals weiterrückt. Nach dem
+     * COMMIT bestätigt das Journal nichts mehr, weil der Verfügbarkeitsindex nicht mehr verlässlich ist;
+     * Schreibtransaktionen laufen normal weiter. Behebung siehe {@link BookingJournal}.
+     */
+    private void quarantine(Connection connection, BookingJournal journal, BookingJournal.Entry entry, String reason)
+            throws SQLException {
+        PreparedStatement pstmt = prepare(connection,
+                "INSERT INTO journal_quarantine (reservation_id, date, slot, duration, persons, table_id, customer_id, "
+                        + "reason, quarantined_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        pstmt.setInt(1, entry.reservationId());
+        pstmt.setString(2, entry.date().toString());
+        pstmt.setInt(3, entry.slot().getStart());
+        pstmt.setInt(4, entry.slot().getDuration());
+        pstmt.setInt(5, entry.persons());
+        pstmt.setInt(6, entry.tableId());
+        pstmt.setInt(7, entry.customerId());
+        pstmt.setString(8, reason);
+        pstmt.setLong(9, System.currentTimeMillis());
+        pstmt.executeUpdate();
+        // Erst nach dem COMMIT: bei einem Rollback wird der Eintrag mit der nächsten Übernahme erneut geprüft
+        afterCommit(() -> {
+            journal.suspend();
+            journalQuarantined.increment();
+            metrics.error("journal.apply");
+            LOGGER.severe("Bestätigte Buchung " + entry.reservationId() + " (" + entry.date() + ", " + entry.slot()
+                    + ", " + entry.persons() + " Personen, Tisch " + entry.tableId() + ", Kunde " + entry.customerId()
+                    + ") in journal_quarantine verschoben: " + reason
+                    + "; das Buchungsjournal bestätigt bis zum Neustart keine Buchungen mehr");
+        });
+    }
+
+    /**
+     * Lädt alle Kunden in den Präfixindex für die Kundensuche.
+     */
+    private void warmCustomerIndex() {
+        List<Customer> customers = new ArrayList<>();
+        try (ConnectionPool.Lease lease = pool.acquireReader();
+             Statement stmt = lease.connection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name, contact FROM customers")) {
+            while (rs.next()) {
+                customers.add(new Customer(rs.getInt("id"), rs.getString("name"), rs.getString("contact")));
+            }
+            customerIndex.load(customers);
+        } catch (SQLException e) {
+            failed("db.warmCustomerIndex", e);
+        }
+    }
+
+    /**
+     * Liefert den Präfixindex über Kundenname und Kontakt.
+     */
+    public CustomerIndex getCustomerIndex() {
+        return customerIndex;
+    }
+
+    /**
+     * Lädt alle Tische und die Belegung ab heute in den Verfügbarkeitsindex.
+     */
+    private void warmAvailabilityIndex() {
+        LocalDate today = LocalDate.now();
+        List<Table> tables = new ArrayList<>();
+        Map<LocalDate, long[]> occupied = new HashMap<>();
+        try (ConnectionPool.Lease lease = pool.acquireReader();
+             Statement stmt = lease.connection().createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT id, capacity, area, position FROM tables")) {
+                while (rs.next()) {
+                    tables.add(mapTable(rs));
+                }
+            }
+            // Haupttische und dazugestellte Tische
+            try (PreparedStatement pstmt = lease.connection().prepareStatement(
+                    "SELECT date, slot, duration, table_id FROM reservations WHERE date >= ? "
+                            + "UNION ALL SELECT date, slot, duration, table_id FROM reservation_tables WHERE date >= ?")) {
+                pstmt.setString(1, today.toString());
+                pstmt.setString(2, today.toString());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        LocalDate date = LocalDate.parse(rs.getString("date"));
+                        TimeSlot slot = new TimeSlot(rs.getInt("slot"), rs.getInt("duration"));
+                        AvailabilityIndex.mark(occupied, date, rs.getInt("table_id"), slot);
+                    }
+                }
+            }
+            availability.load(tables, today, occupied);
         } catch (SQLException e) {
-            e.printStackTrace();
+            failed("db.warmAvailabilityIndex", e);
+        }
+    }
+
+    /**
+     * Liefert den speicherinternen Verfügbarkeitsindex (z.B. für Trefferquoten).
+     */
+    public AvailabilityIndex getAvailabilityIndex() {
+        return availability;
+    }
+
+    /**
+     * Bringt das Datenbankschema über die versionierten Migrationen auf den neuesten Stand
+     * (legt beim ersten Start die Tabellen an und aktualisiert bestehende restaurant.db-Dateien).
+     */
+    private void migrateSchema() {
+        try (ConnectionPool.Lease lease = pool.acquireWriter()) {
+            int version = new SchemaMigrator().migrate(lease.connection());
+            LOGGER.info("Datenbankschema auf Version " + version + ".");
+        } catch (SQLException e) {
+            failed("db.migrateSchema", e);
         }
     }
 
@@ -77,7 +446,8 @@ public class DatabaseManager {
      * Prüft, ob bereits Tische in der DB vorhanden sind, und fügt ggf. einige Standard-Tische hinzu.
      */
     private void insertDefaultTablesIfEmpty() {
-        try (Statement stmt = connection.createStatement();
+        try (ConnectionPool.Lease lease = pool.acquireWriter();
+             Statement stmt = lease.connection().createStatement();
              ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM tables")) {
             if (rs.next()) {
                 int count = rs.getInt(1);
@@ -92,170 +462,1237 @@ public class DatabaseManager {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            failed("db.insertDefaultTablesIfEmpty", e);
         }
     }
 
     /**
-     * Fügt einen neuen Tisch mit gegebener Kapazität in die Datenbank ein.
+     * Fügt einen neuen Tisch mit gegebener Kapazität in die Datenbank ein (im Bereich {@link Table#DEFAULT_AREA}).
      * @param capacity Anzahl der Sitzplätze des neuen Tisches
      * @return Table-Objekt des neu eingefügten Tisches (mit gesetzter ID) oder null bei Fehler
      */
     public Table addTable(int capacity) {
-        String sql = "INSERT INTO tables (capacity) VALUES (?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setInt(1, capacity);
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                // Generierte ID des neuen Datensatzes abrufen
-                try (ResultSet keys = pstmt.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        int newId = keys.getInt(1);
-                        return new Table(newId, capacity);
+        return addTable(capacity, Table.DEFAULT_AREA);
+    }
+
+    /**
+     * Fügt einen neuen Tisch am Ende des Bereichs ein; er steht damit neben dem bisher letzten Tisch
+     * des Bereichs und kann mit ihm zusammengestellt werden.
+     * @param capacity Anzahl der Sitzplätze des neuen Tisches
+     * @param area     Bereich, z.B. "Saal" oder "Terrasse"
+     * @return Table-Objekt des neu eingefügten Tisches (mit gesetzter ID) oder null bei Fehler
+     */
+    public Table addTable(int capacity, String area) {
+        return metrics.time("db.addTable", () -> {
+            String sql = "INSERT INTO tables (capacity, area, position) VALUES (?, ?, ?)";
+            try (ConnectionPool.Lease lease = pool.acquireWriter()) {
+                // Die Schreibverbindung ist exklusiv, daher kann die Position nicht parallel vergeben werden
+                PreparedStatement last = prepare(lease.connection(),
+                        "SELECT COALESCE(MAX(position), 0) FROM tables WHERE area = ?");
+                last.setString(1, area);
+                int position;
+                try (ResultSet rs = last.executeQuery()) {
+                    position = rs.next() ? rs.getInt(1) + 1 : 1;
+                }
+                PreparedStatement pstmt = prepare(lease.connection(), sql, Statement.RETURN_GENERATED_KEYS);
+                pstmt.setInt(1, capacity);
+                pstmt.setString(2, area);
+                pstmt.setInt(3, position);
+                int affectedRows = pstmt.executeUpdate();
+                if (affectedRows > 0) {
+                    // Generierte ID des neuen Datensatzes abrufen
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            int newId = keys.getInt(1);
+                            Table table = new Table(newId, capacity, area, position);
+                            availability.addTable(table);
+                            return table;
+                        }
                     }
                 }
+            } catch (SQLException e) {
+                failed("db.addTable", e);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
+            return null;
+        });
     }
 
     /**
-     * Fügt einen neuen Kunden in die Datenbank ein.
+     * Liefert den Kunden mit dem (normalisiert) gleichen Kontakt oder legt ihn neu an.
+     * Stammgäste erhalten so bei jeder Buchung denselben Datensatz.
      * @param name    Name des Kunden
      * @param contact Kontaktinformation (Telefon, E-Mail, o.ä.)
      * @return Customer-Objekt mit gesetzter ID, oder null bei Fehler
      */
     public Customer addCustomer(String name, String contact) {
-        String sql = "INSERT INTO customers (name, contact) VALUES (?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, name);
-            pstmt.setString(2, contact);
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet keys = pstmt.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        int newId = keys.getInt(1);
-                        return new Customer(newId, name, contact);
+        return metrics.time("db.addCustomer", () -> {
+            // Bekannte Kunden bleiben unverändert (siehe findOrCreateCustomer): ohne Schreibtransaktion aus dem Cache
+            Customer cached = findCachedCustomer(contact);
+            if (cached != null) {
+                return cached;
+            }
+            try {
+                return inTransaction(connection -> findOrCreateCustomer(connection, name, contact));
+            } catch (SQLException e) {
+                failed("db.addCustomer", e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Liefert den Kunden mit diesem (normalisiert) gleichen Kontakt, sofern er im LRU-Cache steht; ohne Datenbankzugriff.
+     */
+    Customer findCachedCustomer(String contact) {
+        String contactKey = Customer.normalizeContact(contact);
+        return contactKey == null ? null : customerCache.get(contactKey);
+    }
+
+    /**
+     * Sucht den Kunden über den normalisierten Kontakt (zuerst im LRU-Cache, dann über den
+     * eindeutigen Index {@code ux_customers_contact_key}) und legt ihn nur an, wenn er noch unbekannt ist.
+     * Ein bestehender Kunde bleibt unverändert, auch wenn mit abweichendem Namen gebucht wird (z.B. gemeinsame
+     * Telefonnummer einer Familie oder Tippfehler); sonst änderte sich der Name aller seiner Reservierungen.
+     */
+    Customer findOrCreateCustomer(Connection connection, String name, String contact) throws SQLException {
+        CustomerLookupEvent event = new CustomerLookupEvent();
+        event.begin();
+        Customer customer = lookupOrCreateCustomer(connection, name, contact, event);
+        event.end();
+        if (event.shouldCommit()) {
+            event.customerId = customer != null ? customer.getId() : 0;
+            event.commit();
+        }
+        return customer;
+    }
+
+    private Customer lookupOrCreateCustomer(Connection connection, String name, String contact,
+                                            CustomerLookupEvent event) throws SQLException {
+        String contactKey = Customer.normalizeContact(contact);
+        if (contactKey == null) {
+            event.created = true;
+            return insertCustomer(connection, name, contact, null);
+        }
+        Customer customer = customerCache.get(contactKey);
+        event.cacheHit = customer != null;
+        if (customer == null) {
+            customer = findCustomerByContactKey(connection, contactKey);
+        }
+        if (customer == null) {
+            event.created = true;
+            return insertCustomer(connection, name, contact, contactKey);
+        }
+        Customer cached = customer;
+        afterCommit(() -> customerCache.put(contactKey, cached));
+        return customer;
+    }
+
+    private Customer findCustomerByContactKey(Connection connection, String contactKey) throws SQLException {
+        PreparedStatement pstmt = prepare(connection,
+                "SELECT id, name, contact FROM customers WHERE contact_key = ?");
+        pstmt.setString(1, contactKey);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                return new Customer(rs.getInt("id"), rs.getString("name"), rs.getString("contact"));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fügt einen Kunden über die übergebene (Schreib-)Verbindung ein, z.B. innerhalb einer Transaktion.
+     */
+    private Customer insertCustomer(Connection connection, String name, String contact, String contactKey)
+            throws SQLException {
+        String sql = "INSERT INTO customers (name, contact, contact_key) VALUES (?, ?, ?)";
+        PreparedStatement pstmt = prepare(connection, sql, Statement.RETURN_GENERATED_KEYS);
+        pstmt.setString(1, name);
+        pstmt.setString(2, contact);
+        pstmt.setString(3, contactKey);
+        int affectedRows = pstmt.executeUpdate();
+        if (affectedRows > 0) {
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    int newId = keys.getInt(1);
+                    Customer customer = new Customer(newId, name, contact);
+                    afterCommit(() -> customerIndex.put(customer));
+                    if (contactKey != null) {
+                        // Erst nach dem COMMIT cachen, sonst bliebe bei einem Rollback eine ungültige ID im Cache
+                        afterCommit(() -> customerCache.put(contactKey, customer));
                     }
+                    return customer;
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return null;
     }
 
     /**
-     * Speichert eine neue Reservierung in der Datenbank.
+     * Liefert den LRU-Cache der zuletzt gebuchten Kunden (z.B. für Trefferquoten).
+     */
+    public CustomerCache getCustomerCache() {
+        return customerCache;
+    }
+
+    /**
+     * Speichert eine neue Reservierung im Standard-Zeitfenster (18:00–20:00 Uhr) in der Datenbank.
      * @param date       Datum der Reservierung
      * @param persons    Anzahl der Personen
      * @param tableId    ID des reservierten Tisches
      * @param customerId ID des reservierenden Kunden
-     * @return die generierte Reservierungs-ID (oder -1 bei Fehler)
+     * @return die generierte Reservierungs-ID (oder -1 bei Fehler, z.B. wenn der Tisch bereits belegt ist)
      */
     public int addReservation(LocalDate date, int persons, int tableId, int customerId) {
-        String sql = "INSERT INTO reservations (date, persons, table_id, customer_id) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, date.toString());
-            pstmt.setInt(2, persons);
-            pstmt.setInt(3, tableId);
-            pstmt.setInt(4, customerId);
+        return addReservation(date, TimeSlot.defaultSlot(), persons, tableId, customerId);
+    }
+
+    /**
+     * Speichert eine neue Reservierung im angegebenen Zeitfenster in der Datenbank.
+     * Bei aktivem Buchungsjournal wird die Buchung nur angehängt und sofort bestätigt; Leser sehen sie nach
+     * der nächsten Übernahme.
+     * @return die generierte Reservierungs-ID (oder -1 bei Fehler, z.B. wenn der Tisch im Zeitfenster belegt ist)
+     */
+    public int addReservation(LocalDate date, TimeSlot slot, int persons, int tableId, int customerId) {
+        return metrics.time("db.addReservation", () -> {
+            int journaled = appendToJournal(date, slot, persons, tableId, customerId);
+            if (journaled != 0) {
+                return journaled;
+            }
+            try {
+                return inTransaction(connection -> insertReservation(connection, date, slot, persons, tableId, customerId));
+            } catch (SQLException e) {
+                failed("db.addReservation", e);
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * Bestätigt die Buchung über das Journal. Ob der Tisch frei ist, entscheidet dabei allein der
+     * Verfügbarkeitsindex; Prüfen, Belegen und Anhängen laufen unter der Sperre des Journals.
+     * Auch {@link ReservationService} bucht darüber, sofern ein einzelner Tisch reicht.
+     * @return die Reservierungs-ID, -1 wenn der Tisch belegt ist, 0 wenn direkt gespeichert werden muss
+     *         (Journal aus oder voll, Datum außerhalb des Index)
+     */
+    int appendToJournal(LocalDate date, TimeSlot slot, int persons, int tableId, int customerId) {
+        BookingJournal current = journal;
+        if (current == null || !availability.covers(date)) {
+            return 0;
+        }
+        current.lockAppends();
+        try {
+            if (!availability.tryMarkOccupied(date, tableId, slot)) {
+                return -1;
+            }
+            int reservationId = current.nextId();
+            if (current.append(reservationId, date, slot, persons, tableId, customerId)) {
+                return reservationId;
+            }
+            availability.markFree(date, tableId, slot);
+            return 0;
+        } finally {
+            current.unlockAppends();
+        }
+    }
+
+    /**
+     * Fügt eine Reservierung über die übergebene (Schreib-)Verbindung ein. Überschneidet sich das
+     * Zeitfenster mit einer bestehenden Reservierung desselben Tisches, wird eine
+     * {@link TableOccupiedException} geworfen. Für Race-Freiheit innerhalb von {@link #inTransaction} aufrufen.
+     */
+    int insertReservation(Connection connection, LocalDate date, TimeSlot slot, int persons, int tableId,
+                          int customerId) throws SQLException {
+        return insertReservation(connection, date, slot, persons, List.of(tableId), customerId);
+    }
+
+    /**
+     * Wie {@link #insertReservation(Connection, LocalDate, TimeSlot, int, int, int)}, aber an mehreren
+     * zusammengestellten Tischen. Der erste Tisch wird Haupttisch, die übrigen landen in {@code reservation_tables}.
+     * Ist einer der Tische im Zeitfenster belegt, wird eine {@link TableOccupiedException} für ihn geworfen.
+     */
+    int insertReservation(Connection connection, LocalDate date, TimeSlot slot, int persons, List<Integer> tableIds,
+                          int customerId) throws SQLException {
+        int tableId = tableIds.get(0);
+        ReservationInsertEvent event = new ReservationInsertEvent();
+        event.begin();
+        int reservationId = 0;
+        try {
+            reservationId = insertReservationRow(connection, date, slot, persons, tableIds, customerId, 0);
+            return reservationId;
+        } catch (TableOccupiedException e) {
+            event.conflict = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.describe(date, slot, persons);
+                event.tableId = tableId;
+                event.reservationId = Math.max(0, reservationId);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @param reservationId vorgegebene ID (Übernahme aus dem Journal) oder 0; bei aktivem Journal vergibt
+     *                      dann das Journal die ID, sonst SQLite
+     */
+    private int insertReservationRow(Connection connection, LocalDate date, TimeSlot slot, int persons,
+                                     List<Integer> tableIds, int customerId, int reservationId) throws SQLException {
+        for (int tableId : tableIds) {
+            if (!isTableFree(connection, tableId, date, slot)) {
+                throw new TableOccupiedException(tableId, date, slot);
+            }
+        }
+        int tableId = tableIds.get(0);
+        if (reservationId == 0 && journal != null) {
+            reservationId = journal.nextId();
+        }
+        String sql = "INSERT INTO reservations (id, date, slot, duration, persons, table_id, customer_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        PreparedStatement pstmt = prepare(connection, sql, Statement.RETURN_GENERATED_KEYS);
+        try {
+            if (reservationId > 0) {
+                pstmt.setInt(1, reservationId);
+            } else {
+                pstmt.setNull(1, Types.INTEGER);
+            }
+            pstmt.setString(2, date.toString());
+            pstmt.setInt(3, slot.getStart());
+            pstmt.setInt(4, slot.getDuration());
+            pstmt.setInt(5, persons);
+            pstmt.setInt(6, tableId);
+            pstmt.setInt(7, customerId);
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
                 try (ResultSet keys = pstmt.getGeneratedKeys()) {
                     if (keys.next()) {
-                        return keys.getInt(1);
+                        int insertedId = keys.getInt(1);
+                        insertJoinedTables(connection, insertedId, date, slot, tableIds.subList(1, tableIds.size()));
+                        afterCommit(() -> tableIds.forEach(id -> availability.markOccupied(date, id, slot)));
+                        return insertedId;
                     }
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            if (isUniqueViolation(e)) {
+                // Gleicher Start auf demselben Tisch (ux_reservations_table_date_slot bzw. ux_reservation_tables_table_date_slot)
+                throw new TableOccupiedException(tableId, date, slot);
+            }
+            throw e;
         }
         return -1;
     }
 
     /**
-     * Sucht einen verfügbaren Tisch für eine bestimmte Personenanzahl am gegebenen Datum.
+     * Trägt die dazugestellten Tische einer Reservierung ein (ohne Haupttisch).
+     */
+    private void insertJoinedTables(Connection connection, int reservationId, LocalDate date, TimeSlot slot,
+                                    List<Integer> tableIds) throws SQLException {
+        if (tableIds.isEmpty()) {
+            return;
+        }
+        PreparedStatement pstmt = prepare(connection,
+                "INSERT INTO reservation_tables (reservation_id, table_id, date, slot, duration) VALUES (?, ?, ?, ?, ?)");
+        for (int tableId : tableIds) {
+            pstmt.setInt(1, reservationId);
+            pstmt.setInt(2, tableId);
+            pstmt.setString(3, date.toString());
+            pstmt.setInt(4, slot.getStart());
+            pstmt.setInt(5, slot.getDuration());
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Prüft per SQL, ob sich am Tisch eine Reservierung mit dem Zeitfenster überschneidet, als Haupttisch
+     * oder dazugestellter Tisch (nutzt die Indizes ux_reservations_table_date_slot und ux_reservation_tables_table_date_slot).
+     */
+    boolean isTableFree(Connection connection, int tableId, LocalDate date, TimeSlot slot) throws SQLException {
+        String sql = "SELECT 1 FROM reservations "
+                + "WHERE table_id = ? AND date = ? AND slot < ? AND slot + duration > ? "
+                + "UNION ALL SELECT 1 FROM reservation_tables "
+                + "WHERE table_id = ? AND date = ? AND slot < ? AND slot + duration > ? LIMIT 1";
+        PreparedStatement pstmt = prepare(connection, sql);
+        for (int offset = 0; offset <= 4; offset += 4) {
+            pstmt.setInt(offset + 1, tableId);
+            pstmt.setString(offset + 2, date.toString());
+            pstmt.setInt(offset + 3, slot.getEnd());
+            pstmt.setInt(offset + 4, slot.getStart());
+        }
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return !rs.next();
+        }
+    }
+
+    /**
+     * Sucht einen verfügbaren Tisch für eine bestimmte Personenanzahl am gegebenen Datum
+     * im Standard-Zeitfenster (18:00–20:00 Uhr).
      * @param date    Datum der Reservierung
      * @param persons benötigte Anzahl an Sitzplätzen
      * @return ein verfügbares Table-Objekt, oder null wenn kein passender Tisch frei ist
      */
     public Table findAvailableTable(LocalDate date, int persons) {
-        String sql = "SELECT id, capacity FROM tables "
+        return findAvailableTable(date, TimeSlot.defaultSlot(), persons);
+    }
+
+    /**
+     * Sucht einen Tisch, der im gesamten Zeitfenster frei ist.
+     * @return ein verfügbares Table-Objekt, oder null wenn kein passender Tisch frei ist
+     */
+    public Table findAvailableTable(LocalDate date, TimeSlot slot, int persons) {
+        return metrics.time("db.findAvailableTable", () -> {
+            TableSearchEvent event = new TableSearchEvent();
+            event.begin();
+            Table table = null;
+            if (availability.covers(date)) {
+                event.fromIndex = true;
+                table = availability.findFreeTable(date, slot, persons);
+            } else {
+                try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                    List<Table> candidates = findAvailableTables(lease.connection(), date, slot, persons);
+                    event.rows = candidates.size();
+                    table = candidates.isEmpty() ? null : candidates.get(0);
+                } catch (SQLException e) {
+                    failed("db.findAvailableTable", e);
+                }
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.describe(date, slot, persons);
+                event.tableId = table != null ? table.getId() : 0;
+                if (event.fromIndex && table != null) {
+                    event.rows = 1;
+                }
+                event.commit();
+            }
+            return table;
+        });
+    }
+
+    /**
+     * Liefert alle im Zeitfenster freien Tische mit Aufstellung, z.B. um für große Gruppen benachbarte
+     * Tische zusammenzustellen. Für Tage im Verfügbarkeitsindex ohne Datenbankzugriff.
+     * @return die freien Tische (bei Fehler leer)
+     */
+    public List<Table> findFreeTables(LocalDate date, TimeSlot slot) {
+        return metrics.time("db.findFreeTables", () -> {
+            List<Table> free = availability.findFreeTables(date, slot, 1);
+            if (free != null) {
+                return free;
+            }
+            try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                return findAvailableTables(lease.connection(), date, slot, 1);
+            } catch (SQLException e) {
+                failed("db.findFreeTables", e);
+                return List.<Table>of();
+            }
+        });
+    }
+
+    /**
+     * Wie {@link #findFreeTables(LocalDate, TimeSlot)} über die Schreibverbindung der laufenden Transaktion
+     * (nur unter der Schreibsperre aufrufen). Anders als
+     * {@link #findCandidateTables} wird einem leeren Indexergebnis geglaubt: zum Zusammenstellen wird nur
+     * gesucht, wenn ohnehin kein Einzeltisch frei war, und ein übersehener Tisch kostet hier nur die Buchung
+     * einer Großgruppe, nicht die Korrektheit. Stehen in der laufenden Transaktion noch Indexänderungen aus
+     * (z.B. eine gerade gelöschte Reservierung, deren Tische erst nach dem COMMIT frei werden), wird per SQL gesucht.
+     */
+    List<Table> findFreeTables(Connection connection, LocalDate date, TimeSlot slot) throws SQLException {
+        List<Table> free = afterCommit.isEmpty() ? availability.findFreeTables(date, slot, 1) : null;
+        return free != null ? free : findAvailableTables(connection, date, slot, 1);
+    }
+
+    /**
+     * Liefert alle im Zeitfenster freien Tische mit ausreichender Kapazität, kleinste Tische zuerst (Best-Fit).
+     * Innerhalb einer Transaktion aufgerufen, sieht die Abfrage auch eigene, noch nicht bestätigte Buchungen.
+     */
+    List<Table> findAvailableTables(Connection connection, LocalDate date, TimeSlot slot, int persons)
+            throws SQLException {
+        String sql = "SELECT id, capacity, area, position FROM tables "
                 + "WHERE capacity >= ? "
-                + "AND id NOT IN (SELECT table_id FROM reservations WHERE date = ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, persons);
-            pstmt.setString(2, date.toString());
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    int tableId = rs.getInt("id");
-                    int cap = rs.getInt("capacity");
-                    return new Table(tableId, cap);
+                + "AND id NOT IN (SELECT table_id FROM reservations "
+                + "WHERE date = ? AND slot < ? AND slot + duration > ? "
+                + "UNION ALL SELECT table_id FROM reservation_tables "
+                + "WHERE date = ? AND slot < ? AND slot + duration > ?) "
+                + "ORDER BY capacity, id";
+        List<Table> tables = new ArrayList<>();
+        PreparedStatement pstmt = prepare(connection, sql);
+        pstmt.setInt(1, persons);
+        for (int offset = 1; offset <= 4; offset += 3) {
+            pstmt.setString(offset + 1, date.toString());
+            pstmt.setInt(offset + 2, slot.getEnd());
+            pstmt.setInt(offset + 3, slot.getStart());
+        }
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                tables.add(mapTable(rs));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Liefert alle Tische mit Aufstellung.
+     */
+    private List<Table> loadTables(Connection connection) throws SQLException {
+        List<Table> tables = new ArrayList<>();
+        PreparedStatement pstmt = prepare(connection, "SELECT id, capacity, area, position FROM tables ORDER BY id");
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                tables.add(mapTable(rs));
+            }
+        }
+        return tables;
+    }
+
+    private static Table mapTable(ResultSet rs) throws SQLException {
+        return new Table(rs.getInt("id"), rs.getInt("capacity"), rs.getString("area"), rs.getInt("position"));
+    }
+
+    /**
+     * Liefert Kandidaten für eine Buchung: zuerst aus dem Verfügbarkeitsindex, bei leerem Ergebnis
+     * oder Daten außerhalb des Indexhorizonts verbindlich per SQL (der Index kennt keine Änderungen
+     * anderer Prozesse). Stehen in der laufenden Transaktion noch Indexänderungen aus (z.B. beim Nachrücken
+     * von der Warteliste: gerade freigegebene und schon vergebene Tische), wird wie bei
+     * {@link #findFreeTables(Connection, LocalDate, TimeSlot)} gleich per SQL gesucht.
+     */
+    List<Table> findCandidateTables(Connection connection, LocalDate date, TimeSlot slot, int persons)
+            throws SQLException {
+        TableSearchEvent event = new TableSearchEvent();
+        event.begin();
+        List<Table> candidates = afterCommit.isEmpty() ? availability.findFreeTables(date, slot, persons) : null;
+        event.fromIndex = candidates != null && !candidates.isEmpty();
+        if (!event.fromIndex) {
+            candidates = findAvailableTables(connection, date, slot, persons);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(date, slot, persons);
+            event.rows = candidates.size();
+            event.tableId = candidates.isEmpty() ? 0 : candidates.get(0).getId();
+            event.commit();
+        }
+        return candidates;
+    }
+
+    /**
+     * Führt die übergebene Arbeit in einer Schreibtransaktion aus ({@code BEGIN IMMEDIATE}).
+     * Die Schreibsperre wird damit schon vor dem ersten Lesen geholt, sodass Prüfen und Einfügen
+     * auch gegenüber anderen Prozessen auf derselben Datenbankdatei atomar sind.
+     * Bei einer Exception wird die Transaktion zurückgerollt und die Exception weitergereicht.
+     * Verschachtelte Aufrufe im selben Thread laufen in der äußeren Transaktion mit.
+     * Bei aktivem Buchungsjournal werden zuerst die offenen Buchungen übernommen; bis zum Ende der
+     * Transaktion werden keine neuen bestätigt, damit SQL-Prüfungen auf freie Tische vollständig sind.
+     */
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        return runTransaction(work, true);
+    }
+
+    /**
+     * @param lockJournal Journal für die Dauer der Transaktion sperren; nicht nötig für die reine Übernahme,
+     *                    die selbst nichts prüft
+     */
+    private <T> T runTransaction(TransactionWork<T> work, boolean lockJournal) throws SQLException {
+        try (ConnectionPool.Lease lease = pool.acquireWriter()) {
+            Connection connection = lease.connection();
+            if (transactionDepth > 0) {
+                transactionDepth++;
+                try {
+                    return work.execute(connection);
+                } finally {
+                    transactionDepth--;
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            long start = System.nanoTime();
+            TransactionEvent event = new TransactionEvent();
+            event.begin();
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("BEGIN IMMEDIATE");
+            }
+            transactionDepth = 1;
+            BookingJournal current = journal;
+            BookingJournal locked = lockJournal ? current : null;
+            if (locked != null) {
+                locked.lockAppends();
+            }
+            try {
+                if (current != null) {
+                    applyJournal(connection, current);
+                }
+                T result = work.execute(connection);
+                long commitStart = System.nanoTime();
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("COMMIT");
+                }
+                event.commitTime = System.nanoTime() - commitStart;
+                event.committed = true;
+                runAfterCommit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                afterCommit.clear();
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("ROLLBACK");
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            } finally {
+                transactionDepth = 0;
+                if (locked != null) {
+                    locked.unlockAppends();
+                }
+                metrics.operation("db.transaction").record(System.nanoTime() - start);
+                event.commit();
+            }
         }
-        return null;
+    }
+
+    /**
+     * Liefert die vorbereitete Anweisung aus dem Statement-Cache der Verbindung.
+     * Die Anweisung gehört dem Cache und wird nicht geschlossen; nur ResultSets schließen.
+     */
+    private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        return pool.statementCache(connection).prepare(sql);
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql, int autoGeneratedKeys) throws SQLException {
+        return pool.statementCache(connection).prepare(sql, autoGeneratedKeys);
+    }
+
+    /**
+     * Merkt eine Aktion für nach dem COMMIT der laufenden Transaktion vor; außerhalb einer
+     * Transaktion (Autocommit) wird sie sofort ausgeführt. Muss unter der Schreibsperre aufgerufen werden.
+     */
+    private void afterCommit(Runnable action) {
+        if (transactionDepth > 0) {
+            afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    private void runAfterCommit() {
+        List<Runnable> actions = new ArrayList<>(afterCommit);
+        afterCommit.clear();
+        actions.forEach(Runnable::run);
+    }
+
+    /**
+     * Arbeitseinheit, die innerhalb einer Transaktion auf der Schreibverbindung ausgeführt wird.
+     */
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Prüft, ob eine SQLException durch eine verletzte UNIQUE-Bedingung ausgelöst wurde.
+     */
+    public static boolean isUniqueViolation(SQLException e) {
+        // SQLITE_CONSTRAINT = 19 (ggf. als erweiterter Code SQLITE_CONSTRAINT_UNIQUE = 2067)
+        return (e.getErrorCode() & 0xff) == 19
+                && e.getMessage() != null
+                && e.getMessage().contains("UNIQUE");
+    }
+
+    /**
+     * Prüft, ob eine SQLException durch eine gesperrte Datenbank (SQLITE_BUSY/SQLITE_LOCKED) ausgelöst wurde.
+     */
+    public static boolean isBusy(SQLException e) {
+        int code = e.getErrorCode() & 0xff;
+        return code == 5 || code == 6;
     }
 
     /**
      * In DatabaseManager hinzufügen:
      */
     public boolean deleteReservation(int reservationId) {
-        String sql = "DELETE FROM reservations WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, reservationId);
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
+        return metrics.time("db.deleteReservation", () -> {
+            try {
+                return inTransaction(connection -> deleteReservation(connection, reservationId) != null);
+            } catch (SQLException e) {
+                failed("db.deleteReservation", e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Löscht eine Reservierung über die übergebene (Schreib-)Verbindung und gibt den Tisch im Index frei.
+     * @return Datum und Zeitfenster der gelöschten Reservierung (z.B. zum Nachrücken von der Warteliste),
+     *         oder null, wenn es sie nicht gab
+     */
+    FreedSlot deleteReservation(Connection connection, int reservationId) throws SQLException {
+        LocalDate date = null;
+        TimeSlot slot = null;
+        int tableId = 0;
+        PreparedStatement select = prepare(connection,
+                "SELECT date, slot, duration, table_id FROM reservations WHERE id = ?");
+        select.setInt(1, reservationId);
+        try (ResultSet rs = select.executeQuery()) {
+            if (rs.next()) {
+                date = LocalDate.parse(rs.getString("date"));
+                slot = new TimeSlot(rs.getInt("slot"), rs.getInt("duration"));
+                tableId = rs.getInt("table_id");
+            }
         }
+        if (date == null) {
+            return null;
+        }
+        List<Integer> freedTables = new ArrayList<>(List.of(tableId));
+        freedTables.addAll(loadJoinedTableIds(connection, reservationId));
+        // Die dazugestellten Tische löscht der Trigger trg_reservations_delete_tables mit
+        PreparedStatement delete = prepare(connection, "DELETE FROM reservations WHERE id = ?");
+        delete.setInt(1, reservationId);
+        int affectedRows = delete.executeUpdate();
+        if (affectedRows > 0) {
+            LocalDate freedDate = date;
+            TimeSlot freedSlot = slot;
+            afterCommit(() -> freedTables.forEach(id -> availability.markFree(freedDate, id, freedSlot)));
+        }
+        return affectedRows > 0 ? new FreedSlot(date, slot) : null;
     }
-/**
- * Ruft alle zukünftigen Reservierungen aus der Datenbank ab.
- * @return Liste mit Reservation-Objekten
- */
-public List<Reservation> getUpcomingReservations() {
-    List<Reservation> reservations = new ArrayList<>();
-    String sql = "SELECT r.id, r.date, r.persons, r.table_id, r.customer_id, " +
-                 "c.name, c.contact, t.capacity " +
-                 "FROM reservations r " +
-                 "JOIN customers c ON r.customer_id = c.id " +
-                 "JOIN tables t ON r.table_id = t.id " +
-                 "WHERE r.date >= ? " +
-                 "ORDER BY r.date, r.id";
-    
-    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-        pstmt.setString(1, LocalDate.now().toString());
-        
+
+    /**
+     * Datum und Zeitfenster, die durch das Löschen einer Reservierung frei geworden sind.
+     */
+    record FreedSlot(LocalDate date, TimeSlot slot) {
+    }
+
+    private static final String WAITLIST_SELECT =
+            "SELECT w.id, w.date, w.slot, w.duration, w.persons, w.customer_id, w.requested_at, w.reservation_id, " +
+            "c.name, c.contact " +
+            "FROM waitlist w " +
+            "JOIN customers c ON w.customer_id = c.id ";
+
+    // Reihenfolge des Nachrückens: wer zuerst gefragt hat, bei gleichem Zeitpunkt die größere Gruppe
+    private static final String WAITLIST_ORDER = "ORDER BY w.requested_at, w.persons DESC, w.id";
+
+    /**
+     * Setzt eine Gruppe auf die Warteliste des Tages (der Kunde wird wie beim Buchen gesucht bzw. angelegt).
+     * @return der neue Eintrag, oder null bei Fehler
+     */
+    public WaitlistEntry addWaitlistEntry(String name, String contact, LocalDate date, TimeSlot slot, int persons) {
+        return metrics.time("db.addWaitlistEntry", () -> {
+            try {
+                return inTransaction(connection -> {
+                    Customer customer = findOrCreateCustomer(connection, name, contact);
+                    return customer == null ? null : insertWaitlistEntry(connection, date, slot, persons, customer);
+                });
+            } catch (SQLException e) {
+                failed("db.addWaitlistEntry", e);
+                return null;
+            }
+        });
+    }
+
+    private WaitlistEntry insertWaitlistEntry(Connection connection, LocalDate date, TimeSlot slot, int persons,
+                                              Customer customer) throws SQLException {
+        long requestedAt = System.currentTimeMillis();
+        PreparedStatement pstmt = prepare(connection,
+                "INSERT INTO waitlist (date, slot, duration, persons, customer_id, requested_at) VALUES (?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+        pstmt.setString(1, date.toString());
+        pstmt.setInt(2, slot.getStart());
+        pstmt.setInt(3, slot.getDuration());
+        pstmt.setInt(4, persons);
+        pstmt.setInt(5, customer.getId());
+        pstmt.setLong(6, requestedAt);
+        pstmt.executeUpdate();
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            if (!keys.next()) {
+                return null;
+            }
+            return new WaitlistEntry(keys.getInt(1), date, slot, persons, customer, toDateTime(requestedAt), 0);
+        }
+    }
+
+    /**
+     * Liefert die wartenden Einträge eines Tages in der Reihenfolge, in der sie nachrücken.
+     * @return die Einträge (bei Fehler leer)
+     */
+    public List<WaitlistEntry> getWaitlist(LocalDate date) {
+        return metrics.time("db.getWaitlist", () -> {
+            try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                PreparedStatement pstmt = prepare(lease.connection(), WAITLIST_SELECT
+                        + "WHERE w.date = ? AND w.reservation_id IS NULL " + WAITLIST_ORDER);
+                pstmt.setString(1, date.toString());
+                return mapWaitlist(pstmt);
+            } catch (SQLException e) {
+                failed("db.getWaitlist", e);
+                return List.<WaitlistEntry>of();
+            }
+        });
+    }
+
+    /**
+     * Liefert die wartenden Einträge, deren Zeitfenster sich mit dem frei gewordenen überschneidet,
+     * in der Reihenfolge des Nachrückens. Nur diese können durch die Stornierung einen Tisch bekommen haben.
+     */
+    List<WaitlistEntry> findWaitlistCandidates(Connection connection, LocalDate date, TimeSlot slot)
+            throws SQLException {
+        PreparedStatement pstmt = prepare(connection, WAITLIST_SELECT
+                + "WHERE w.date = ? AND w.reservation_id IS NULL AND w.slot < ? AND w.slot + w.duration > ? "
+                + WAITLIST_ORDER);
+        pstmt.setString(1, date.toString());
+        pstmt.setInt(2, slot.getEnd());
+        pstmt.setInt(3, slot.getStart());
+        return mapWaitlist(pstmt);
+    }
+
+    /**
+     * Vermerkt, dass der Eintrag mit der angegebenen Reservierung nachgerückt ist.
+     */
+    void markPromoted(Connection connection, int entryId, int reservationId) throws SQLException {
+        PreparedStatement pstmt = prepare(connection, "UPDATE waitlist SET reservation_id = ? WHERE id = ?");
+        pstmt.setInt(1, reservationId);
+        pstmt.setInt(2, entryId);
+        pstmt.executeUpdate();
+    }
+
+    /**
+     * Entfernt einen wartenden Eintrag von der Warteliste (z.B. wenn die Gruppe abgesagt hat).
+     * @return true, wenn der Eintrag gewartet hat und entfernt wurde
+     */
+    public boolean removeWaitlistEntry(int entryId) {
+        return metrics.time("db.removeWaitlistEntry", () -> {
+            try {
+                return inTransaction(connection -> {
+                    PreparedStatement pstmt = prepare(connection,
+                            "DELETE FROM waitlist WHERE id = ? AND reservation_id IS NULL");
+                    pstmt.setInt(1, entryId);
+                    return pstmt.executeUpdate() > 0;
+                });
+            } catch (SQLException e) {
+                failed("db.removeWaitlistEntry", e);
+                return false;
+            }
+        });
+    }
+
+    private static List<WaitlistEntry> mapWaitlist(PreparedStatement pstmt) throws SQLException {
+        List<WaitlistEntry> entries = new ArrayList<>();
         try (ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                int id = rs.getInt("id");
-                LocalDate date = LocalDate.parse(rs.getString("date"));
-                int persons = rs.getInt("persons");
-                int tableId = rs.getInt("table_id");
-                int tableCapacity = rs.getInt("capacity");
-                int customerId = rs.getInt("customer_id");
-                
-                String name = rs.getString("name");
-                String contact = rs.getString("contact");
-                
-                Table table = new Table(tableId, tableCapacity);
-                Customer customer = new Customer(customerId, name, contact);
-                
-                Reservation reservation = new Reservation(id, date, persons, table, customer);
-                reservations.add(reservation);
-            }
-        }
-    } catch (SQLException e) {
-        e.printStackTrace();
-    }
-    
-    return reservations;
+                Customer customer = new Customer(rs.getInt("customer_id"), rs.getString("name"), rs.getString("contact"));
+                entries.add(new WaitlistEntry(rs.getInt("id"), LocalDate.parse(rs.getString("date")),
+                        new TimeSlot(rs.getInt("slot"), rs.getInt("duration")), rs.getInt("persons"), customer,
+                        toDateTime(rs.getLong("requested_at")), rs.getInt("reservation_id")));
+            }
+        }
+        return entries;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private List<Integer> loadJoinedTableIds(Connection connection, int reservationId) throws SQLException {
+        List<Integer> tableIds = new ArrayList<>();
+        PreparedStatement pstmt = prepare(connection, "SELECT table_id FROM reservation_tables WHERE reservation_id = ?");
+        pstmt.setInt(1, reservationId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                tableIds.add(rs.getInt(1));
+            }
+        }
+        return tableIds;
+    }
+
+    // Dazugestellte Tische als "id:kapazität,..." (meist NULL; Nachschlagen über den Primärschlüssel von reservation_tables)
+    private static final String UPCOMING_SELECT =
+            "SELECT r.id, r.date, r.slot, r.duration, r.persons, r.table_id, r.customer_id, " +
+            "c.name, c.contact, t.capacity, " +
+            "(SELECT GROUP_CONCAT(rt.table_id || ':' || jt.capacity) FROM reservation_tables rt " +
+            "JOIN tables jt ON rt.table_id = jt.id WHERE rt.reservation_id = r.id) AS joined_tables " +
+            "FROM reservations r " +
+            "JOIN customers c ON r.customer_id = c.id " +
+            "JOIN tables t ON r.table_id = t.id ";
+
+    /**
+     * Ruft alle zukünftigen Reservierungen aus der Datenbank ab.
+     * Für große Datenbestände {@link #getUpcomingReservations(ReservationPage.Cursor, int)} oder
+     * {@link #iterateUpcomingReservations(int)} verwenden.
+     * @return Liste mit Reservation-Objekten
+     */
+    public List<Reservation> getUpcomingReservations() {
+        return metrics.time("db.getUpcomingReservations", () -> {
+            List<Reservation> reservations = new ArrayList<>();
+            String sql = UPCOMING_SELECT +
+                         "WHERE r.date >= ? " +
+                         "ORDER BY r.date, r.id";
+
+            try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                PreparedStatement pstmt = prepare(lease.connection(), sql);
+                pstmt.setString(1, LocalDate.now().toString());
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        reservations.add(mapReservation(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                failed("db.getUpcomingReservations", e);
+            }
+
+            return reservations;
+        });
+    }
+
+    /**
+     * Liefert eine Seite kommender Reservierungen hinter dem Cursor, sortiert nach (Datum, ID).
+     * Die Abfrage setzt per Keyset direkt im Index idx_reservations_upcoming auf.
+     * @param after Position hinter der letzten bereits geladenen Reservierung ({@link ReservationPage.Cursor#start()} für den Anfang)
+     * @param limit maximale Anzahl Reservierungen der Seite
+     * @return die Seite (bei Fehler eine leere Seite ohne Folgeseite)
+     */
+    public ReservationPage getUpcomingReservations(ReservationPage.Cursor after, int limit) {
+        return getUpcomingReservations(after, limit, null);
+    }
+
+    /**
+     * Wie {@link #getUpcomingReservations(ReservationPage.Cursor, int)}, aber nur Reservierungen der
+     * angegebenen Kunden (z.B. Treffer der Kundensuche). Die IDs gehen als JSON-Array in einen einzigen
+     * Parameter, sodass die Anweisung unabhängig von der Trefferzahl im Statement-Cache bleibt.
+     * @param customerIds IDs der Kunden, oder null für alle
+     */
+    public ReservationPage getUpcomingReservations(ReservationPage.Cursor after, int limit, BitSet customerIds) {
+        return metrics.time("db.getUpcomingReservationsPage", () -> {
+            List<Reservation> reservations = new ArrayList<>(limit);
+            boolean hasMore = false;
+            String sql = UPCOMING_SELECT +
+                         "WHERE r.date >= ? AND (r.date, r.id) > (?, ?) " +
+                         (customerIds == null ? "" : "AND r.customer_id IN (SELECT value FROM json_each(?)) ") +
+                         "ORDER BY r.date, r.id " +
+                         "LIMIT ?";
+
+            long version = 0;
+            try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                version = readChangeVersion(lease.connection());
+                PreparedStatement pstmt = prepare(lease.connection(), sql);
+                pstmt.setString(1, LocalDate.now().toString());
+                pstmt.setString(2, after.date().toString());
+                pstmt.setInt(3, after.id());
+                int index = 4;
+                if (customerIds != null) {
+                    pstmt.setString(index++, toJsonArray(customerIds));
+                }
+                // Eine Zeile mehr lesen, um zu erkennen, ob es eine weitere Seite gibt
+                pstmt.setInt(index, limit + 1);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (reservations.size() == limit) {
+                            hasMore = true;
+                            break;
+                        }
+                        reservations.add(mapReservation(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                failed("db.getUpcomingReservationsPage", e);
+            }
+
+            ReservationPage.Cursor next = after;
+            if (!reservations.isEmpty()) {
+                Reservation last = reservations.get(reservations.size() - 1);
+                next = new ReservationPage.Cursor(last.getDate(), last.getId());
+            }
+            return new ReservationPage(reservations, next, hasMore, version);
+        });
+    }
+
+    private static String toJsonArray(BitSet ids) {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(id);
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Liefert den aktuellen Änderungsstand der Reservierungen (siehe Migration 6).
+     * @return den Stand, oder -1 bei Fehler
+     */
+    public long getChangeVersion() {
+        return metrics.time("db.getChangeVersion", () -> {
+            try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                return readChangeVersion(lease.connection());
+            } catch (SQLException e) {
+                failed("db.getChangeVersion", e);
+                return -1L;
+            }
+        });
+    }
+
+    /**
+     * Liefert die Auslastung eines Tages (Tische, Plätze, Reservierungen, Gäste, gebuchte Zeitfenster).
+     * @return die Auslastung, oder null bei Fehler
+     */
+    public Occupancy getOccupancy(LocalDate date) {
+        return metrics.time("db.getOccupancy", () -> {
+            try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                PreparedStatement pstmt = prepare(lease.connection(),
+                        "SELECT (SELECT COUNT(*) FROM tables), (SELECT COALESCE(SUM(capacity), 0) FROM tables), "
+                                + "COUNT(*), COALESCE(SUM(persons), 0), COALESCE(SUM(duration), 0) "
+                                + "+ (SELECT COALESCE(SUM(duration), 0) FROM reservation_tables WHERE date = ?) "
+                                + "FROM reservations WHERE date = ?");
+                pstmt.setString(1, date.toString());
+                pstmt.setString(2, date.toString());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    return new Occupancy(date, rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+                }
+            } catch (SQLException e) {
+                failed("db.getOccupancy", e);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Verteilt die Reservierungen eines Tages mit dem {@link TableAssigner} neu auf die Tische.
+     * Mit {@code apply} wird der Plan in derselben Schreibtransaktion übernommen, in der er berechnet
+     * wurde (niemand kann dazwischen buchen), aber nur, wenn er sich lohnt ({@link AssignmentPlan#isWorthApplying()}).
+     * @return der Plan, oder null bei Fehler
+     */
+    public AssignmentPlan optimizeDay(LocalDate date, TableAssigner assigner, boolean apply) {
+        return metrics.time("db.optimizeDay", () -> {
+            try {
+                if (!apply) {
+                    try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                        return assigner.optimize(date, loadTables(lease.connection()),
+                                loadReservations(lease.connection(), date));
+                    }
+                }
+                return inTransaction(connection -> {
+                    List<Reservation> reservations = loadReservations(connection, date);
+                    AssignmentPlan plan = assigner.optimize(date, loadTables(connection), reservations);
+                    if (plan.isWorthApplying()) {
+                        applyPlan(connection, plan, reservations);
+                    }
+                    return plan;
+                });
+            } catch (SQLException e) {
+                failed("db.optimizeDay", e);
+                return null;
+            }
+        });
+    }
+
+    private List<Reservation> loadReservations(Connection connection, LocalDate date) throws SQLException {
+        List<Reservation> reservations = new ArrayList<>();
+        PreparedStatement pstmt = prepare(connection, UPCOMING_SELECT + "WHERE r.date = ? ORDER BY r.slot, r.id");
+        pstmt.setString(1, date.toString());
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                reservations.add(mapReservation(rs));
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * Setzt die Reservierungen mit geänderten Tischen um. Die neuen Tische kommen in die temporäre Tabelle
+     * {@code plan_moves}; dann werden alle umzusetzenden Reservierungen mit einer Anweisung auf
+     * {@code table_id = NULL} gestellt (NULL erfüllt den Fremdschlüssel und gilt im eindeutigen Index als
+     * verschieden) und mit einer zweiten auf ihre neuen Tische. So scheitert auch ein Tausch zweier Tische nicht
+     * an ux_reservations_table_date_slot. Das Setzen von table_id erhöht den Änderungsstand der Reservierung.
+     */
+    private void applyPlan(Connection connection, AssignmentPlan plan, List<Reservation> reservations)
+            throws SQLException {
+        List<Reservation> moved = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            TableAssignment assignment = plan.assignments().get(reservation.getId());
+            if (!assignment.sameTables(reservation.getTables())) {
+                moved.add(reservation);
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TEMP TABLE IF NOT EXISTS plan_moves ("
+                    + "reservation_id INTEGER PRIMARY KEY, table_id INTEGER NOT NULL)");
+            stmt.execute("DELETE FROM temp.plan_moves");
+        }
+        PreparedStatement stage = prepare(connection, "INSERT INTO temp.plan_moves (reservation_id, table_id) VALUES (?, ?)");
+        for (Reservation reservation : moved) {
+            stage.setInt(1, reservation.getId());
+            stage.setInt(2, plan.assignments().get(reservation.getId()).primary().getId());
+            stage.executeUpdate();
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM reservation_tables "
+                    + "WHERE reservation_id IN (SELECT reservation_id FROM temp.plan_moves)");
+            stmt.executeUpdate("UPDATE reservations SET table_id = NULL "
+                    + "WHERE id IN (SELECT reservation_id FROM temp.plan_moves)");
+            stmt.executeUpdate("UPDATE reservations SET table_id = "
+                    + "(SELECT m.table_id FROM temp.plan_moves m WHERE m.reservation_id = reservations.id) "
+                    + "WHERE id IN (SELECT reservation_id FROM temp.plan_moves)");
+            stmt.execute("DELETE FROM temp.plan_moves");
+        }
+        for (Reservation reservation : moved) {
+            TableAssignment assignment = plan.assignments().get(reservation.getId());
+            insertJoinedTables(connection, reservation.getId(), reservation.getDate(), reservation.getSlot(),
+                    assignment.joined().stream().map(Table::getId).toList());
+        }
+        afterCommit(() -> {
+            // Erst alle alten Belegungen freigeben, dann die neuen eintragen (Tische können getauscht worden sein)
+            for (Reservation reservation : moved) {
+                reservation.getTables().forEach(t -> availability.markFree(reservation.getDate(), t.getId(), reservation.getSlot()));
+            }
+            for (Reservation reservation : moved) {
+                plan.assignments().get(reservation.getId()).tables()
+                        .forEach(t -> availability.markOccupied(reservation.getDate(), t.getId(), reservation.getSlot()));
+            }
+        });
+    }
+
+    /**
+     * Liefert die höchste vergebene Reservierungs-ID (0, wenn es keine gibt oder bei Fehler).
+     */
+    public int getHighestReservationId() {
+        return metrics.time("db.getHighestReservationId", () -> {
+            try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                PreparedStatement pstmt = prepare(lease.connection(), "SELECT COALESCE(MAX(id), 0) FROM reservations");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            } catch (SQLException e) {
+                failed("db.getHighestReservationId", e);
+                return 0;
+            }
+        });
+    }
+
+    private long readChangeVersion(Connection connection) throws SQLException {
+        PreparedStatement pstmt = prepare(connection, "SELECT version FROM change_state WHERE id = 1");
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Liefert alle kommenden Reservierungen, die nach dem Stand {@code sinceVersion} angelegt oder geändert
+     * wurden, sowie die IDs der seitdem gelöschten. Die Kosten hängen nur von der Anzahl der Änderungen ab.
+     * <p>
+     * Es wird zuerst der aktuelle Stand gelesen und nur bis zu diesem geliefert; was danach bestätigt wird,
+     * kommt mit dem nächsten Abruf. Doppelt gelieferte Reservierungen sind möglich und müssen vom
+     * Aufrufer als Ersetzung behandelt werden.
+     * @return die Änderungen (bei Fehler leer und mit unverändertem Stand)
+     */
+    public ReservationChanges getChangesSince(long sinceVersion) {
+        return metrics.time("db.getChangesSince", () -> {
+            List<Reservation> upserted = new ArrayList<>();
+            List<Integer> deletedIds = new ArrayList<>();
+            try (ConnectionPool.Lease lease = pool.acquireReader()) {
+                long version = readChangeVersion(lease.connection());
+                if (version <= sinceVersion) {
+                    return new ReservationChanges(upserted, deletedIds, sinceVersion);
+                }
+                PreparedStatement changed = prepare(lease.connection(), UPCOMING_SELECT +
+                        "WHERE r.version > ? AND r.version <= ? AND r.date >= ? " +
+                        "ORDER BY r.date, r.id");
+                changed.setLong(1, sinceVersion);
+                changed.setLong(2, version);
+                changed.setString(3, LocalDate.now().toString());
+                try (ResultSet rs = changed.executeQuery()) {
+                    while (rs.next()) {
+                        upserted.add(mapReservation(rs));
+                    }
+                }
+                PreparedStatement deleted = prepare(lease.connection(),
+                        "SELECT reservation_id FROM reservation_deletions WHERE version > ? AND version <= ?");
+                deleted.setLong(1, sinceVersion);
+                deleted.setLong(2, version);
+                try (ResultSet rs = deleted.executeQuery()) {
+                    while (rs.next()) {
+                        deletedIds.add(rs.getInt(1));
+                    }
+                }
+                return new ReservationChanges(upserted, deletedIds, version);
+            } catch (SQLException e) {
+                failed("db.getChangesSince", e);
+                return new ReservationChanges(List.of(), List.of(), sinceVersion);
+            }
+        });
+    }
+
+    /**
+     * Entfernt Löschprotokoll-Einträge vergangener Tage; diese betreffen keine kommende Reservierung mehr.
+     */
+    private void pruneDeletionLog() {
+        try {
+            inTransaction(connection -> {
+                PreparedStatement pstmt = prepare(connection, "DELETE FROM reservation_deletions WHERE date < ?");
+                pstmt.setString(1, LocalDate.now().toString());
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) {
+            failed("db.pruneDeletionLog", e);
+        }
+    }
+
+    /**
+     * Durchläuft alle kommenden Reservierungen seitenweise. Es wird nie mehr als eine Seite im
+     * Speicher gehalten, und zwischen zwei Seiten ist keine Datenbankverbindung belegt.
+     * @param pageSize Anzahl Reservierungen je nachgeladener Seite
+     */
+    public Iterator<Reservation> iterateUpcomingReservations(int pageSize) {
+        return new Iterator<>() {
+            private ReservationPage page = getUpcomingReservations(ReservationPage.Cursor.start(), pageSize);
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                if (position < page.reservations().size()) {
+                    return true;
+                }
+                if (!page.hasMore()) {
+                    return false;
+                }
+                page = getUpcomingReservations(page.next(), pageSize);
+                position = 0;
+                return !page.reservations().isEmpty();
+            }
+
+            @Override
+            public Reservation next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.reservations().get(position++);
+            }
+        };
+    }
+
+    private static Reservation mapReservation(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        LocalDate date = LocalDate.parse(rs.getString("date"));
+        TimeSlot slot = new TimeSlot(rs.getInt("slot"), rs.getInt("duration"));
+        int persons = rs.getInt("persons");
+        int tableId = rs.getInt("table_id");
+        int tableCapacity = rs.getInt("capacity");
+        int customerId = rs.getInt("customer_id");
+
+        String name = rs.getString("name");
+        String contact = rs.getString("contact");
+
+        Table table = new Table(tableId, tableCapacity);
+        Customer customer = new Customer(customerId, name, contact);
+
+        List<Table> joinedTables = new ArrayList<>();
+        String joined = rs.getString("joined_tables");
+        if (joined != null) {
+            for (String entry : joined.split(",")) {
+                int separator = entry.indexOf(':');
+                joinedTables.add(new Table(Integer.parseInt(entry.substring(0, separator)),
+                        Integer.parseInt(entry.substring(separator + 1))));
+            }
+        }
+
+        return new Reservation(id, date, slot, persons, table, joinedTables, customer);
+    }
 }
-}
\ No newline at end of file
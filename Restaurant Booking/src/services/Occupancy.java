@@ -0,0 +1,46 @@
+package services;
+
+import models.TimeSlot;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Auslastung eines Restaurants an einem Tag: Tische und Plätze sowie die gebuchten Reservierungen,
+ * Gäste und Tisch-Zeitfenster (je 30 Minuten, siehe {@link TimeSlot}).
+ * Mehrere Restaurants lassen sich mit {@link #total(LocalDate, Collection)} zusammenfassen.
+ */
+public record Occupancy(LocalDate date, int tables, int seats, int reservations, int guests, int bookedTableSlots) {
+
+    /**
+     * Anteil der gebuchten Tisch-Zeitfenster an allen Zeitfenstern des Tages (0 bis 1).
+     */
+    public double tableSlotUtilization() {
+        return tables == 0 ? 0 : (double) bookedTableSlots / ((long) tables * TimeSlot.SLOTS_PER_DAY);
+    }
+
+    /**
+     * Summe über mehrere Restaurants (z.B. für die Gruppenauswertung).
+     */
+    public static Occupancy total(LocalDate date, Collection<Occupancy> occupancies) {
+        int tables = 0;
+        int seats = 0;
+        int reservations = 0;
+        int guests = 0;
+        int bookedTableSlots = 0;
+        for (Occupancy occupancy : occupancies) {
+            tables += occupancy.tables;
+            seats += occupancy.seats;
+            reservations += occupancy.reservations;
+            guests += occupancy.guests;
+            bookedTableSlots += occupancy.bookedTableSlots;
+        }
+        return new Occupancy(date, tables, seats, reservations, guests, bookedTableSlots);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d Tische (%d Plätze), %d Reservierungen, %d Gäste, Tischauslastung %.1f %%",
+                date, tables, seats, reservations, guests, tableSlotUtilization() * 100);
+    }
+}
@@ -0,0 +1,54 @@
+package services;
+
+/**
+ * Konfiguration des Verbindungspools (Anzahl Leseverbindungen, Busy-Timeout, Wartezeit).
+ * Die Werte können über System-Properties überschrieben werden, z.B.
+ * {@code -Drestaurant.db.readers=8 -Drestaurant.db.busyTimeoutMs=3000}.
+ */
+public class PoolConfig {
+    public static final int DEFAULT_READER_COUNT = 4;
+    public static final int DEFAULT_BUSY_TIMEOUT_MS = 5000;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MS = 10000;
+
+    private final int readerCount;
+    private final int busyTimeoutMs;
+    private final long acquireTimeoutMs;
+
+    public PoolConfig(int readerCount, int busyTimeoutMs, long acquireTimeoutMs) {
+        if (readerCount < 1) {
+            throw new IllegalArgumentException("Es wird mindestens eine Leseverbindung benötigt: " + readerCount);
+        }
+        this.readerCount = readerCount;
+        this.busyTimeoutMs = Math.max(0, busyTimeoutMs);
+        this.acquireTimeoutMs = Math.max(0, acquireTimeoutMs);
+    }
+
+    /**
+     * Liest die Pool-Einstellungen aus den System-Properties; fehlende Werte fallen auf die Defaults zurück.
+     */
+    public static PoolConfig fromSystemProperties() {
+        return new PoolConfig(
+                Integer.getInteger("restaurant.db.readers", DEFAULT_READER_COUNT),
+                Integer.getInteger("restaurant.db.busyTimeoutMs", DEFAULT_BUSY_TIMEOUT_MS),
+                Long.getLong("restaurant.db.acquireTimeoutMs", DEFAULT_ACQUIRE_TIMEOUT_MS)
+        );
+    }
+
+    public int getReaderCount() {
+        return readerCount;
+    }
+
+    public int getBusyTimeoutMs() {
+        return busyTimeoutMs;
+    }
+
+    public long getAcquireTimeoutMs() {
+        return acquireTimeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig(readers=" + readerCount + ", busyTimeoutMs=" + busyTimeoutMs
+                + ", acquireTimeoutMs=" + acquireTimeoutMs + ")";
+    }
+}
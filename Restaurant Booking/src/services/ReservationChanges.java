@@ -0,0 +1,17 @@
+package services;
+
+import models.Reservation;
+
+import java.util.List;
+
+/**
+ * Änderungen an kommenden Reservierungen seit einem bestimmten Änderungsstand.
+ * {@link #upserted()} enthält neue und geänderte Reservierungen (vollständig geladen),
+ * {@link #deletedIds()} die IDs gelöschter Reservierungen. Der nächste Abruf erfolgt ab {@link #version()}.
+ */
+public record ReservationChanges(List<Reservation> upserted, List<Integer> deletedIds, long version) {
+
+    public boolean isEmpty() {
+        return upserted.isEmpty() && deletedIds.isEmpty();
+    }
+}
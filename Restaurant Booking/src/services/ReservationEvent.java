@@ -0,0 +1,28 @@
+package services;
+
+import models.Reservation;
+
+/**
+ * Änderung an einer Reservierung, veröffentlicht über den {@link ReservationEventBus}.
+ * Bei {@link Type#DELETED} ist {@link #reservation()} null.
+ */
+public record ReservationEvent(Type type, int reservationId, Reservation reservation) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static ReservationEvent created(Reservation reservation) {
+        return new ReservationEvent(Type.CREATED, reservation.getId(), reservation);
+    }
+
+    public static ReservationEvent updated(Reservation reservation) {
+        return new ReservationEvent(Type.UPDATED, reservation.getId(), reservation);
+    }
+
+    public static ReservationEvent deleted(int reservationId) {
+        return new ReservationEvent(Type.DELETED, reservationId, null);
+    }
+}
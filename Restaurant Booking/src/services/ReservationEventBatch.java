@@ -0,0 +1,43 @@
+package services;
+
+import models.Reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zusammengefasste Reservierungsereignisse zwischen zwei Änderungsständen.
+ * Je Reservierung ist höchstens ein Ereignis enthalten (der letzte Zustand).
+ * <p>
+ * Ein Empfänger mit Stand {@code v} übernimmt den Stapel, wenn {@code fromVersion <= v < toVersion}.
+ * Ist {@code fromVersion > v}, fehlen ihm Änderungen und er lädt sie über
+ * {@link ReservationService#getChangesSince(long)} nach.
+ */
+public record ReservationEventBatch(List<ReservationEvent> events, long fromVersion, long toVersion) {
+
+    /**
+     * Neue und geänderte Reservierungen des Stapels.
+     */
+    public List<Reservation> upserted() {
+        List<Reservation> upserted = new ArrayList<>();
+        for (ReservationEvent event : events) {
+            if (event.type() != ReservationEvent.Type.DELETED) {
+                upserted.add(event.reservation());
+            }
+        }
+        return upserted;
+    }
+
+    /**
+     * IDs der gelöschten Reservierungen des Stapels.
+     */
+    public List<Integer> deletedIds() {
+        List<Integer> deletedIds = new ArrayList<>();
+        for (ReservationEvent event : events) {
+            if (event.type() == ReservationEvent.Type.DELETED) {
+                deletedIds.add(event.reservationId());
+            }
+        }
+        return deletedIds;
+    }
+}
@@ -0,0 +1,165 @@
+package services;
+
+import models.Reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prozessinterner Ereignisbus für Reservierungsänderungen.
+ * <p>
+ * Quelle ist das Änderungsprotokoll der Datenbank (Migration 6): Nach eigenen Buchungen und Löschungen
+ * meldet der {@link ReservationService} {@link #changed()}, andere Arbeitsplätze werden über einen
+ * billigen Abgleich des Änderungsstands (eine Zeile) erkannt. In beiden Fällen werden nur die Änderungen
+ * seit dem zuletzt veröffentlichten Stand gelesen. Mehrere Meldungen kurz hintereinander werden zu einem
+ * {@link ReservationEventBatch} zusammengefasst.
+ * <p>
+ * Empfänger werden auf dem Thread des Busses aufgerufen und müssen selbst z.B. auf den EDT wechseln.
+ */
+public class ReservationEventBus {
+    private static final Logger LOGGER = Logger.getLogger(ReservationEventBus.class.getName());
+    /** Wartezeit nach einer Meldung, in der weitere Meldungen zusammengefasst werden */
+    static final long COALESCE_DELAY_MS = 50;
+    public static final long DEFAULT_POLL_INTERVAL_MS = 2000;
+
+    private final DatabaseManager db;
+    private final long pollIntervalMs;
+    private final List<Consumer<ReservationEventBatch>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean checkScheduled = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    // Nur auf dem Thread des Busses geschrieben
+    private volatile long version = -1;
+    private int highestKnownId;
+
+    public ReservationEventBus(DatabaseManager db) {
+        this(db, Long.getLong("restaurant.events.pollMs", DEFAULT_POLL_INTERVAL_MS));
+    }
+
+    public ReservationEventBus(DatabaseManager db, long pollIntervalMs) {
+        this.db = db;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    /**
+     * Meldet einen Empfänger an; der Bus startet mit dem ersten Empfänger.
+     * @return Abmeldung (z.B. beim Schließen eines Fensters aufrufen)
+     */
+    public Runnable subscribe(Consumer<ReservationEventBatch> listener) {
+        listeners.add(listener);
+        start();
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Meldet eine eigene, bereits bestätigte Änderung. Die Ereignisse folgen nach höchstens
+     * {@link #COALESCE_DELAY_MS} ms, zusammen mit allen weiteren Änderungen dieses Zeitraums.
+     */
+    public void changed() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+        }
+        if (current != null && checkScheduled.compareAndSet(false, true)) {
+            current.schedule(() -> {
+                checkScheduled.set(false);
+                publishChanges();
+            }, COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(() -> {
+            version = db.getChangeVersion();
+            highestKnownId = db.getHighestReservationId();
+        });
+        scheduler.scheduleWithFixedDelay(this::pollVersion, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Vergleicht nur den Änderungsstand; die Änderungen selbst werden erst gelesen, wenn er gestiegen ist.
+     */
+    private void pollVersion() {
+        long current = db.getChangeVersion();
+        if (current > version) {
+            publishChanges();
+        }
+    }
+
+    private void publishChanges() {
+        try {
+            if (version < 0) {
+                version = db.getChangeVersion();
+                return;
+            }
+            ReservationChanges changes = db.getChangesSince(version);
+            if (changes.version() <= version) {
+                return;
+            }
+            List<ReservationEvent> events = new ArrayList<>();
+            int highestId = highestKnownId;
+            for (Reservation reservation : changes.upserted()) {
+                // Kunden anderer Arbeitsplätze auch in der lokalen Kundensuche finden
+                db.getCustomerIndex().put(reservation.getCustomer());
+                // IDs werden fortlaufend vergeben: alles oberhalb der bisher höchsten ID ist neu
+                if (reservation.getId() > highestKnownId) {
+                    events.add(ReservationEvent.created(reservation));
+                    highestId = Math.max(highestId, reservation.getId());
+                } else {
+                    events.add(ReservationEvent.updated(reservation));
+                }
+            }
+            for (Integer id : changes.deletedIds()) {
+                events.add(ReservationEvent.deleted(id));
+                highestId = Math.max(highestId, id);
+            }
+            ReservationEventBatch batch = new ReservationEventBatch(events, version, changes.version());
+            version = changes.version();
+            highestKnownId = highestId;
+            // Auch leere Stapel (z.B. nur vergangene Tage geändert) weitergeben, damit die Empfänger ihren Stand nachziehen
+            for (Consumer<ReservationEventBatch> listener : listeners) {
+                notify(listener, batch);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Reservierungsereignisse konnten nicht veröffentlicht werden", e);
+        }
+    }
+
+    private static void notify(Consumer<ReservationEventBatch> listener, ReservationEventBatch batch) {
+        try {
+            listener.accept(batch);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Empfänger für Reservierungsereignisse fehlgeschlagen", e);
+        }
+    }
+
+    /**
+     * Zuletzt veröffentlichter Änderungsstand (-1, solange der Bus nicht läuft).
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package services;
+
+import models.Reservation;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Eine Seite kommender Reservierungen, sortiert nach (Datum, ID).
+ * Die nächste Seite wird über {@link #next()} als Keyset-Cursor angefordert, nicht über einen Offset;
+ * die Kosten je Seite bleiben so unabhängig davon, wie weit bereits geblättert wurde.
+ * <p>
+ * {@link #version()} ist der Änderungsstand, der vor dem Lesen der Seite galt. Wer ab der ersten Seite
+ * mit {@link ReservationChanges} weiterarbeitet, verpasst so keine Änderung, die während des Blätterns geschah.
+ */
+public record ReservationPage(List<Reservation> reservations, Cursor next, boolean hasMore, long version) {
+
+    /**
+     * Position hinter der zuletzt gelieferten Reservierung (Datum, ID).
+     */
+    public record Cursor(LocalDate date, int id) {
+
+        /**
+         * Cursor vor der ersten kommenden Reservierung (ab heute).
+         */
+        public static Cursor start() {
+            return new Cursor(LocalDate.now(), 0);
+        }
+    }
+}
@@ -1,20 +1,67 @@
 package services;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import models.Table;
 import models.Customer;
 import models.Reservation;
+import models.TimeSlot;
+import models.WaitlistEntry;
+import monitoring.BookingEvent;
+import monitoring.MetricsRegistry;
 
 /**
  * Service-Klasse für Reservierungen. Kapselt die Geschäftslogik und nutzt DatabaseManager für DB-Operationen.
+ * Laufzeiten und Fehler der Service-Operationen landen in den Kennzahlen der Datenbank
+ * ({@link DatabaseManager#getMetrics()}, Präfix {@code service.}).
  */
 public class ReservationService {
+    private static final Logger LOGGER = Logger.getLogger(ReservationService.class.getName());
+    private static final int MAX_BUSY_RETRIES = 3;
+    // Neue Zusammenstellungen nach Tisch-Konflikten, bevor die Buchung aufgibt
+    private static final int MAX_JOIN_ATTEMPTS = 3;
     private final DatabaseManager db;
+    private final MetricsRegistry metrics;
+    // Ein virtueller Thread pro asynchronem Aufruf; blockierende JDBC-Aufrufe kosten so keinen Plattform-Thread
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReservationEventBus events;
+    private final TableAssigner assigner = new TableAssigner();
+
+    // Kennzahlen für createReservation
+    private final LongAdder bookingAttempts = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder noTableAvailable = new LongAdder();
+    private final LongAdder conflictRetries = new LongAdder();
+    private final LongAdder busyRetries = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder waitlistPromotions = new LongAdder();
+    private volatile long statisticsStart = System.nanoTime();
 
     public ReservationService(DatabaseManager dbManager) {
         this.db = dbManager;
+        this.metrics = dbManager.getMetrics();
+        this.events = new ReservationEventBus(dbManager);
+        // Über das Journal bestätigte Buchungen erst melden, wenn sie in SQLite stehen
+        dbManager.addJournalListener(events::changed);
+    }
+
+    /**
+     * Ereignisbus für angelegte, geänderte und gelöschte Reservierungen (auch von anderen Arbeitsplätzen).
+     */
+    public ReservationEventBus getEvents() {
+        return events;
     }
 
     /**
@@ -30,35 +77,262 @@ public class ReservationService {
         return (newTable != null);
     }
 
+    /**
+     * Legt eine Reservierung im Standard-Zeitfenster (18:00–20:00 Uhr) an.
+     * @see #createReservation(String, String, LocalDate, TimeSlot, int)
+     */
+    public Reservation createReservation(String name, String contact, LocalDate date, int persons) {
+        return createReservation(name, contact, date, TimeSlot.defaultSlot(), persons);
+    }
+
     /**
      * Versucht, eine neue Reservierung anzulegen. Prüft verfügbare Tische und speichert die Reservierung.
+     * Tischsuche, Kundenanlage und Reservierung laufen in einer gemeinsamen Transaktion. Ist ein
+     * Kandidat inzwischen vergeben (Eindeutigkeitsbedingung verletzt), wird automatisch der nächste
+     * passende Tisch versucht. Reicht kein einzelner Tisch, werden benachbarte Tische zusammengestellt
+     * (siehe {@link TableAssigner}).
      * @param name     Name des Kunden
      * @param contact  Kontaktinfo des Kunden
      * @param date     Reservierungsdatum
+     * @param slot     Zeitfenster (Beginn und Dauer)
      * @param persons  Anzahl der Personen
      * @return Reservation-Objekt bei Erfolg, oder null falls kein Tisch verfügbar oder Fehler auftrat
      */
-    public Reservation createReservation(String name, String contact, LocalDate date, int persons) {
-        // 1. Verfügbaren Tisch für Datum und Personenanzahl suchen
-        Table availableTable = db.findAvailableTable(date, persons);
-        if (availableTable == null) {
-            // Kein freier Tisch gefunden
-            return null;
+    public Reservation createReservation(String name, String contact, LocalDate date, TimeSlot slot, int persons) {
+        BookingEvent event = new BookingEvent();
+        event.begin();
+        Reservation reservation = metrics.time("service.createReservation",
+                () -> book(name, contact, date, slot, persons, event));
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(date, slot, persons);
+            event.success = reservation != null;
+            if (reservation != null) {
+                event.tableId = reservation.getTable().getId();
+                event.reservationId = reservation.getId();
+            }
+            event.commit();
         }
-        // 2. Kunden in DB anlegen
-        Customer customer = db.addCustomer(name, contact);
+        return reservation;
+    }
+
+    private Reservation book(String name, String contact, LocalDate date, TimeSlot slot, int persons,
+                             BookingEvent event) {
+        bookingAttempts.increment();
+        Reservation journaled = bookJournaled(contact, date, slot, persons);
+        if (journaled != null) {
+            event.attempts = 1;
+            commits.increment();
+            return journaled;
+        }
+        for (int attempt = 1; attempt <= MAX_BUSY_RETRIES; attempt++) {
+            event.attempts = attempt;
+            try {
+                Reservation reservation = db.inTransaction(connection -> bookFirstFreeTable(connection, name, contact, date, slot, persons));
+                if (reservation == null) {
+                    noTableAvailable.increment();
+                } else {
+                    commits.increment();
+                    events.changed();
+                }
+                return reservation;
+            } catch (SQLException e) {
+                if (DatabaseManager.isBusy(e) && attempt < MAX_BUSY_RETRIES) {
+                    // Datenbank wird von einem anderen Prozess gesperrt: gesamte Transaktion wiederholen
+                    busyRetries.increment();
+                    continue;
+                }
+                failures.increment();
+                metrics.error("service.createReservation");
+                LOGGER.log(Level.WARNING, "Buchung fehlgeschlagen", e);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Bucht über das Buchungsjournal ({@link DatabaseManager#isJournalActive()}): kleinster freier Tisch laut
+     * Verfügbarkeitsindex, bestätigt ohne eigene Transaktion. In Listen und Ereignissen erscheint die
+     * Reservierung erst nach der nächsten gebündelten Übernahme in SQLite. Nur für Gäste, die im Kunden-Cache
+     * stehen: neue Gäste werden in der normalen Transaktion angelegt, damit die Reservierung immer einen
+     * gespeicherten Kunden hat.
+     * @return die Reservierung, oder null wenn die Buchung den normalen Weg gehen muss (Journal aus oder voll,
+     *         Gast nicht im Cache, Tag nicht im Index, kein einzelner Tisch frei)
+     */
+    private Reservation bookJournaled(String contact, LocalDate date, TimeSlot slot, int persons) {
+        Customer customer = db.isJournalActive() ? db.findCachedCustomer(contact) : null;
         if (customer == null) {
-            // Fehler beim Speichern des Kunden
             return null;
         }
-        // 3. Reservierung in DB speichern (mit zugewiesenem Tisch und Kunde)
-        int reservationId = db.addReservation(date, persons, availableTable.getId(), customer.getId());
-        if (reservationId <= 0) {
-            // Fehler beim Speichern der Reservierung
+        List<Table> candidates = db.getAvailabilityIndex().findFreeTables(date, slot, persons);
+        if (candidates == null || candidates.isEmpty()) {
             return null;
         }
-        // 4. Reservation-Objekt erstellen und zurückgeben
-        return new Reservation(reservationId, date, persons, availableTable, customer);
+        for (Table candidate : candidates) {
+            int reservationId = db.appendToJournal(date, slot, persons, candidate.getId(), customer.getId());
+            if (reservationId > 0) {
+                return new Reservation(reservationId, date, slot, persons, candidate, customer);
+            }
+            if (reservationId == 0) {
+                return null;
+            }
+            // Inzwischen von einem anderen Thread belegt: nächster Kandidat
+            conflictRetries.increment();
+        }
+        return null;
+    }
+
+    /**
+     * Bucht innerhalb der laufenden Transaktion den ersten freien passenden Tisch (Best-Fit: kleinster zuerst)
+     * und, falls keiner frei ist, zusammengestellte Nachbartische.
+     */
+    private Reservation bookFirstFreeTable(Connection connection, String name, String contact,
+                                          LocalDate date, TimeSlot slot, int persons) throws SQLException {
+        return bookFirstFreeTable(connection, date, slot, persons,
+                current -> db.findOrCreateCustomer(current, name, contact));
+    }
+
+    /**
+     * Wie {@link #bookFirstFreeTable(Connection, String, String, LocalDate, TimeSlot, int)}, aber für einen
+     * bereits gespeicherten Kunden (z.B. von der Warteliste), der nicht erneut gesucht oder angelegt wird.
+     */
+    private Reservation bookFirstFreeTable(Connection connection, Customer customer,
+                                          LocalDate date, TimeSlot slot, int persons) throws SQLException {
+        return bookFirstFreeTable(connection, date, slot, persons, current -> customer);
+    }
+
+    /**
+     * @param resolveCustomer liefert den Kunden; wird erst aufgerufen, wenn überhaupt ein Tisch in Frage kommt
+     */
+    private Reservation bookFirstFreeTable(Connection connection, LocalDate date, TimeSlot slot, int persons,
+                                          DatabaseManager.TransactionWork<Customer> resolveCustomer)
+            throws SQLException {
+        // 1. Im Zeitfenster freie Tische suchen (kleinste zuerst, aus dem Verfügbarkeitsindex)
+        List<Table> candidates = db.findCandidateTables(connection, date, slot, persons);
+        Customer customer = null;
+        for (Table candidate : candidates) {
+            // 2. Kunden erst suchen bzw. anlegen, wenn überhaupt ein Tisch in Frage kommt
+            if (customer == null) {
+                customer = resolveCustomer.execute(connection);
+                if (customer == null) {
+                    return null;
+                }
+            }
+            // 3. Reservierung speichern; bei Konflikt den nächsten Kandidaten versuchen
+            try {
+                int reservationId = db.insertReservation(connection, date, slot, persons, candidate.getId(), customer.getId());
+                if (reservationId <= 0) {
+                    return null;
+                }
+                // 4. Reservation-Objekt erstellen und zurückgeben
+                return new Reservation(reservationId, date, slot, persons, candidate, customer);
+            } catch (TableOccupiedException e) {
+                // Tisch wurde z.B. von einem anderen Arbeitsplatz gebucht: im Index nachtragen
+                db.getAvailabilityIndex().markOccupied(date, candidate.getId(), slot);
+                conflictRetries.increment();
+            }
+        }
+        // Kein einzelner Tisch frei: benachbarte Tische zusammenstellen
+        if (customer != null) {
+            return bookJoinedTables(connection, customer, date, slot, persons);
+        }
+        return bookJoinedTables(connection, date, slot, persons, resolveCustomer);
+    }
+
+    /**
+     * Bucht innerhalb der laufenden Transaktion die kleinste passende Gruppe benachbarter freier Tische
+     * für einen bereits gespeicherten Kunden.
+     */
+    private Reservation bookJoinedTables(Connection connection, Customer customer, LocalDate date,
+                                         TimeSlot slot, int persons) throws SQLException {
+        return bookJoinedTables(connection, date, slot, persons, current -> customer);
+    }
+
+    /**
+     * Bucht innerhalb der laufenden Transaktion die kleinste passende Gruppe benachbarter freier Tische.
+     * @param resolveCustomer liefert den Kunden; wird erst aufgerufen, wenn eine passende Gruppe gefunden ist
+     */
+    private Reservation bookJoinedTables(Connection connection, LocalDate date, TimeSlot slot, int persons,
+                                         DatabaseManager.TransactionWork<Customer> resolveCustomer)
+            throws SQLException {
+        Customer customer = null;
+        for (int attempt = 0; attempt < MAX_JOIN_ATTEMPTS; attempt++) {
+            TableAssignment assignment = assigner.join(db.findFreeTables(connection, date, slot), persons);
+            if (assignment == null) {
+                return null;
+            }
+            if (customer == null) {
+                customer = resolveCustomer.execute(connection);
+                if (customer == null) {
+                    return null;
+                }
+            }
+            try {
+                List<Integer> tableIds = assignment.tables().stream().map(Table::getId).toList();
+                int reservationId = db.insertReservation(connection, date, slot, persons, tableIds, customer.getId());
+                if (reservationId <= 0) {
+                    return null;
+                }
+                return new Reservation(reservationId, date, slot, persons, assignment.primary(), assignment.joined(),
+                        customer);
+            } catch (TableOccupiedException e) {
+                db.getAvailabilityIndex().markOccupied(date, e.getTableId(), slot);
+                conflictRetries.increment();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Liefert die Buchungskennzahlen seit Start (bzw. seit dem letzten {@link #resetBookingStatistics()}).
+     */
+    public BookingStatistics getBookingStatistics() {
+        return new BookingStatistics(
+                bookingAttempts.sum(),
+                commits.sum(),
+                noTableAvailable.sum(),
+                conflictRetries.sum(),
+                busyRetries.sum(),
+                failures.sum(),
+                System.nanoTime() - statisticsStart
+        );
+    }
+
+    /**
+     * Setzt die Buchungskennzahlen zurück, z.B. vor einem Lasttest.
+     */
+    public void resetBookingStatistics() {
+        bookingAttempts.reset();
+        commits.reset();
+        noTableAvailable.reset();
+        conflictRetries.reset();
+        busyRetries.reset();
+        failures.reset();
+        statisticsStart = System.nanoTime();
+    }
+
+    /**
+     * Momentaufnahme der Buchungskennzahlen.
+     */
+    public record BookingStatistics(long attempts,
+                                    long commits,
+                                    long noTableAvailable,
+                                    long conflictRetries,
+                                    long busyRetries,
+                                    long failures,
+                                    long elapsedNanos) {
+
+        public double commitsPerSecond() {
+            return elapsedNanos == 0 ? 0 : commits * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Buchungen[Versuche=%d, Commits=%d (%.1f/s), kein Tisch=%d, "
+                            + "Konflikt-Wiederholungen=%d, Sperr-Wiederholungen=%d, Fehler=%d]",
+                    attempts, commits, commitsPerSecond(), noTableAvailable, conflictRetries, busyRetries, failures);
+        }
     }
 
     /**
@@ -68,10 +342,334 @@ public class ReservationService {
     public List<Reservation> getUpcomingReservations() {
         return db.getUpcomingReservations();
     }
+
+    /**
+     * Ruft eine Seite zukünftiger Reservierungen ab (Keyset-Paginierung über Datum und ID).
+     * @param after Position hinter der zuletzt geladenen Reservierung
+     * @param limit maximale Anzahl Reservierungen
+     * @return Seite mit Reservierungen und Cursor für die nächste Seite
+     */
+    public ReservationPage getUpcomingReservations(ReservationPage.Cursor after, int limit) {
+        return db.getUpcomingReservations(after, limit);
+    }
+
+    /**
+     * Wie {@link #getUpcomingReservations(ReservationPage.Cursor, int)}, aber nur Reservierungen der
+     * angegebenen Kunden; gefiltert wird in der Datenbank, sodass auch bei aktiver Suche seitenweise geladen wird.
+     * @param customerIds IDs der Kunden (z.B. aus {@link #searchCustomerIds(String)}), oder null für alle
+     */
+    public ReservationPage getUpcomingReservations(ReservationPage.Cursor after, int limit, BitSet customerIds) {
+        return db.getUpcomingReservations(after, limit, customerIds);
+    }
+
+    /**
+     * Liefert die seit dem Änderungsstand angelegten, geänderten und gelöschten kommenden Reservierungen.
+     * Den Ausgangsstand liefert {@link ReservationPage#version()} der ersten geladenen Seite.
+     * @param sinceVersion zuletzt übernommener Stand
+     * @return die Änderungen samt neuem Stand
+     */
+    public ReservationChanges getChangesSince(long sinceVersion) {
+        return db.getChangesSince(sinceVersion);
+    }
+
+    /**
+     * Sofortsuche über Kundenname und Kontakt (Präfixe, mehrere Wörter werden verknüpft).
+     * @param query Sucheingabe
+     * @param limit maximale Anzahl Treffer
+     * @return passende Kunden
+     */
+    public List<Customer> searchCustomers(String query, int limit) {
+        return metrics.time("service.searchCustomers", () -> db.getCustomerIndex().search(query, limit));
+    }
+
+    /**
+     * Wie {@link #searchCustomers(String, int)}, liefert aber die IDs aller passenden Kunden,
+     * z.B. zum Filtern einer Reservierungsliste.
+     */
+    public BitSet searchCustomerIds(String query) {
+        return metrics.time("service.searchCustomerIds", () -> db.getCustomerIndex().searchIds(query));
+    }
+
+    /**
+     * Durchläuft alle zukünftigen Reservierungen, ohne mehr als eine Seite im Speicher zu halten.
+     * @param pageSize Anzahl Reservierungen je nachgeladener Seite
+     */
+    public Iterator<Reservation> iterateUpcomingReservations(int pageSize) {
+        return db.iterateUpcomingReservations(pageSize);
+    }
+
+    /**
+     * Prüft, ob für die Personenzahl im Zeitfenster ein Tisch frei ist (ohne zu buchen).
+     * Für Tage im Verfügbarkeitsindex kommt die Antwort ohne Datenbankzugriff aus dem Speicher.
+     * @return der kleinste passende freie Tisch, oder null wenn keiner frei ist
+     */
+    public Table findAvailableTable(LocalDate date, TimeSlot slot, int persons) {
+        return db.findAvailableTable(date, slot, persons);
+    }
+
+    /**
+     * Wie {@link #findAvailableTable}, stellt aber für große Gruppen auch benachbarte Tische zusammen
+     * (ohne zu buchen).
+     * @return die kleinste passende Zuordnung, oder null wenn die Gruppe nirgends Platz hat
+     */
+    public TableAssignment findTableAssignment(LocalDate date, TimeSlot slot, int persons) {
+        Table table = db.findAvailableTable(date, slot, persons);
+        if (table != null) {
+            return new TableAssignment(List.of(table));
+        }
+        return assigner.join(db.findFreeTables(date, slot), persons);
+    }
+
+    /**
+     * Verteilt die Reservierungen eines Tages neu auf die Tische, sodass möglichst wenige Plätze leer
+     * bleiben (z.B. abends vor dem Service, um große Tische für spontane Gruppen frei zu bekommen).
+     * @param apply true: Plan übernehmen, sofern er vollständig ist und die Platzauslastung nicht sinkt
+     * @return der Plan mit Platzauslastung vorher und nachher, oder null bei Fehler
+     */
+    public AssignmentPlan optimizeDay(LocalDate date, boolean apply) {
+        return metrics.time("service.optimizeDay", () -> {
+            AssignmentPlan plan = db.optimizeDay(date, assigner, apply);
+            if (plan != null) {
+                boolean applied = apply && plan.isWorthApplying();
+                LOGGER.info(plan + (applied ? " (übernommen)" : ""));
+                if (applied) {
+                    events.changed();
+                }
+            }
+            return plan;
+        });
+    }
+
+    /**
+     * Auslastung des Restaurants an einem Tag.
+     * @return die Auslastung, oder null bei Fehler
+     */
+    public Occupancy getOccupancy(LocalDate date) {
+        return db.getOccupancy(date);
+    }
     
+    /**
+     * Löscht eine Reservierung. In derselben Transaktion rücken wartende Gruppen, deren Zeitfenster sich mit
+     * dem frei gewordenen überschneidet, in der Reihenfolge der Warteliste nach, solange passende Tische frei sind.
+     * @return true, wenn die Reservierung gelöscht wurde
+     */
     public boolean deleteReservation(int reservationId) {
-        // SQL-Statement für das Löschen vorbereiten und ausführen
-        // z.B.: "DELETE FROM reservations WHERE id = ?"
-        return db.deleteReservation(reservationId);
+        return metrics.time("service.deleteReservation", () -> {
+            List<Reservation> promoted = new ArrayList<>();
+            boolean deleted;
+            try {
+                deleted = db.inTransaction(connection -> {
+                    promoted.clear();
+                    DatabaseManager.FreedSlot freed = db.deleteReservation(connection, reservationId);
+                    if (freed == null) {
+                        return false;
+                    }
+                    promoted.addAll(promoteWaitlist(connection, freed.date(), freed.slot()));
+                    return true;
+                });
+            } catch (SQLException e) {
+                metrics.error("service.deleteReservation");
+                LOGGER.log(Level.WARNING, "Löschen der Reservierung " + reservationId + " fehlgeschlagen", e);
+                return false;
+            }
+            if (deleted) {
+                for (Reservation reservation : promoted) {
+                    LOGGER.info("Von der Warteliste nachgerückt: " + reservation.getName() + ", "
+                            + reservation.getDate() + " " + reservation.getSlot() + ", Tisch " + reservation.getTableNumbers());
+                }
+                waitlistPromotions.add(promoted.size());
+                events.changed();
+            }
+            return deleted;
+        });
+    }
+
+    /**
+     * Bucht innerhalb der laufenden Transaktion wartende Gruppen auf frei gewordene Tische
+     * (wie eine normale Buchung: kleinster passender Tisch, sonst zusammengestellte Nachbartische).
+     * @return die neuen Reservierungen
+     */
+    private List<Reservation> promoteWaitlist(Connection connection, LocalDate date, TimeSlot freed)
+            throws SQLException {
+        List<Reservation> promoted = new ArrayList<>();
+        for (WaitlistEntry entry : db.findWaitlistCandidates(connection, date, freed)) {
+            // Der Kunde steht schon in der Warteliste: nicht erneut über den Kontakt suchen oder anlegen
+            Reservation reservation = bookFirstFreeTable(connection, entry.getCustomer(), date, entry.getSlot(),
+                    entry.getPersons());
+            if (reservation != null) {
+                db.markPromoted(connection, entry.getId(), reservation.getId());
+                promoted.add(reservation);
+            }
+        }
+        return promoted;
+    }
+
+    /**
+     * Setzt eine Gruppe auf die Warteliste, z.B. wenn {@link #createReservation} keinen Tisch gefunden hat.
+     * Sie rückt automatisch nach, sobald eine passende Reservierung storniert wird.
+     * @return der Eintrag, oder null bei Fehler
+     */
+    public WaitlistEntry joinWaitlist(String name, String contact, LocalDate date, TimeSlot slot, int persons) {
+        return metrics.time("service.joinWaitlist", () -> db.addWaitlistEntry(name, contact, date, slot, persons));
+    }
+
+    /**
+     * Wartende Gruppen eines Tages in der Reihenfolge, in der sie nachrücken
+     * (Zeitpunkt der Anfrage, bei Gleichstand die größere Gruppe zuerst).
+     */
+    public List<WaitlistEntry> getWaitlist(LocalDate date) {
+        return db.getWaitlist(date);
+    }
+
+    /**
+     * Nimmt eine wartende Gruppe von der Warteliste.
+     * @return true, wenn der Eintrag noch gewartet hat und entfernt wurde
+     */
+    public boolean leaveWaitlist(int entryId) {
+        return db.removeWaitlistEntry(entryId);
+    }
+
+    /**
+     * Anzahl der seit Start von der Warteliste nachgerückten Gruppen.
+     */
+    public long getWaitlistPromotions() {
+        return waitlistPromotions.sum();
+    }
+
+    // ------------------------------------------------------------------
+    // Asynchrone Varianten: laufen auf virtuellen Threads, damit der
+    // Swing-EDT nie auf SQLite wartet. Ergebnisse auf dem EDT weiterverarbeiten,
+    // z.B. mit thenAcceptAsync(..., UIHelper.EDT).
+    // ------------------------------------------------------------------
+
+    /**
+     * Asynchrone Variante von {@link #addNewTable(int)}.
+     */
+    public CompletableFuture<Boolean> addNewTableAsync(int capacity) {
+        return CompletableFuture.supplyAsync(() -> addNewTable(capacity), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #createReservation(String, String, LocalDate, int)}.
+     */
+    public CompletableFuture<Reservation> createReservationAsync(String name, String contact, LocalDate date, int persons) {
+        return CompletableFuture.supplyAsync(() -> createReservation(name, contact, date, persons), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #createReservation(String, String, LocalDate, TimeSlot, int)}.
+     */
+    public CompletableFuture<Reservation> createReservationAsync(String name, String contact, LocalDate date,
+                                                                 TimeSlot slot, int persons) {
+        return CompletableFuture.supplyAsync(() -> createReservation(name, contact, date, slot, persons), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #joinWaitlist(String, String, LocalDate, TimeSlot, int)}.
+     */
+    public CompletableFuture<WaitlistEntry> joinWaitlistAsync(String name, String contact, LocalDate date,
+                                                              TimeSlot slot, int persons) {
+        return CompletableFuture.supplyAsync(() -> joinWaitlist(name, contact, date, slot, persons), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #getWaitlist(LocalDate)}.
+     */
+    public CompletableFuture<List<WaitlistEntry>> getWaitlistAsync(LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> getWaitlist(date), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #leaveWaitlist(int)}.
+     */
+    public CompletableFuture<Boolean> leaveWaitlistAsync(int entryId) {
+        return CompletableFuture.supplyAsync(() -> leaveWaitlist(entryId), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #getUpcomingReservations()}.
+     */
+    public CompletableFuture<List<Reservation>> getUpcomingReservationsAsync() {
+        return CompletableFuture.supplyAsync(this::getUpcomingReservations, executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #getUpcomingReservations(ReservationPage.Cursor, int)}.
+     */
+    public CompletableFuture<ReservationPage> getUpcomingReservationsAsync(ReservationPage.Cursor after, int limit) {
+        return CompletableFuture.supplyAsync(() -> getUpcomingReservations(after, limit), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #getUpcomingReservations(ReservationPage.Cursor, int, BitSet)}.
+     */
+    public CompletableFuture<ReservationPage> getUpcomingReservationsAsync(ReservationPage.Cursor after, int limit,
+                                                                          BitSet customerIds) {
+        return CompletableFuture.supplyAsync(() -> getUpcomingReservations(after, limit, customerIds), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #getChangesSince(long)}.
+     */
+    public CompletableFuture<ReservationChanges> getChangesSinceAsync(long sinceVersion) {
+        return CompletableFuture.supplyAsync(() -> getChangesSince(sinceVersion), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #searchCustomers(String, int)}.
+     */
+    public CompletableFuture<List<Customer>> searchCustomersAsync(String query, int limit) {
+        return CompletableFuture.supplyAsync(() -> searchCustomers(query, limit), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #searchCustomerIds(String)}.
+     */
+    public CompletableFuture<BitSet> searchCustomerIdsAsync(String query) {
+        return CompletableFuture.supplyAsync(() -> searchCustomerIds(query), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #findAvailableTable(LocalDate, TimeSlot, int)}.
+     */
+    public CompletableFuture<Table> findAvailableTableAsync(LocalDate date, TimeSlot slot, int persons) {
+        return CompletableFuture.supplyAsync(() -> findAvailableTable(date, slot, persons), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #findTableAssignment(LocalDate, TimeSlot, int)}.
+     */
+    public CompletableFuture<TableAssignment> findTableAssignmentAsync(LocalDate date, TimeSlot slot, int persons) {
+        return CompletableFuture.supplyAsync(() -> findTableAssignment(date, slot, persons), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #optimizeDay(LocalDate, boolean)}.
+     */
+    public CompletableFuture<AssignmentPlan> optimizeDayAsync(LocalDate date, boolean apply) {
+        return CompletableFuture.supplyAsync(() -> optimizeDay(date, apply), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #getOccupancy(LocalDate)}.
+     */
+    public CompletableFuture<Occupancy> getOccupancyAsync(LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> getOccupancy(date), executor);
+    }
+
+    /**
+     * Asynchrone Variante von {@link #deleteReservation(int)}.
+     */
+    public CompletableFuture<Boolean> deleteReservationAsync(int reservationId) {
+        return CompletableFuture.supplyAsync(() -> deleteReservation(reservationId), executor);
+    }
+
+    /**
+     * Beendet den Ereignisbus und den Executor der asynchronen Methoden; bereits gestartete Aufgaben
+     * laufen noch zu Ende.
+     */
+    public void shutdown() {
+        events.shutdown();
+        executor.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,352 @@
+package services;
+
+import models.Customer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Versionierte Schema-Migrationen für die SQLite-Datenbank.
+ * Die aktuelle Version steht in der Tabelle {@code schema_version}; beim Start werden alle
+ * noch fehlenden Migrationen der Reihe nach in jeweils einer eigenen Transaktion ausgeführt.
+ * Neue Schemaänderungen werden ausschließlich als weitere Migration am Ende von {@link #MIGRATIONS} ergänzt.
+ */
+public class SchemaMigrator {
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+
+    /**
+     * Einzelner Migrationsschritt. Läuft innerhalb der Transaktion der jeweiligen Migration.
+     */
+    @FunctionalInterface
+    public interface MigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Eine Migration mit fortlaufender Versionsnummer.
+     */
+    public record Migration(int version, String description, MigrationStep step) {
+
+        /**
+         * Migration, die lediglich die angegebenen SQL-Anweisungen ausführt.
+         */
+        public static Migration ofSql(int version, String description, String... statements) {
+            return new Migration(version, description, connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    for (String sql : statements) {
+                        stmt.execute(sql);
+                    }
+                }
+            });
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            // Version 1: Grundschema (entspricht dem bisherigen createTables, daher "IF NOT EXISTS")
+            Migration.ofSql(1, "Grundschema: tables, customers, reservations",
+                    "CREATE TABLE IF NOT EXISTS tables ("
+                            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                            + "capacity INTEGER"
+                            + ")",
+                    "CREATE TABLE IF NOT EXISTS customers ("
+                            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                            + "name TEXT,"
+                            + "contact TEXT"
+                            + ")",
+                    "CREATE TABLE IF NOT EXISTS reservations ("
+                            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                            + "date TEXT,"
+                            + "persons INTEGER,"
+                            + "table_id INTEGER,"
+                            + "customer_id INTEGER,"
+                            + "FOREIGN KEY(table_id) REFERENCES tables(id),"
+                            + "FOREIGN KEY(customer_id) REFERENCES customers(id)"
+                            + ")"),
+
+            // Version 2: Indizes für die Verfügbarkeitsprüfung und die Übersicht der kommenden Reservierungen
+            Migration.ofSql(2, "Indizes auf reservations (date, table_id, customer_id)",
+                    // findAvailableTable: "SELECT table_id FROM reservations WHERE date = ?" wird rein aus dem Index beantwortet
+                    "CREATE INDEX IF NOT EXISTS idx_reservations_date_table ON reservations(date, table_id)",
+                    // getUpcomingReservations: Bereichsscan über date, bereits nach (date, id) sortiert und abdeckend
+                    "CREATE INDEX IF NOT EXISTS idx_reservations_upcoming "
+                            + "ON reservations(date, id, table_id, customer_id, persons)",
+                    // Join- und Löschpfade über den Kunden
+                    "CREATE INDEX IF NOT EXISTS idx_reservations_customer ON reservations(customer_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_tables_capacity ON tables(capacity, id)",
+                    // Statistiken für den Query-Planer aktualisieren
+                    "ANALYZE"),
+
+            // Version 3: Zeitfenster je Reservierung und Eindeutigkeit (Tisch, Datum, Zeitfenster)
+            new Migration(3, "Zeitfenster und Eindeutigkeit pro Tisch/Datum/Zeitfenster", connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    // Bisherige Reservierungen lagen alle auf 18:00 Uhr (Index 36 in 30-Minuten-Schritten)
+                    stmt.execute("ALTER TABLE reservations ADD COLUMN slot INTEGER NOT NULL DEFAULT 36");
+                    requireNoDoubleBookings(stmt);
+                    stmt.execute("CREATE UNIQUE INDEX ux_reservations_table_date_slot "
+                            + "ON reservations(table_id, date, slot)");
+                    // Verfügbarkeitsprüfung filtert jetzt zusätzlich nach slot
+                    stmt.execute("DROP INDEX IF EXISTS idx_reservations_date_table");
+                    stmt.execute("CREATE INDEX idx_reservations_date_slot_table ON reservations(date, slot, table_id)");
+                }
+            }),
+
+            // Version 4: Dauer je Reservierung (in 30-Minuten-Fenstern), damit Tische mehrfach pro Abend belegt werden können
+            Migration.ofSql(4, "Reservierungsdauer für überlappungsfreie Zeitfenster",
+                    // Bisher blockierte eine Reservierung den Tisch ab 18:00 Uhr; 2 Stunden als Standard
+                    "ALTER TABLE reservations ADD COLUMN duration INTEGER NOT NULL DEFAULT 4",
+                    // Übersicht lädt nun auch Zeitfenster und Dauer: abdeckenden Index erweitern
+                    "DROP INDEX IF EXISTS idx_reservations_upcoming",
+                    "CREATE INDEX idx_reservations_upcoming "
+                            + "ON reservations(date, id, table_id, customer_id, persons, slot, duration)",
+                    // Überlappungsprüfung der Verfügbarkeitssuche: date = ? AND slot < ?, Dauer und Tisch aus dem Index
+                    "DROP INDEX IF EXISTS idx_reservations_date_slot_table",
+                    "CREATE INDEX idx_reservations_date_slot_table ON reservations(date, slot, duration, table_id)"),
+
+            // Version 5: ein Kunde je normalisiertem Kontakt (bestehende Dubletten werden zusammengeführt)
+            new Migration(5, "Eindeutige Kunden je normalisiertem Kontakt", SchemaMigrator::deduplicateCustomers),
+
+            // Version 6: Änderungsstand je Reservierung und Protokoll gelöschter Reservierungen,
+            // damit Ansichten nur die Änderungen seit ihrem letzten Stand nachladen müssen
+            Migration.ofSql(6, "Änderungsversionen und Löschprotokoll für Reservierungen",
+                    // Globaler, monoton steigender Zähler (genau eine Zeile)
+                    "CREATE TABLE change_state ("
+                            + "id INTEGER PRIMARY KEY CHECK (id = 1),"
+                            + "version INTEGER NOT NULL"
+                            + ")",
+                    "INSERT INTO change_state (id, version) VALUES (1, 0)",
+                    // Bestehende Reservierungen gelten als Stand 0 (sind in jedem vollständigen Laden enthalten)
+                    "ALTER TABLE reservations ADD COLUMN version INTEGER NOT NULL DEFAULT 0",
+                    "CREATE INDEX idx_reservations_version ON reservations(version)",
+                    "CREATE TABLE reservation_deletions ("
+                            + "version INTEGER PRIMARY KEY,"
+                            + "reservation_id INTEGER NOT NULL,"
+                            + "date TEXT NOT NULL"
+                            + ")",
+                    // Die Trigger vergeben die Versionen in der Schreibtransaktion; da es nur einen Schreiber gibt,
+                    // ist die Reihenfolge der Versionen die Reihenfolge der Commits
+                    "CREATE TRIGGER trg_reservations_insert_version AFTER INSERT ON reservations BEGIN "
+                            + "UPDATE change_state SET version = version + 1; "
+                            + "UPDATE reservations SET version = (SELECT version FROM change_state) WHERE id = NEW.id; "
+                            + "END",
+                    "CREATE TRIGGER trg_reservations_update_version "
+                            + "AFTER UPDATE OF date, slot, duration, persons, table_id, customer_id ON reservations BEGIN "
+                            + "UPDATE change_state SET version = version + 1; "
+                            + "UPDATE reservations SET version = (SELECT version FROM change_state) WHERE id = NEW.id; "
+                            + "END",
+                    "CREATE TRIGGER trg_reservations_delete_log AFTER DELETE ON reservations BEGIN "
+                            + "UPDATE change_state SET version = version + 1; "
+                            + "INSERT INTO reservation_deletions (version, reservation_id, date) "
+                            + "VALUES ((SELECT version FROM change_state), OLD.id, OLD.date); "
+                            + "END"),
+
+            // Version 7: Aufstellung der Tische und zusammengestellte Tische für größere Gruppen
+            Migration.ofSql(7, "Tischaufstellung und zusammengestellte Tische",
+                    // Bestehende Tische stehen in einer Reihe im Saal, in der Reihenfolge ihrer Anlage
+                    "ALTER TABLE tables ADD COLUMN area TEXT NOT NULL DEFAULT 'Saal'",
+                    "ALTER TABLE tables ADD COLUMN position INTEGER NOT NULL DEFAULT 0",
+                    "UPDATE tables SET position = id",
+                    // Nur die dazugestellten Tische; der Haupttisch bleibt reservations.table_id.
+                    // Datum und Zeitfenster sind kopiert, damit die Überlappungsprüfung ohne Join auskommt
+                    "CREATE TABLE reservation_tables ("
+                            + "reservation_id INTEGER NOT NULL,"
+                            + "table_id INTEGER NOT NULL,"
+                            + "date TEXT NOT NULL,"
+                            + "slot INTEGER NOT NULL,"
+                            + "duration INTEGER NOT NULL,"
+                            + "PRIMARY KEY (reservation_id, table_id)"
+                            + ")",
+                    "CREATE UNIQUE INDEX ux_reservation_tables_table_date_slot ON reservation_tables(table_id, date, slot)",
+                    "CREATE INDEX idx_reservation_tables_date_slot_table ON reservation_tables(date, slot, duration, table_id)",
+                    "CREATE TRIGGER trg_reservations_delete_tables AFTER DELETE ON reservations BEGIN "
+                            + "DELETE FROM reservation_tables WHERE reservation_id = OLD.id; "
+                            + "END"),
+
+            // Version 8: Warteliste je Tag; nachgerückte Einträge behalten die ID ihrer Reservierung
+            Migration.ofSql(8, "Warteliste",
+                    "CREATE TABLE waitlist ("
+                            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                            + "date TEXT NOT NULL,"
+                            + "slot INTEGER NOT NULL,"
+                            + "duration INTEGER NOT NULL,"
+                            + "persons INTEGER NOT NULL,"
+                            + "customer_id INTEGER NOT NULL,"
+                            // Millisekunden seit 1970 (UTC), damit die Reihenfolge nicht vom Textformat abhängt
+                            + "requested_at INTEGER NOT NULL,"
+                            + "reservation_id INTEGER,"
+                            + "FOREIGN KEY (customer_id) REFERENCES customers(id)"
+                            + ")",
+                    // Nur wartende Einträge, in der Reihenfolge des Nachrückens
+                    "CREATE INDEX idx_waitlist_pending ON waitlist(date, requested_at, persons) "
+                            + "WHERE reservation_id IS NULL"),
+
+            // Version 9: bestätigte Buchungen aus dem Journal, die sich nicht übernehmen ließen (siehe BookingJournal)
+            Migration.ofSql(9, "Quarantäne für Buchungen aus dem Journal",
+                    "CREATE TABLE journal_quarantine ("
+                            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                            + "reservation_id INTEGER NOT NULL,"
+                            + "date TEXT NOT NULL,"
+                            + "slot INTEGER NOT NULL,"
+                            + "duration INTEGER NOT NULL,"
+                            + "persons INTEGER NOT NULL,"
+                            + "table_id INTEGER NOT NULL,"
+                            + "customer_id INTEGER NOT NULL,"
+                            + "reason TEXT NOT NULL,"
+                            // Millisekunden seit 1970 (UTC), wie waitlist.requested_at
+                            + "quarantined_at INTEGER NOT NULL"
+                            + ")")
+    );
+
+    /**
+     * Füllt customers.contact_key, hängt Reservierungen doppelter Kunden auf den ältesten Datensatz um
+     * (mit dem zuletzt verwendeten Namen) und löscht die Dubletten. Danach wird der Schlüssel eindeutig.
+     */
+    private static void deduplicateCustomers(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE customers ADD COLUMN contact_key TEXT");
+        }
+        // Schlüssel -> älteste (überlebende) ID, Überlebender -> zuletzt verwendeter Name, Dublette -> Überlebender
+        Map<String, Integer> survivorByKey = new HashMap<>();
+        Map<Integer, String> latestName = new HashMap<>();
+        Map<Integer, Integer> duplicates = new LinkedHashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name, contact FROM customers ORDER BY id");
+             PreparedStatement setKey = connection.prepareStatement("UPDATE customers SET contact_key = ? WHERE id = ?")) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                String key = Customer.normalizeContact(rs.getString("contact"));
+                if (key == null) {
+                    continue;
+                }
+                Integer survivor = survivorByKey.putIfAbsent(key, id);
+                if (survivor == null) {
+                    setKey.setString(1, key);
+                    setKey.setInt(2, id);
+                    setKey.executeUpdate();
+                    latestName.put(id, rs.getString("name"));
+                } else {
+                    duplicates.put(id, survivor);
+                    latestName.put(survivor, rs.getString("name"));
+                }
+            }
+        }
+        try (PreparedStatement moveReservations = connection.prepareStatement(
+                     "UPDATE reservations SET customer_id = ? WHERE customer_id = ?");
+             PreparedStatement deleteCustomer = connection.prepareStatement("DELETE FROM customers WHERE id = ?");
+             PreparedStatement rename = connection.prepareStatement("UPDATE customers SET name = ? WHERE id = ?")) {
+            for (Map.Entry<Integer, Integer> duplicate : duplicates.entrySet()) {
+                moveReservations.setInt(1, duplicate.getValue());
+                moveReservations.setInt(2, duplicate.getKey());
+                moveReservations.executeUpdate();
+                deleteCustomer.setInt(1, duplicate.getKey());
+                deleteCustomer.executeUpdate();
+            }
+            for (Integer survivor : new HashSet<>(duplicates.values())) {
+                rename.setString(1, latestName.get(survivor));
+                rename.setInt(2, survivor);
+                rename.executeUpdate();
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE UNIQUE INDEX ux_customers_contact_key ON customers(contact_key)");
+        }
+        if (!duplicates.isEmpty()) {
+            LOGGER.info(duplicates.size() + " doppelte Kundendatensätze zusammengeführt.");
+        }
+    }
+
+    /**
+     * Bricht die Migration ab, wenn bereits doppelt vergebene Tische existieren. Diese müssen
+     * zuerst von Hand aufgelöst werden, da sonst der eindeutige Index nicht angelegt werden kann.
+     */
+    private static void requireNoDoubleBookings(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT table_id, date, slot, GROUP_CONCAT(id) AS ids FROM reservations "
+                        + "GROUP BY table_id, date, slot HAVING COUNT(*) > 1")) {
+            StringBuilder conflicts = new StringBuilder();
+            while (rs.next()) {
+                conflicts.append(String.format("%n  Tisch %d am %s: Reservierungen %s",
+                        rs.getInt("table_id"), rs.getString("date"), rs.getString("ids")));
+            }
+            if (conflicts.length() > 0) {
+                throw new SQLException("Doppelt vergebene Tische gefunden, bitte zuerst bereinigen:" + conflicts);
+            }
+        }
+    }
+
+    /**
+     * Bringt das Schema auf den neuesten Stand.
+     * @param connection Schreibverbindung (wird für die Dauer der Migration exklusiv benötigt)
+     * @return die Schemaversion nach der Migration
+     */
+    public int migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INTEGER PRIMARY KEY,"
+                    + "description TEXT,"
+                    + "applied_at TEXT"
+                    + ")");
+        }
+
+        int current = currentVersion(connection);
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() <= current) {
+                continue;
+            }
+            apply(connection, migration);
+            current = migration.version();
+        }
+        return current;
+    }
+
+    /**
+     * Liest die aktuell installierte Schemaversion (0, wenn noch keine Migration gelaufen ist).
+     */
+    public int currentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Höchste bekannte Schemaversion dieser Programmversion.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            migration.step().apply(connection);
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                pstmt.setInt(1, migration.version());
+                pstmt.setString(2, migration.description());
+                pstmt.setString(3, LocalDateTime.now().toString());
+                pstmt.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Migration " + migration.version() + " (" + migration.description()
+                    + ") fehlgeschlagen: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        LOGGER.info(String.format("Schema-Migration %d angewendet: %s (%.1f ms)",
+                migration.version(), migration.description(), (System.nanoTime() - start) / 1_000_000.0));
+    }
+}
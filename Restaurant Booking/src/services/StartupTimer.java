@@ -0,0 +1,53 @@
+package services;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Misst die Phasen des Programmstarts und schreibt sie ins Log.
+ * Zu jeder Phase wird ihre Dauer und die Zeit seit Start der JVM ausgegeben, so dass sich
+ * z.B. die Zeit bis zum ersten Zeichnen des Fensters über mehrere Versionen vergleichen lässt.
+ * Phasen dürfen parallel in verschiedenen Threads laufen.
+ */
+public class StartupTimer {
+    private static final Logger LOGGER = Logger.getLogger(StartupTimer.class.getName());
+
+    /**
+     * Führt eine Phase aus und protokolliert ihre Dauer.
+     */
+    public void time(String phase, Runnable work) {
+        time(phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Führt eine Phase mit Ergebnis aus und protokolliert ihre Dauer (auch wenn sie fehlschlägt).
+     */
+    public <T> T time(String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            T result = work.get();
+            completed = true;
+            return result;
+        } finally {
+            LOGGER.info(String.format("Start: %s %s nach %.1f ms (seit JVM-Start %d ms, Thread %s)",
+                    phase, completed ? "fertig" : "fehlgeschlagen", (System.nanoTime() - start) / 1_000_000.0,
+                    uptimeMillis(), Thread.currentThread().getName()));
+        }
+    }
+
+    /**
+     * Protokolliert einen Meilenstein ohne eigene Dauer (z.B. "Fenster erstmals gezeichnet").
+     */
+    public void mark(String milestone) {
+        LOGGER.info(String.format("Start: %s (seit JVM-Start %d ms)", milestone, uptimeMillis()));
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,94 @@
+package services;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Cache vorbereiteter Anweisungen für genau eine Verbindung. Der DatabaseManager verwendet einen
+ * festen Satz an SQL-Texten; jeder davon wird pro Verbindung nur einmal geparst und geplant.
+ * <p>
+ * Die Anweisungen gehören dem Cache und dürfen vom Aufrufer nicht geschlossen werden (ResultSets
+ * dagegen schon). Da eine Verbindung immer nur von einem Thread gleichzeitig geliehen wird,
+ * ist keine Synchronisation nötig.
+ */
+class StatementCache implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+    /** Obergrenze, falls doch einmal dynamisches SQL durch den Cache läuft */
+    static final int MAX_STATEMENTS = 64;
+
+    private final Connection connection;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > MAX_STATEMENTS) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @param hits   gemeinsamer Trefferzähler (über alle Verbindungen des Pools)
+     * @param misses gemeinsamer Fehlzähler (über alle Verbindungen des Pools)
+     */
+    StatementCache(Connection connection, LongAdder hits, LongAdder misses) {
+        this.connection = connection;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Liefert die vorbereitete Anweisung für den SQL-Text (aus dem Cache oder neu vorbereitet).
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Wie {@link #prepare(String)}, mit Angabe, ob generierte Schlüssel abgefragt werden sollen.
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        PreparedStatement statement = statements.get(key);
+        if (statement != null && !statement.isClosed()) {
+            hits.increment();
+            statement.clearParameters();
+            return statement;
+        }
+        misses.increment();
+        statement = connection.prepareStatement(sql, autoGeneratedKeys);
+        statements.put(key, statement);
+        return statement;
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    @Override
+    public void close() {
+        Iterator<PreparedStatement> it = statements.values().iterator();
+        while (it.hasNext()) {
+            closeQuietly(it.next());
+            it.remove();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.warning("Vorbereitete Anweisung konnte nicht geschlossen werden: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package services;
+
+import models.Reservation;
+import models.Table;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordnet Gruppen Tischen zu, sodass möglichst wenige Plätze leer bleiben.
+ * <ul>
+ *   <li>Einzeltisch nach Best-Fit: der kleinste freie Tisch, an dem die Gruppe Platz hat.</li>
+ *   <li>Passt kein einzelner Tisch, werden benachbarte Tische (gleicher Bereich, aufeinanderfolgende
+ *       Position, siehe {@link Table#isAdjacentTo(Table)}) zusammengestellt: höchstens
+ *       {@code restaurant.tables.maxJoined} Tische (Default 3), mit den wenigsten Plätzen insgesamt.</li>
+ *   <li>{@link #optimize} verteilt alle Reservierungen eines Tages neu (Best-Fit-Decreasing: große Gruppen
+ *       zuerst) und meldet die Platzauslastung vorher und nachher. Keine Gruppe wird dabei an mehr Plätze
+ *       gesetzt als bisher, damit große Tische für große Gruppen frei bleiben.</li>
+ * </ul>
+ * Die Klasse arbeitet nur auf übergebenen Daten und hat keinen Zustand außer ihrer Einstellung.
+ */
+public class TableAssigner {
+    public static final int DEFAULT_MAX_JOINED_TABLES = 3;
+
+    private final int maxJoinedTables;
+
+    public TableAssigner() {
+        this(Integer.getInteger("restaurant.tables.maxJoined", DEFAULT_MAX_JOINED_TABLES));
+    }
+
+    /**
+     * @param maxJoinedTables höchstens so viele Tische werden zusammengestellt (1 = nie zusammenstellen)
+     */
+    public TableAssigner(int maxJoinedTables) {
+        this.maxJoinedTables = Math.max(1, maxJoinedTables);
+    }
+
+    /**
+     * Wählt unter den freien Tischen den kleinsten passenden Einzeltisch oder, falls keiner reicht,
+     * die kleinste passende Gruppe benachbarter Tische.
+     * @param freeTables im gewünschten Zeitfenster freie Tische (beliebige Reihenfolge, mit Aufstellung)
+     * @return die Zuordnung, oder null wenn die Gruppe nirgends Platz hat
+     */
+    public TableAssignment assign(Collection<Table> freeTables, int persons) {
+        Table single = null;
+        for (Table table : freeTables) {
+            if (table.getCapacity() >= persons && (single == null
+                    || table.getCapacity() < single.getCapacity()
+                    || table.getCapacity() == single.getCapacity() && table.getId() < single.getId())) {
+                single = table;
+            }
+        }
+        if (single != null) {
+            return new TableAssignment(List.of(single));
+        }
+        return join(freeTables, persons);
+    }
+
+    /**
+     * Sucht die kleinste Reihe benachbarter freier Tische mit ausreichend Plätzen
+     * (bei gleicher Platzzahl die mit weniger Tischen, danach die erste nach Bereich und Position).
+     * Der Tisch mit der niedrigsten Position wird Haupttisch.
+     */
+    TableAssignment join(Collection<Table> freeTables, int persons) {
+        if (maxJoinedTables < 2) {
+            return null;
+        }
+        List<Table> placed = new ArrayList<>(freeTables.size());
+        for (Table table : freeTables) {
+            if (table.getArea() != null && table.getPosition() > 0) {
+                placed.add(table);
+            }
+        }
+        placed.sort(Comparator.comparing(Table::getArea).thenComparingInt(Table::getPosition));
+
+        List<Table> best = null;
+        int bestSeats = Integer.MAX_VALUE;
+        for (int first = 0; first < placed.size(); first++) {
+            int seats = placed.get(first).getCapacity();
+            for (int last = first + 1; last < placed.size() && last - first < maxJoinedTables; last++) {
+                if (!placed.get(last - 1).isAdjacentTo(placed.get(last))) {
+                    break;
+                }
+                seats += placed.get(last).getCapacity();
+                if (seats >= persons) {
+                    int count = last - first + 1;
+                    if (seats < bestSeats || seats == bestSeats && count < best.size()) {
+                        best = placed.subList(first, last + 1);
+                        bestSeats = seats;
+                    }
+                    break;
+                }
+            }
+        }
+        return best == null ? null : new TableAssignment(best);
+    }
+
+    /**
+     * Verteilt alle Reservierungen eines Tages neu auf die Tische. Große Gruppen (bei gleicher Größe
+     * lange Reservierungen) werden zuerst platziert, jeweils nach {@link #assign} auf den im Zeitfenster
+     * noch freien Tischen. Ist die bisherige Zuordnung gleich gut, bleibt die Reservierung sitzen.
+     * Eine passend sitzende Reservierung wird nie an mehr Plätze umgesetzt, als sie bisher hatte: passt der kleinste freie
+     * Platz nur so, bleibt sie auf ihren bisherigen Tischen oder, wenn diese schon vergeben sind, ohne Platz
+     * (der Plan ist dann unvollständig und wird nicht übernommen).
+     * @param tables       alle Tische mit Aufstellung
+     * @param reservations alle Reservierungen des Tages mit ihren bisherigen Tischen
+     * @return der Plan; die Datenbank wird nicht verändert
+     */
+    public AssignmentPlan optimize(LocalDate date, List<Table> tables, List<Reservation> reservations) {
+        Map<Integer, Table> tablesById = new HashMap<>();
+        for (Table table : tables) {
+            tablesById.put(table.getId(), table);
+        }
+        List<Reservation> order = new ArrayList<>(reservations);
+        order.sort(Comparator.comparingInt(Reservation::getPersons).reversed()
+                .thenComparing(Comparator.comparingInt((Reservation r) -> r.getSlot().getDuration()).reversed())
+                .thenComparingInt(r -> r.getSlot().getStart())
+                .thenComparingInt(Reservation::getId));
+
+        // Belegungsmaske je Tisch (30-Minuten-Fenster des Tages, siehe TimeSlot#toMask)
+        Map<Integer, Long> occupied = new HashMap<>();
+        Map<Integer, TableAssignment> assignments = new LinkedHashMap<>();
+        List<Reservation> unassigned = new ArrayList<>();
+        int moved = 0;
+        for (Reservation reservation : order) {
+            long wanted = reservation.getSlot().toMask();
+            List<Table> free = new ArrayList<>(tables.size());
+            for (Table table : tables) {
+                if ((occupied.getOrDefault(table.getId(), 0L) & wanted) == 0) {
+                    free.add(table);
+                }
+            }
+            TableAssignment assignment = assign(free, reservation.getPersons());
+            TableAssignment current = currentAssignment(reservation, tablesById, free);
+            if (assignment != null && assignment.seats() > reservation.getSeats()
+                    && reservation.getSeats() >= reservation.getPersons()) {
+                // Verschwendete Plätze nie erhöhen (z.B. zwei Personen auf den einzigen Achtertisch)
+                assignment = current;
+            } else if (assignment != null && current != null && current.seats() == assignment.seats()
+                    && current.tables().size() == assignment.tables().size()) {
+                assignment = current;
+            }
+            if (assignment == null) {
+                unassigned.add(reservation);
+                continue;
+            }
+            if (!assignment.sameTables(reservation.getTables())) {
+                moved++;
+            }
+            for (Table table : assignment.tables()) {
+                occupied.merge(table.getId(), wanted, (a, b) -> a | b);
+            }
+            assignments.put(reservation.getId(), assignment);
+        }
+        return new AssignmentPlan(date, assignments, unassigned, moved,
+                seatUtilization(reservations, null), seatUtilization(reservations, assignments));
+    }
+
+    /**
+     * Bisherige Tische der Reservierung, sofern sie alle noch frei sind und ausreichen.
+     */
+    private static TableAssignment currentAssignment(Reservation reservation, Map<Integer, Table> tablesById,
+                                                     List<Table> free) {
+        List<Table> current = new ArrayList<>();
+        for (Table booked : reservation.getTables()) {
+            Table table = tablesById.get(booked.getId());
+            if (table == null || !free.contains(table)) {
+                return null;
+            }
+            current.add(table);
+        }
+        if (current.isEmpty()) {
+            return null;
+        }
+        TableAssignment assignment = new TableAssignment(current);
+        return assignment.seats() >= reservation.getPersons() ? assignment : null;
+    }
+
+    /**
+     * Anteil der belegten an den reservierten Plätzen, gewichtet mit der Dauer (Σ Personen·Dauer / Σ Plätze·Dauer).
+     * @param assignments neue Zuordnung, oder null für die bisherigen Tische; nicht zugeordnete Reservierungen zählen nicht
+     */
+    static double seatUtilization(List<Reservation> reservations, Map<Integer, TableAssignment> assignments) {
+        long persons = 0;
+        long seats = 0;
+        for (Reservation reservation : reservations) {
+            int reservedSeats;
+            if (assignments == null) {
+                reservedSeats = reservation.getSeats();
+            } else {
+                TableAssignment assignment = assignments.get(reservation.getId());
+                if (assignment == null) {
+                    continue;
+                }
+                reservedSeats = assignment.seats();
+            }
+            int duration = reservation.getSlot().getDuration();
+            persons += (long) reservation.getPersons() * duration;
+            seats += (long) reservedSeats * duration;
+        }
+        return seats == 0 ? 0 : (double) persons / seats;
+    }
+}
@@ -0,0 +1,70 @@
+package services;
+
+import models.Table;
+
+import java.util.List;
+
+/**
+ * Tische, an denen eine Reservierung sitzt: ein einzelner Tisch oder mehrere nebeneinander
+ * stehende, zusammengestellte Tische. Der erste Tisch ist der Haupttisch ({@code reservations.table_id}),
+ * die übrigen stehen in {@code reservation_tables}.
+ */
+public record TableAssignment(List<Table> tables) {
+
+    public TableAssignment {
+        if (tables.isEmpty()) {
+            throw new IllegalArgumentException("Mindestens ein Tisch erforderlich");
+        }
+        tables = List.copyOf(tables);
+    }
+
+    /** Haupttisch der Reservierung */
+    public Table primary() {
+        return tables.get(0);
+    }
+
+    /** Dazugestellte Tische ohne den Haupttisch */
+    public List<Table> joined() {
+        return tables.subList(1, tables.size());
+    }
+
+    public boolean isJoined() {
+        return tables.size() > 1;
+    }
+
+    /** Sitzplätze aller Tische zusammen */
+    public int seats() {
+        int seats = 0;
+        for (Table table : tables) {
+            seats += table.getCapacity();
+        }
+        return seats;
+    }
+
+    /**
+     * Gibt an, ob es dieselben Tische sind (unabhängig von der Reihenfolge der dazugestellten Tische).
+     */
+    boolean sameTables(List<Table> other) {
+        if (other.size() != tables.size() || other.get(0).getId() != primary().getId()) {
+            return false;
+        }
+        for (Table table : other) {
+            if (tables.stream().noneMatch(t -> t.getId() == table.getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder numbers = new StringBuilder();
+        for (Table table : tables) {
+            if (numbers.length() > 0) {
+                numbers.append('+');
+            }
+            numbers.append(table.getId());
+        }
+        return "Tisch " + numbers + " (" + seats() + " Plätze)";
+    }
+}
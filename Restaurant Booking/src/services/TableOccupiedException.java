@@ -0,0 +1,23 @@
+package services;
+
+import models.TimeSlot;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Wird geworfen, wenn ein Tisch im gewünschten Zeitfenster bereits reserviert ist.
+ * Innerhalb einer Buchung ist das kein Fehler: der Aufrufer versucht dann den nächsten Tisch.
+ */
+public class TableOccupiedException extends SQLException {
+    private final int tableId;
+
+    public TableOccupiedException(int tableId, LocalDate date, TimeSlot slot) {
+        super("Tisch " + tableId + " ist am " + date + " im Zeitfenster " + slot + " bereits belegt");
+        this.tableId = tableId;
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+}
@@ -0,0 +1,342 @@
+package services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Leitet Zugriffe je Restaurant (Mandant) auf eine eigene SQLite-Datei um.
+ * <p>
+ * Jeder Mandant hat eine eigene Datei {@code restaurant-<mandant>.db} (der Mandant {@link #DEFAULT_TENANT}
+ * die bisherige {@code restaurant.db}) mit eigenem {@link DatabaseManager} und {@link ReservationService}.
+ * Eine Datei wird erst beim ersten Zugriff geöffnet und initialisiert und nach
+ * {@code restaurant.tenants.idleMs} (Default 10 Minuten) ohne Zugriff wieder geschlossen, sobald
+ * {@link #start()} aufgerufen wurde.
+ * Solange eine {@link Lease} offen ist, bleibt der Mandant geöffnet.
+ * Geöffnet werden nur die beim Erzeugen festgelegten Mandanten (Default: {@link #configuredTenants()}),
+ * damit z.B. eine API-Anfrage mit beliebiger Mandanten-ID keine neue Datei anlegen kann.
+ * <p>
+ * Auswertungen über mehrere Restaurants (z.B. {@link #getGroupOccupancyAsync}) laufen parallel,
+ * je Mandant auf einem eigenen virtuellen Thread.
+ */
+public class TenantRouter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(TenantRouter.class.getName());
+    public static final String DEFAULT_TENANT = "default";
+    public static final long DEFAULT_IDLE_MS = 10 * 60 * 1000;
+    // Mandanten-IDs werden Teil des Dateinamens, daher nur Kleinbuchstaben, Ziffern, '-' und '_'
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+
+    private final PoolConfig config;
+    private final long idleMillis;
+    private final Set<String> tenants;
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+    private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean closed;
+
+    public TenantRouter() {
+        this(configuredTenants());
+    }
+
+    /**
+     * Router für die angegebenen Mandanten, übrige Einstellungen aus den System-Properties.
+     */
+    public TenantRouter(Collection<String> tenants) {
+        this(PoolConfig.fromSystemProperties(), Long.getLong("restaurant.tenants.idleMs", DEFAULT_IDLE_MS), tenants);
+    }
+
+    /**
+     * @param config     Pool-Einstellungen, die für jeden Mandanten verwendet werden
+     * @param idleMillis Zeit ohne Zugriff, nach der ein Mandant geschlossen wird
+     * @param tenants    Mandanten, die geöffnet werden dürfen
+     * @throws IllegalArgumentException bei ungültiger Mandanten-ID
+     */
+    public TenantRouter(PoolConfig config, long idleMillis, Collection<String> tenants) {
+        for (String tenant : tenants) {
+            urlFor(tenant);
+        }
+        this.config = config;
+        this.idleMillis = idleMillis;
+        this.tenants = Set.copyOf(tenants);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Startet das periodische Schließen unbenutzter Mandanten (nicht im Konstruktor, damit der Thread
+     * keinen halb konstruierten Router sieht).
+     */
+    public void start() {
+        long interval = Math.max(1000, idleMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Mandanten aus der System-Property {@code restaurant.tenants} (kommagetrennt), sonst nur {@link #DEFAULT_TENANT}.
+     */
+    public static List<String> configuredTenants() {
+        String property = System.getProperty("restaurant.tenants");
+        if (property == null || property.isBlank()) {
+            return List.of(DEFAULT_TENANT);
+        }
+        return Arrays.stream(property.split(","))
+                .map(String::trim)
+                .filter(tenant -> !tenant.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Gibt an, ob der Mandant über diesen Router geöffnet werden darf.
+     */
+    public boolean isKnown(String tenant) {
+        return tenants.contains(tenant);
+    }
+
+    /**
+     * JDBC-URL der Datenbankdatei eines Mandanten.
+     */
+    public static String urlFor(String tenant) {
+        if (!TENANT_ID.matcher(tenant).matches()) {
+            throw new IllegalArgumentException("Ungültige Mandanten-ID: " + tenant);
+        }
+        return DEFAULT_TENANT.equals(tenant) ? "jdbc:sqlite:restaurant.db" : "jdbc:sqlite:restaurant-" + tenant + ".db";
+    }
+
+    /**
+     * Liefert den Zugang zu einem Mandanten und öffnet ihn bei Bedarf. Der Mandant bleibt geöffnet,
+     * bis die Lease geschlossen wird (danach greift die Leerlaufzeit).
+     * @throws UnknownTenantException  wenn der Mandant nicht zu diesem Router gehört
+     * @throws IllegalStateException    wenn die Datenbank nicht geöffnet werden konnte
+     */
+    public Lease acquire(String tenant) {
+        if (!isKnown(tenant)) {
+            throw new UnknownTenantException(tenant);
+        }
+        String url = urlFor(tenant);
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("Mandanten-Router ist bereits geschlossen");
+            }
+            Shard shard = shards.computeIfAbsent(tenant, t -> new Shard(t, url));
+            shard.lock.lock();
+            try {
+                if (shard.evicted) {
+                    // Gerade geschlossen; beim nächsten Durchlauf wird ein neuer Eintrag angelegt
+                    continue;
+                }
+                if (shard.service == null) {
+                    try {
+                        shard.open(config);
+                    } catch (RuntimeException e) {
+                        shard.evicted = true;
+                        shards.remove(tenant, shard);
+                        throw e;
+                    }
+                }
+                shard.leases++;
+                shard.lastUsed = System.nanoTime();
+                return new Lease(shard);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Führt eine Aufgabe mit dem Service eines Mandanten aus und gibt ihn danach wieder frei.
+     */
+    public <T> T withTenant(String tenant, Function<ReservationService, T> work) {
+        try (Lease lease = acquire(tenant)) {
+            return work.apply(lease.service());
+        }
+    }
+
+    /**
+     * Ermittelt die Auslastung aller angegebenen Restaurants an einem Tag, parallel je Mandant.
+     * Mandanten, die nicht geöffnet werden können, fehlen im Ergebnis (und werden geloggt).
+     * @return Auslastung je Mandant, nach Mandanten-ID sortiert
+     */
+    public CompletableFuture<Map<String, Occupancy>> getGroupOccupancyAsync(Collection<String> tenants, LocalDate date) {
+        List<String> tenantList = new ArrayList<>(tenants);
+        List<CompletableFuture<Occupancy>> futures = new ArrayList<>(tenantList.size());
+        for (String tenant : tenantList) {
+            futures.add(CompletableFuture
+                    .supplyAsync(() -> withTenant(tenant, service -> service.getOccupancy(date)), fanOut)
+                    .exceptionally(error -> {
+                        LOGGER.warning("Auslastung für Mandant " + tenant + " nicht verfügbar: " + error);
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<String, Occupancy> result = new TreeMap<>();
+            for (int i = 0; i < tenantList.size(); i++) {
+                Occupancy occupancy = futures.get(i).join();
+                if (occupancy != null) {
+                    result.put(tenantList.get(i), occupancy);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Derzeit geöffnete Mandanten.
+     */
+    public Set<String> getOpenTenants() {
+        Set<String> open = new TreeSet<>();
+        for (Shard shard : shards.values()) {
+            shard.lock.lock();
+            try {
+                if (shard.service != null && !shard.evicted) {
+                    open.add(shard.tenant);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Schließt Mandanten ohne offene Lease, auf die länger als die Leerlaufzeit nicht zugegriffen wurde.
+     */
+    void evictIdle() {
+        long now = System.nanoTime();
+        for (Shard shard : shards.values()) {
+            shard.lock.lock();
+            try {
+                if (shard.leases == 0 && !shard.evicted
+                        && TimeUnit.NANOSECONDS.toMillis(now - shard.lastUsed) >= idleMillis) {
+                    shard.evicted = true;
+                    shards.remove(shard.tenant, shard);
+                    shard.close();
+                    LOGGER.info("Mandant " + shard.tenant + " nach Leerlauf geschlossen");
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Schließt alle Mandanten, auch solche mit offener Lease (z.B. beim Beenden der Anwendung).
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        fanOut.shutdown();
+        for (Shard shard : shards.values()) {
+            shard.lock.lock();
+            try {
+                if (!shard.evicted) {
+                    shard.evicted = true;
+                    shard.close();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        shards.clear();
+    }
+
+    /**
+     * Datenbank und Service eines Mandanten; alle Felder werden unter {@link #lock} gelesen/geschrieben.
+     * Bewusst kein synchronized: Geöffnet wird auch auf virtuellen Threads, die dabei sonst ihren
+     * Träger-Thread blockieren würden, während initialize() selbst auf virtuelle Threads wartet.
+     */
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final String tenant;
+        private final String url;
+        private DatabaseManager db;
+        private ReservationService service;
+        private int leases;
+        private long lastUsed;
+        private boolean evicted;
+
+        private Shard(String tenant, String url) {
+            this.tenant = tenant;
+            this.url = url;
+        }
+
+        private void open(PoolConfig config) {
+            StartupTimer timer = new StartupTimer();
+            DatabaseManager manager = timer.time("Mandant " + tenant + " öffnen", () -> new DatabaseManager(url, config));
+            try {
+                manager.initialize(timer);
+            } catch (RuntimeException e) {
+                manager.close();
+                throw e;
+            }
+            db = manager;
+            service = new ReservationService(manager);
+        }
+
+        private void close() {
+            if (service != null) {
+                service.shutdown();
+                db.close();
+            }
+        }
+    }
+
+    /**
+     * Zugang zu einem geöffneten Mandanten; wird per try-with-resources zurückgegeben.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Shard shard;
+        private boolean released;
+
+        private Lease(Shard shard) {
+            this.shard = shard;
+        }
+
+        public String tenant() {
+            return shard.tenant;
+        }
+
+        public ReservationService service() {
+            shard.lock.lock();
+            try {
+                return shard.service;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            shard.lock.lock();
+            try {
+                if (!released) {
+                    released = true;
+                    shard.leases--;
+                    shard.lastUsed = System.nanoTime();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package services;
+
+/**
+ * Wird geworfen, wenn ein Restaurant (Mandant) angefragt wird, das nicht konfiguriert ist.
+ * Der {@link TenantRouter} legt für unbekannte Mandanten keine Datenbankdatei an.
+ */
+public class UnknownTenantException extends IllegalArgumentException {
+    private final String tenant;
+
+    public UnknownTenantException(String tenant) {
+        super("Unbekanntes Restaurant: " + tenant);
+        this.tenant = tenant;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+}
@@ -1,8 +1,9 @@
 package ui;
 
 import models.Reservation;
-import services.DatabaseManager;
 import services.ReservationService;
+import services.StartupTimer;
+import services.TenantRouter;
 import ui.panels.ActionsPanel;
 import ui.panels.QuickTableAccessPanel;
 import ui.panels.ReservationsPanel;
@@ -10,10 +11,12 @@ import ui.utils.UIHelper;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.WindowAdapter;
-import java.awt.event.WindowEvent;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -22,15 +25,23 @@ import java.util.logging.Logger;
  */
 public class MainMenu extends JFrame {
     private static final Logger LOGGER = Logger.getLogger(MainMenu.class.getName());
-    private final ReservationService service;
-    private Timer refreshTimer;
+    private final StartupTimer startup;
+    // Wird gesetzt, sobald die Datenbank im Hintergrund initialisiert ist; bis dahin sind die Aktionen deaktiviert
+    private ReservationService service;
     private ReservationsPanel reservationsPanel;
+    private ActionsPanel actionsPanel;
+    private QuickTableAccessPanel tableManagementPanel;
+    private boolean firstPaintLogged;
 
     // Formatierungen
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
-    public MainMenu(ReservationService service) {
-        this.service = service;
+    /**
+     * Baut das Fenster ohne Datenbankzugriff auf. Die Daten folgen mit {@link #awaitService}.
+     * @param tenant Restaurant (Mandant), dessen Reservierungen angezeigt werden
+     */
+    public MainMenu(StartupTimer startup, String tenant) {
+        this.startup = startup;
         
         // Look and Feel setzen
         try {
@@ -41,7 +52,9 @@ public class MainMenu extends JFrame {
         }
         
         // UI-Eigenschaften setzen
-        setTitle("Restaurant Tischreservierung");
+        setTitle(TenantRouter.DEFAULT_TENANT.equals(tenant)
+                ? "Restaurant Tischreservierung"
+                : "Restaurant Tischreservierung – " + tenant);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setMinimumSize(new Dimension(900, 700));
         
@@ -52,19 +65,36 @@ public class MainMenu extends JFrame {
         pack();
         setLocationRelativeTo(null);
         
-        // Timer einrichten, um die Reservierungen alle 5 Minuten zu aktualisieren
-        refreshTimer = new Timer(300000, e -> refreshReservations());
-        refreshTimer.start();
-        
-        // Windowlistener für das Schließen des Fensters
-        addWindowListener(new WindowAdapter() {
-            @Override
-            public void windowClosing(WindowEvent e) {
-                if (refreshTimer != null) {
-                    refreshTimer.stop();
-                }
+        // Die Reservierungsliste aktualisiert sich selbst über den Ereignisbus des Services
+        // (eigene Buchungen sofort, andere Arbeitsplätze nach wenigen Sekunden)
+    }
+    
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!firstPaintLogged) {
+            firstPaintLogged = true;
+            startup.mark("Fenster erstmals gezeichnet");
+        }
+    }
+    
+    /**
+     * Gibt die Bedienung frei und lädt die Reservierungen, sobald der Service bereit ist.
+     */
+    public void awaitService(CompletableFuture<ReservationService> ready) {
+        ready.whenCompleteAsync((readyService, error) -> {
+            if (error != null) {
+                LOGGER.log(Level.SEVERE, "Datenbank konnte nicht initialisiert werden", error);
+                reservationsPanel.showStartupError("Die Datenbank konnte nicht geöffnet werden.");
+                UIHelper.showErrorMessage(this, "Die Datenbank konnte nicht geöffnet werden.");
+                return;
             }
-        });
+            service = readyService;
+            UIHelper.setEnabledRecursively(actionsPanel, true);
+            UIHelper.setEnabledRecursively(tableManagementPanel, true);
+            startup.mark("Bedienung freigegeben");
+            reservationsPanel.start(service, () -> startup.mark("Erste Reservierungen angezeigt"));
+        }, UIHelper.EDT);
     }
     
     private void initializeUI() {
@@ -82,7 +112,7 @@ public class MainMenu extends JFrame {
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
         // Linke Seite - Aktionsbereich
-        ActionsPanel actionsPanel = new ActionsPanel(
+        actionsPanel = new ActionsPanel(
             this::showReservationForm,
             this::showFullReservationList,
             this::showTableManagement,
@@ -99,7 +129,6 @@ public class MainMenu extends JFrame {
         
         // Panel für die Liste der kommenden Reservierungen
         reservationsPanel = new ReservationsPanel(
-            service,
             this::editReservation,
             this::deleteReservation
         );
@@ -118,11 +147,15 @@ public class MainMenu extends JFrame {
         contentPanel.add(splitPane, BorderLayout.CENTER);
         
         // Kleinerer Bereich für Tischverwaltung am unteren Rand
-        QuickTableAccessPanel tableManagementPanel = new QuickTableAccessPanel(
+        tableManagementPanel = new QuickTableAccessPanel(
             this::addPredefinedTable,
             this::showCustomTableDialog
         );
         
+        // Aktionen brauchen die Datenbank und bleiben bis zur Initialisierung deaktiviert
+        UIHelper.setEnabledRecursively(actionsPanel, false);
+        UIHelper.setEnabledRecursively(tableManagementPanel, false);
+        
         contentPanel.add(tableManagementPanel, BorderLayout.SOUTH);
         
         mainPanel.add(contentPanel, BorderLayout.CENTER);
@@ -165,15 +198,6 @@ public class MainMenu extends JFrame {
         return footerPanel;
     }
     
-    /**
-     * Aktualisiert die Liste der anstehenden Reservierungen
-     */
-    private void refreshReservations() {
-        if (reservationsPanel != null) {
-            reservationsPanel.refreshReservations();
-        }
-    }
-    
     /**
      * Bearbeitet eine bestehende Reservierung
      */
@@ -208,14 +232,15 @@ public class MainMenu extends JFrame {
         
         // Wenn Benutzer bestätigt, Reservierung löschen
         if (option == JOptionPane.YES_OPTION) {
-            boolean success = service.deleteReservation(reservation.getId());
-            if (success) {
-                UIHelper.showSuccessMessage(this, "Die Reservierung wurde erfolgreich gelöscht.");
-                // Liste der anstehenden Reservierungen aktualisieren
-                refreshReservations();
-            } else {
-                UIHelper.showErrorMessage(this, "Beim Löschen der Reservierung ist ein Fehler aufgetreten.");
-            }
+            service.deleteReservationAsync(reservation.getId())
+                    .thenAcceptAsync(success -> {
+                        if (success) {
+                            // Die Liste der anstehenden Reservierungen folgt über das Löschereignis
+                            UIHelper.showSuccessMessage(this, "Die Reservierung wurde erfolgreich gelöscht.");
+                        } else {
+                            UIHelper.showErrorMessage(this, "Beim Löschen der Reservierung ist ein Fehler aufgetreten.");
+                        }
+                    }, UIHelper.EDT);
         }
     }
     
@@ -260,12 +285,14 @@ public class MainMenu extends JFrame {
      * Fügt einen Tisch mit vordefinierter Größe hinzu
      */
     private void addPredefinedTable(int capacity) {
-        boolean success = service.addNewTable(capacity);
-        if (success) {
-            UIHelper.showSuccessMessage(this, "Neuer Tisch mit " + capacity + " Plätzen hinzugefügt.");
-        } else {
-            UIHelper.showErrorMessage(this, "Tisch konnte nicht hinzugefügt werden.");
-        }
+        service.addNewTableAsync(capacity)
+                .thenAcceptAsync(success -> {
+                    if (success) {
+                        UIHelper.showSuccessMessage(this, "Neuer Tisch mit " + capacity + " Plätzen hinzugefügt.");
+                    } else {
+                        UIHelper.showErrorMessage(this, "Tisch konnte nicht hinzugefügt werden.");
+                    }
+                }, UIHelper.EDT);
     }
     
     /**
@@ -304,8 +331,6 @@ public class MainMenu extends JFrame {
     private void showReservationForm() {
         ReservationForm form = new ReservationForm(this, service);
         form.setVisible(true);
-        // Nach dem Schließen des Formulars die Reservierungen aktualisieren
-        refreshReservations();
     }
     
     /**
@@ -314,34 +339,40 @@ public class MainMenu extends JFrame {
     private void showReservationView() {
         ReservationView view = new ReservationView(this, service);
         view.setVisible(true);
-        // Nach dem Schließen der Ansicht die anstehenden Reservierungen aktualisieren
-        refreshReservations();
     }
     
     /**
-     * Bei Schließung des Fensters den Timer stoppen
-     */
-    @Override
-    public void dispose() {
-        if (refreshTimer != null) {
-            refreshTimer.stop();
-        }
-        super.dispose();
-    }
-
-    /**
-     * Hauptmethode zum Starten der Anwendung
+     * Hauptmethode zum Starten der Anwendung.
+     * Der Start läuft in Phasen: Das Fenster wird sofort auf dem EDT aufgebaut und angezeigt, während
+     * parallel dazu die Datenbank geöffnet, migriert und die Indizes gefüllt werden. Die Dauer jeder
+     * Phase wird protokolliert. Welches Restaurant geöffnet wird, bestimmt die System-Property
+     * {@code restaurant.tenant} (Default: {@link TenantRouter#DEFAULT_TENANT}, also restaurant.db).
      */
     public static void main(String[] args) {
-        // Anwendung im Event Dispatch Thread starten
+        StartupTimer startup = new StartupTimer();
+        startup.mark("main() erreicht");
+        
+        String tenant = System.getProperty("restaurant.tenant", TenantRouter.DEFAULT_TENANT);
+        TenantRouter router = new TenantRouter(List.of(tenant));
+        router.start();
+        // Beim Beenden keine neuen Hintergrundaufgaben mehr annehmen und die Verbindungen schließen
+        // (schreibt den WAL zurück und loggt die Pool-Kennzahlen)
+        Runtime.getRuntime().addShutdownHook(new Thread(router::close));
+        
+        // Datenbank des Restaurants öffnen, initialisieren und Service einrichten (im Hintergrund).
+        // Die Lease bleibt bis zum Beenden offen, damit der Mandant nicht wegen Leerlaufs geschlossen wird.
+        Executor initThread = task -> Thread.ofPlatform().name("startup-db").start(task);
+        CompletableFuture<ReservationService> ready = CompletableFuture.supplyAsync(() -> {
+            ReservationService service = router.acquire(tenant).service();
+            startup.mark("Datenbank bereit");
+            return service;
+        }, initThread);
+        
+        // Hauptfenster im Event Dispatch Thread anzeigen, ohne auf die Datenbank zu warten
         SwingUtilities.invokeLater(() -> {
-            // Datenbank initialisieren und Service einrichten
-            DatabaseManager dbManager = new DatabaseManager();
-            dbManager.initialize();
-            ReservationService service = new ReservationService(dbManager);
-            // Hauptfenster anzeigen
-            MainMenu menu = new MainMenu(service);
+            MainMenu menu = startup.time("Fenster aufbauen", () -> new MainMenu(startup, tenant));
             menu.setVisible(true);
+            menu.awaitService(ready);
         });
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package ui;
 
 import models.Reservation;
+import models.TimeSlot;
 import services.ReservationService;
 import ui.utils.UIHelper;
 
@@ -9,8 +10,11 @@ import javax.swing.border.*;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class ReservationForm extends JDialog {
+    private static final Logger LOGGER = Logger.getLogger(ReservationForm.class.getName());
     private final ReservationService service;
     private JTextField nameField;
     private JTextField contactField;
@@ -19,7 +23,13 @@ public class ReservationForm extends JDialog {
     private JSpinner monthSpinner;
     private JSpinner yearSpinner;
     private JComboBox<String> timeComboBox;
+    private JComboBox<String> durationComboBox;
     private JSpinner personsSpinner;
+    private JButton saveButton;
+
+    // Auswählbare Aufenthaltsdauern (Anzeige und Minuten)
+    private static final String[] DURATION_LABELS = {"1,5 Std.", "2 Std.", "2,5 Std.", "3 Std."};
+    private static final int[] DURATION_MINUTES = {90, 120, 150, 180};
 
     public ReservationForm(Frame parent, ReservationService service) {
         super(parent, "Neue Reservierung", true);
@@ -85,6 +95,7 @@ public class ReservationForm extends JDialog {
         // Datum, Zeit und Personen
         reservationPanel.add(createDatePanel());
         reservationPanel.add(createTimePanel());
+        reservationPanel.add(createDurationPanel());
         reservationPanel.add(createPersonsPanel());
         
         formPanel.add(reservationPanel);
@@ -148,6 +159,24 @@ public class ReservationForm extends JDialog {
         return timePanel;
     }
     
+    private JPanel createDurationPanel() {
+        JPanel durationPanel = new JPanel(new BorderLayout());
+        durationPanel.setMaximumSize(new Dimension(Short.MAX_VALUE, 70));
+        durationPanel.setBackground(Color.WHITE);
+        
+        JLabel durationLabel = new JLabel("Dauer:");
+        durationLabel.setPreferredSize(new Dimension(100, 25));
+        durationPanel.add(durationLabel, BorderLayout.WEST);
+        
+        durationComboBox = new JComboBox<>(DURATION_LABELS);
+        durationComboBox.setSelectedIndex(1); // 2 Stunden
+        durationComboBox.setBackground(Color.WHITE);
+        durationComboBox.setPreferredSize(new Dimension(100, 25));
+        durationPanel.add(durationComboBox, BorderLayout.CENTER);
+        
+        return durationPanel;
+    }
+    
     private JPanel createPersonsPanel() {
         JPanel personsPanel = new JPanel(new BorderLayout());
         personsPanel.setMaximumSize(new Dimension(Short.MAX_VALUE, 70));
@@ -169,7 +198,7 @@ public class ReservationForm extends JDialog {
         buttonPanel.setBackground(UIHelper.BUTTON_BACKGROUND);
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
         
-        JButton saveButton = UIHelper.createStyledButton("Reservieren", UIHelper.PRIMARY_COLOR);
+        saveButton = UIHelper.createStyledButton("Reservieren", UIHelper.PRIMARY_COLOR);
         saveButton.addActionListener(e -> saveReservation());
         buttonPanel.add(saveButton);
         
@@ -187,6 +216,7 @@ public class ReservationForm extends JDialog {
         int month = (int) monthSpinner.getValue();
         int year = (int) yearSpinner.getValue();
         String selectedTime = (String) timeComboBox.getSelectedItem();
+        int durationMinutes = DURATION_MINUTES[durationComboBox.getSelectedIndex()];
         int persons = (int) personsSpinner.getValue();
         
         if (name.isEmpty() || contact.isEmpty()) {
@@ -195,16 +225,57 @@ public class ReservationForm extends JDialog {
         }
         
         LocalDate date = LocalDate.of(year, month, day);
-        
-        Reservation reservation = service.createReservation(name, contact, date, persons);
-        if (reservation == null) {
-            UIHelper.showErrorMessage(this, "Für diesen Termin ist leider kein Tisch verfügbar.");
-        } else {
-            UIHelper.showSuccessMessage(this,
-                    "Reservierung erfolgreich für Tisch " + reservation.getTable().getId() +
-                            " am " + date.format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) +
-                            " um " + selectedTime + " Uhr gespeichert.");
-            dispose();
+        TimeSlot slot = TimeSlot.parse(selectedTime, durationMinutes);
+        
+        // Buchung im Hintergrund; bis zur Antwort kein zweites Absenden zulassen
+        saveButton.setEnabled(false);
+        service.createReservationAsync(name, contact, date, slot, persons)
+                .whenCompleteAsync((reservation, error) -> {
+                    saveButton.setEnabled(true);
+                    if (error != null) {
+                        LOGGER.log(Level.WARNING, "Reservierung konnte nicht gespeichert werden", error);
+                        UIHelper.showErrorMessage(this, "Die Reservierung konnte nicht gespeichert werden.");
+                    } else if (reservation == null) {
+                        offerWaitlist(name, contact, date, slot, persons);
+                    } else {
+                        UIHelper.showSuccessMessage(this,
+                                "Reservierung erfolgreich für Tisch " + reservation.getTableNumbers() +
+                                        " am " + date.format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) +
+                                        " von " + slot + " Uhr gespeichert.");
+                        dispose();
+                    }
+                }, UIHelper.EDT);
+    }
+
+    /**
+     * Bietet an, die Gruppe auf die Warteliste zu setzen, wenn kein Tisch frei ist.
+     * Wird eine passende Reservierung storniert, rückt sie automatisch nach.
+     */
+    private void offerWaitlist(String name, String contact, LocalDate date, TimeSlot slot, int persons) {
+        int option = JOptionPane.showConfirmDialog(
+                this,
+                "Für diesen Termin ist leider kein Tisch verfügbar.\n"
+                        + "Soll " + name + " auf die Warteliste gesetzt werden? Bei einer Stornierung "
+                        + "wird automatisch ein Tisch reserviert.",
+                "Warteliste",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.QUESTION_MESSAGE
+        );
+        if (option != JOptionPane.YES_OPTION) {
+            return;
         }
+        saveButton.setEnabled(false);
+        service.joinWaitlistAsync(name, contact, date, slot, persons)
+                .whenCompleteAsync((entry, error) -> {
+                    saveButton.setEnabled(true);
+                    if (error != null || entry == null) {
+                        UIHelper.showErrorMessage(this, "Die Gruppe konnte nicht auf die Warteliste gesetzt werden.");
+                    } else {
+                        UIHelper.showSuccessMessage(this,
+                                name + " steht für den " + date.format(DateTimeFormatter.ofPattern("dd.MM.yyyy"))
+                                        + " von " + slot + " Uhr auf der Warteliste.");
+                        dispose();
+                    }
+                }, UIHelper.EDT);
     }
 }
\ No newline at end of file
@@ -1,23 +1,54 @@
 package ui;
 
 import models.Reservation;
+import monitoring.PanelPaintEvent;
+import monitoring.PanelRefreshEvent;
+import services.ReservationEventBatch;
+import services.ReservationPage;
 import services.ReservationService;
+import ui.components.ReservationTableModel;
 import ui.utils.UIHelper;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.BitSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Eine Ansicht, die alle Reservierungen in einer Tabelle anzeigt und das Löschen ermöglicht.
  */
 public class ReservationView extends JDialog {
+    private static final Logger LOGGER = Logger.getLogger(ReservationView.class.getName());
     private final ReservationService service;
     private JTable reservationTable;
-    private DefaultTableModel tableModel;
+    private ReservationTableModel tableModel;
     private JButton deleteButton;
+    private JTextField searchField;
+    private JLabel searchResultLabel;
+    // Hinweis, solange ein Änderungsabruf fehlgeschlagen ist und die Tabelle veraltet sein kann
+    private JLabel staleLabel;
+    
+    // Seitenweises Nachladen beim Scrollen
+    private static final int PAGE_SIZE = 200;
+    // Name der Ansicht in den JFR-Ereignissen
+    private static final String PANEL_NAME = "Reservierungsverwaltung";
+    private ReservationPage.Cursor nextCursor = ReservationPage.Cursor.start();
+    private boolean hasMore;
+    private boolean loading;
+    // Wird bei jedem Neuladen erhöht, damit Antworten veralteter Anfragen verworfen werden
+    private int generation;
+    // Änderungsstand der geladenen Daten (-1: noch nichts geladen)
+    private long version = -1;
+    // Abmeldung vom Ereignisbus beim Schließen
+    private Runnable unsubscribe;
+    // Kunden-IDs der aktiven Suche (null: keine Suche); die Datenbank liefert nur deren Reservierungen
+    private BitSet customerFilter;
 
     // Formatierungen
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
@@ -28,6 +59,8 @@ public class ReservationView extends JDialog {
         setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
         
         initializeUI();
+        // Änderungen (eigene und von anderen Arbeitsplätzen) kommen über den Ereignisbus
+        unsubscribe = service.getEvents().subscribe(batch -> SwingUtilities.invokeLater(() -> onReservationEvents(batch)));
         loadReservations();
         
         setSize(800, 600);
@@ -59,22 +92,78 @@ public class ReservationView extends JDialog {
     private JPanel createTablePanel() {
         JPanel tablePanel = UIHelper.createSectionPanel("Alle Reservierungen");
         
-        // Tabellen-Modell und Spalten erstellen
-        String[] columnNames = {"ID", "Datum", "Uhrzeit", "Kundenname", "Kontakt", "Tisch", "Personen"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
+        // Sofortsuche über Kundenname und Kontakt (Präfixindex im Service)
+        JPanel searchPanel = UIHelper.createFieldPanel("Suche:", "Name, E-Mail oder Telefonnummer des Kunden");
+        searchField = (JTextField) searchPanel.getComponent(1);
+        searchResultLabel = new JLabel();
+        searchResultLabel.setForeground(UIHelper.NEUTRAL_COLOR);
+        searchPanel.add(searchResultLabel);
+        staleLabel = new JLabel();
+        staleLabel.setForeground(UIHelper.ERROR_COLOR);
+        searchPanel.add(staleLabel);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Tabelle nicht editierbar machen
+            public void insertUpdate(DocumentEvent e) {
+                applySearch();
             }
-        };
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applySearch();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applySearch();
+            }
+        });
+        tablePanel.add(searchPanel);
+        
+        // Spaltenweises Tabellen-Modell; Zellen werden erst beim Zeichnen formatiert
+        tableModel = new ReservationTableModel();
         
-        reservationTable = new JTable(tableModel);
+        reservationTable = new JTable(tableModel) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                PanelPaintEvent event = new PanelPaintEvent(PANEL_NAME);
+                event.begin();
+                super.paintComponent(g);
+                event.end();
+                if (event.shouldCommit()) {
+                    Rectangle clip = g.getClipBounds();
+                    int rows = clip == null ? getRowCount() : (clip.height + getRowHeight() - 1) / getRowHeight();
+                    event.rows = Math.min(rows, getRowCount());
+                    event.commit();
+                }
+            }
+        };
         reservationTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         reservationTable.setRowHeight(25);
         reservationTable.getTableHeader().setReorderingAllowed(false);
         
+        // Sortieren per Klick auf den Spaltenkopf (erneuter Klick kehrt die Richtung um).
+        // Bewusst kein TableRowSorter: der würde für jede Zeile die formatierten Zellwerte abfragen.
+        reservationTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = reservationTable.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    tableModel.sortBy(reservationTable.convertColumnIndexToModel(column));
+                }
+            }
+        });
+        
         JScrollPane scrollPane = new JScrollPane(reservationTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        
+        // Nächste Seite laden, sobald das Ende der Tabelle sichtbar wird
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            if (!e.getValueIsAdjusting() && hasMore && !loading
+                    && bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - reservationTable.getRowHeight()) {
+                loadNextPage();
+            }
+        });
         tablePanel.add(scrollPane, BorderLayout.CENTER);
         
         // Listener für Tabellenauswahl
@@ -112,30 +201,205 @@ public class ReservationView extends JDialog {
     }
     
     /**
-     * Lädt alle Reservierungen aus dem Service und zeigt sie in der Tabelle an
+     * Lädt die erste Seite der Reservierungen aus dem Service und zeigt sie in der Tabelle an
      */
     private void loadReservations() {
         // Tabelle leeren
-        tableModel.setRowCount(0);
-        
-        // Reservierungen laden
-        List<Reservation> reservations = service.getUpcomingReservations();
+        tableModel.clear();
+        generation++;
+        loading = false;
+        version = -1;
+        nextCursor = ReservationPage.Cursor.start();
+        loadNextPage();
+    }
+    
+    /**
+     * Lädt die nächste Seite im Hintergrund und hängt sie auf dem EDT an die Tabelle an
+     */
+    private void loadNextPage() {
+        if (loading) {
+            return;
+        }
+        loading = true;
+        int requested = generation;
+        PanelRefreshEvent event = new PanelRefreshEvent(PANEL_NAME, "Seite");
+        event.begin();
+        service.getUpcomingReservationsAsync(nextCursor, PAGE_SIZE, customerFilter)
+                .whenCompleteAsync((page, error) -> {
+                    if (requested != generation) {
+                        return;
+                    }
+                    loading = false;
+                    if (error != null) {
+                        LOGGER.log(Level.WARNING, "Reservierungen konnten nicht geladen werden", error);
+                        UIHelper.showErrorMessage(this, "Die Reservierungen konnten nicht geladen werden.");
+                        return;
+                    }
+                    staleLabel.setText("");
+                    long applyStart = System.nanoTime();
+                    appendPage(page);
+                    finishRefresh(event, page.reservations().size(), applyStart);
+                }, UIHelper.EDT);
+    }
+    
+    /**
+     * Hängt eine geladene Seite an die Tabelle an
+     */
+    private void appendPage(ReservationPage page) {
+        if (version < 0) {
+            // Stand vor dem Lesen der ersten Seite: spätere Änderungen kommen über den Ereignisbus
+            version = page.version();
+            // Änderungen, die der Bus während des Ladens veröffentlicht hat, nachholen
+            if (service.getEvents().getVersion() > version) {
+                SwingUtilities.invokeLater(this::loadChanges);
+            }
+        }
+        nextCursor = page.next();
+        hasMore = page.hasMore();
         
         // Reservierungen in Tabelle einfügen
-        for (Reservation reservation : reservations) {
-            Object[] row = {
-                reservation.getId(),
-                reservation.getDate().format(DATE_FORMATTER),
-                reservation.getTime(),
-                reservation.getCustomer().getName(),
-                reservation.getCustomer().getContact(),
-                "Tisch " + reservation.getTable().getId() + " (" + reservation.getTable().getCapacity() + " Plätze)",
-                reservation.getPersons()
-            };
-            tableModel.addRow(row);
+        tableModel.addReservations(page.reservations());
+        
+        if (customerFilter != null) {
+            updateSearchResultLabel();
         }
     }
     
+    private boolean isSearchActive() {
+        return !searchField.getText().isBlank();
+    }
+    
+    /**
+     * Lädt die Tabelle neu mit den Reservierungen der Kunden, die zur Sucheingabe passen
+     * (gefiltert in der Datenbank, weiterhin seitenweise beim Scrollen)
+     */
+    private void applySearch() {
+        if (!isSearchActive()) {
+            if (customerFilter != null) {
+                customerFilter = null;
+                tableModel.setCustomerFilter(null);
+                searchResultLabel.setText("");
+                loadReservations();
+            }
+            return;
+        }
+        String query = searchField.getText();
+        service.searchCustomerIdsAsync(query)
+                .thenAcceptAsync(customerIds -> {
+                    // Antwort auf eine inzwischen geänderte Eingabe verwerfen
+                    if (!query.equals(searchField.getText())) {
+                        return;
+                    }
+                    customerFilter = customerIds;
+                    // Filter auch im Modell, damit Ereignisse keine fremden Reservierungen einblenden
+                    tableModel.setCustomerFilter(customerIds);
+                    loadReservations();
+                }, UIHelper.EDT);
+    }
+    
+    /**
+     * Aktualisiert die Kunden-IDs der aktiven Suche (z.B. neu angelegte Kunden), ohne neu zu laden:
+     * deren Reservierungen kommen über die Ereignisse ohnehin ins Modell
+     */
+    private void refreshSearch() {
+        String query = searchField.getText();
+        service.searchCustomerIdsAsync(query)
+                .thenAcceptAsync(customerIds -> {
+                    if (customerFilter == null || !query.equals(searchField.getText())) {
+                        return;
+                    }
+                    customerFilter = customerIds;
+                    tableModel.setCustomerFilter(customerIds);
+                    updateSearchResultLabel();
+                }, UIHelper.EDT);
+    }
+    
+    private void updateSearchResultLabel() {
+        int count = tableModel.getRowCount();
+        String text = count == 1 ? "1 Reservierung" : count + " Reservierungen";
+        searchResultLabel.setText(hasMore ? text + " (weitere beim Scrollen)" : text);
+    }
+    
+    /**
+     * Übernimmt einen Stapel von Reservierungsereignissen (auf dem EDT).
+     * Passt der Stapel nicht an den geladenen Stand an, werden die fehlenden Änderungen nachgeladen.
+     */
+    private void onReservationEvents(ReservationEventBatch batch) {
+        if (version < 0 || batch.toVersion() <= version) {
+            return;
+        }
+        if (batch.fromVersion() > version) {
+            loadChanges();
+            return;
+        }
+        PanelRefreshEvent event = new PanelRefreshEvent(PANEL_NAME, "Ereignisse");
+        event.begin();
+        long applyStart = System.nanoTime();
+        version = batch.toVersion();
+        tableModel.applyChanges(batch.upserted(), batch.deletedIds(), this::isInLoadedRange);
+        if (customerFilter != null) {
+            // Neue Kunden sind inzwischen im Suchindex
+            refreshSearch();
+        }
+        finishRefresh(event, batch.upserted().size() + batch.deletedIds().size(), applyStart);
+    }
+    
+    /**
+     * Lädt die Änderungen seit dem zuletzt geladenen Stand nach
+     */
+    private void loadChanges() {
+        if (version < 0) {
+            loadReservations();
+            return;
+        }
+        int requested = generation;
+        PanelRefreshEvent event = new PanelRefreshEvent(PANEL_NAME, "Änderungen");
+        event.begin();
+        service.getChangesSinceAsync(version)
+                .whenCompleteAsync((changes, error) -> {
+                    if (requested != generation) {
+                        return;
+                    }
+                    if (error != null) {
+                        // Stand bleibt; der nächste Ereignisstapel passt nicht an und fragt erneut ab
+                        LOGGER.log(Level.WARNING, "Änderungen konnten nicht geladen werden", error);
+                        staleLabel.setText("Nicht aktuell");
+                        return;
+                    }
+                    staleLabel.setText("");
+                    if (version >= 0 && changes.version() > version) {
+                        long applyStart = System.nanoTime();
+                        version = changes.version();
+                        tableModel.applyChanges(changes.upserted(), changes.deletedIds(), this::isInLoadedRange);
+                        finishRefresh(event, changes.upserted().size() + changes.deletedIds().size(), applyStart);
+                    }
+                }, UIHelper.EDT);
+    }
+
+    /**
+     * Schließt das JFR-Ereignis einer Aktualisierung ab (nur bei laufender Aufzeichnung werden Felder gesetzt)
+     */
+    private void finishRefresh(PanelRefreshEvent event, int rows, long applyStart) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.totalRows = tableModel.getRowCount();
+            event.applyTime = System.nanoTime() - applyStart;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Reservierungen hinter dem Cursor werden ohnehin mit den nächsten Seiten geladen
+     */
+    private boolean isInLoadedRange(Reservation reservation) {
+        if (!hasMore) {
+            return true;
+        }
+        int byDate = reservation.getDate().compareTo(nextCursor.date());
+        return byDate < 0 || (byDate == 0 && reservation.getId() <= nextCursor.id());
+    }
+    
     /**
      * Löscht die ausgewählte Reservierung nach Bestätigung
      */
@@ -143,9 +407,9 @@ public class ReservationView extends JDialog {
         int selectedRow = reservationTable.getSelectedRow();
         if (selectedRow == -1) return;
         
-        int reservationId = (int) tableModel.getValueAt(selectedRow, 0);
-        String customerName = (String) tableModel.getValueAt(selectedRow, 3);
-        String date = (String) tableModel.getValueAt(selectedRow, 1);
+        int reservationId = tableModel.getReservationId(selectedRow);
+        String customerName = tableModel.getCustomerName(selectedRow);
+        String date = tableModel.getDate(selectedRow).format(DATE_FORMATTER);
         
         // Bestätigungsdialog anzeigen
         int option = JOptionPane.showConfirmDialog(
@@ -158,14 +422,26 @@ public class ReservationView extends JDialog {
         
         // Wenn Benutzer bestätigt, Reservierung löschen
         if (option == JOptionPane.YES_OPTION) {
-            boolean success = service.deleteReservation(reservationId);
-            if (success) {
-                UIHelper.showSuccessMessage(this, "Die Reservierung wurde erfolgreich gelöscht.");
-                // Tabelle aktualisieren
-                loadReservations();
-            } else {
-                UIHelper.showErrorMessage(this, "Beim Löschen der Reservierung ist ein Fehler aufgetreten.");
-            }
+            deleteButton.setEnabled(false);
+            service.deleteReservationAsync(reservationId)
+                    .thenAcceptAsync(success -> {
+                        if (success) {
+                            // Die Zeile verschwindet über das Löschereignis des Ereignisbusses
+                            UIHelper.showSuccessMessage(this, "Die Reservierung wurde erfolgreich gelöscht.");
+                        } else {
+                            deleteButton.setEnabled(reservationTable.getSelectedRow() != -1);
+                            UIHelper.showErrorMessage(this, "Beim Löschen der Reservierung ist ein Fehler aufgetreten.");
+                        }
+                    }, UIHelper.EDT);
+        }
+    }
+    
+    @Override
+    public void dispose() {
+        if (unsubscribe != null) {
+            unsubscribe.run();
+            unsubscribe = null;
         }
+        super.dispose();
     }
-}
\ No newline at end of file
+}
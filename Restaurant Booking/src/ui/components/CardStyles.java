@@ -0,0 +1,57 @@
+package ui.components;
+
+import ui.utils.UIHelper;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Gemeinsame, unveränderliche Gestaltungsmittel der Reservierungskarten und der Liste.
+ * Schriften, Farben, Rahmen, Icons und der Hover-Listener werden einmal angelegt und von allen
+ * Karten geteilt, statt sie für jede Karte neu zu erzeugen.
+ */
+final class CardStyles {
+    static final Font TIME_FONT = new Font("Arial", Font.BOLD, 16);
+    static final Font NAME_FONT = new Font("Arial", Font.BOLD, 14);
+    static final Font DETAIL_FONT = new Font("Arial", Font.PLAIN, 12);
+    static final Font HEADER_FONT = new Font("Arial", Font.BOLD, 14);
+
+    static final Color BACKGROUND = Color.WHITE;
+    static final Color HOVER_BACKGROUND = new Color(250, 250, 250);
+    static final Color DETAIL_COLOR = new Color(100, 100, 100);
+    static final Color HEADER_BACKGROUND = new Color(240, 240, 240);
+
+    static final Border CARD_BORDER = BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(new Color(220, 220, 220), 1),
+            BorderFactory.createEmptyBorder(10, 15, 10, 15)
+    );
+    static final Dimension CARD_MAXIMUM_SIZE = new Dimension(Short.MAX_VALUE, 80);
+    static final Dimension LEFT_SIZE = new Dimension(100, 0);
+    static final Dimension RIGHT_SIZE = new Dimension(80, 0);
+    static final Dimension BUTTON_SIZE = new Dimension(24, 24);
+
+    // Icons werden nur einmal gesucht (fehlen sie, bleibt es beim Text-Symbol)
+    static final ImageIcon EDIT_ICON = UIHelper.loadIcon("/icons/edit.png");
+    static final ImageIcon DELETE_ICON = UIHelper.loadIcon("/icons/delete.png");
+
+    /**
+     * Hover-Effekt für frei platzierte Karten; zustandslos und daher für alle Karten derselbe Listener.
+     */
+    static final MouseAdapter HOVER_HANDLER = new MouseAdapter() {
+        @Override
+        public void mouseEntered(MouseEvent e) {
+            e.getComponent().setBackground(HOVER_BACKGROUND);
+        }
+
+        @Override
+        public void mouseExited(MouseEvent e) {
+            e.getComponent().setBackground(BACKGROUND);
+        }
+    };
+
+    private CardStyles() {
+    }
+}
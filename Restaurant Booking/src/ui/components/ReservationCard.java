@@ -2,158 +2,159 @@ package ui.components;
 
 import models.Reservation;
 import models.Table;
-import ui.utils.UIHelper;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
-import java.net.URL;
 import java.util.function.Consumer;
 
 /**
- * Wiederverwendbare Komponente für die Anzeige einer Reservierung als Karte
+ * Wiederverwendbare Komponente für die Anzeige einer Reservierung als Karte.
+ * Die Kindkomponenten werden einmal aufgebaut; mit {@link #bind(Reservation)} zeigt dieselbe Karte
+ * eine andere Reservierung an. Gestaltungsmittel kommen aus {@link CardStyles}.
  */
 public class ReservationCard extends JPanel {
-    private final Reservation reservation;
-    private final Consumer<Reservation> onEdit;
-    private final Consumer<Reservation> onDelete;
+    /** Aktionskennungen der Buttons, z.B. für die Trefferprüfung in Listen */
+    public static final String ACTION_EDIT = "edit";
+    public static final String ACTION_DELETE = "delete";
 
-    public ReservationCard(Reservation reservation, 
-                          Consumer<Reservation> onEdit, 
+    private final JLabel timeLabel = new JLabel();
+    private final JLabel tableLabel = new JLabel();
+    private final JLabel nameLabel = new JLabel();
+    private final JLabel contactLabel = new JLabel();
+    private final JLabel personsLabel = new JLabel();
+    private Reservation reservation;
+
+    public ReservationCard(Reservation reservation,
+                          Consumer<Reservation> onEdit,
                           Consumer<Reservation> onDelete) {
         super(new BorderLayout(10, 0));
+
+        initializeUI(onEdit, onDelete);
+        bind(reservation);
+    }
+
+    /**
+     * Zeigt eine andere Reservierung an, ohne Komponenten neu anzulegen.
+     * Die Buttons wirken danach auf die neue Reservierung.
+     */
+    public void bind(Reservation reservation) {
+        if (reservation == this.reservation) {
+            return;
+        }
         this.reservation = reservation;
-        this.onEdit = onEdit;
-        this.onDelete = onDelete;
-        
-        initializeUI();
+        timeLabel.setText(reservation.getTime() + " Uhr");
+
+        // Tischnummer
+        Table table = reservation.getTable();
+        tableLabel.setVisible(table != null);
+        if (table != null) {
+            tableLabel.setText("Tisch " + reservation.getTableNumbers() + " (" + reservation.getSeats() + " Plätze)");
+        }
+
+        // Gast-Name und Kontakt - Verwende Kundendaten konsistent
+        nameLabel.setText(reservation.getCustomer() != null ?
+                          reservation.getCustomer().getName() :
+                          "Unbekannt");
+        contactLabel.setText(reservation.getCustomer() != null ?
+                             reservation.getCustomer().getContact() :
+                             "Keine Kontaktdaten");
+        personsLabel.setText(reservation.getPersons() + " Pers.");
     }
-    
-    private void initializeUI() {
-        setBackground(Color.WHITE);
-        setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(220, 220, 220), 1),
-                BorderFactory.createEmptyBorder(10, 15, 10, 15)
-        ));
-        setMaximumSize(new Dimension(Short.MAX_VALUE, 80));
-        
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    private void initializeUI(Consumer<Reservation> onEdit, Consumer<Reservation> onDelete) {
+        setBackground(CardStyles.BACKGROUND);
+        setBorder(CardStyles.CARD_BORDER);
+        setMaximumSize(CardStyles.CARD_MAXIMUM_SIZE);
+
         // Linke Seite - Zeit und Tischnummer
         add(createLeftPanel(), BorderLayout.WEST);
-        
+
         // Mittlerer Bereich - Gast und Kontakt
         add(createCenterPanel(), BorderLayout.CENTER);
-        
+
         // Rechte Seite - Personenzahl und Aktionen
-        add(createRightPanel(), BorderLayout.EAST);
-        
+        add(createRightPanel(onEdit, onDelete), BorderLayout.EAST);
+
         // Hover-Effekt
-        addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseEntered(MouseEvent e) {
-                setBackground(new Color(250, 250, 250));
-            }
-            
-            @Override
-            public void mouseExited(MouseEvent e) {
-                setBackground(Color.WHITE);
-            }
-        });
+        addMouseListener(CardStyles.HOVER_HANDLER);
     }
-    
+
     private JPanel createLeftPanel() {
         JPanel leftPanel = new JPanel(new BorderLayout());
         leftPanel.setOpaque(false);
-        leftPanel.setPreferredSize(new Dimension(100, 0));
-        
+        leftPanel.setPreferredSize(CardStyles.LEFT_SIZE);
+
         // Zeit-Anzeige
-        JLabel timeLabel = new JLabel(reservation.getTime() + " Uhr");
-        timeLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        timeLabel.setFont(CardStyles.TIME_FONT);
         leftPanel.add(timeLabel, BorderLayout.NORTH);
-        
+
         // Tischnummer
-        Table table = reservation.getTable();
-        if (table != null) {
-            JLabel tableLabel = new JLabel("Tisch " + table.getId() + " (" + table.getCapacity() + " Plätze)");
-            tableLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-            tableLabel.setForeground(new Color(100, 100, 100));
-            leftPanel.add(tableLabel, BorderLayout.SOUTH);
-        }
-        
+        tableLabel.setFont(CardStyles.DETAIL_FONT);
+        tableLabel.setForeground(CardStyles.DETAIL_COLOR);
+        leftPanel.add(tableLabel, BorderLayout.SOUTH);
+
         return leftPanel;
     }
-    
+
     private JPanel createCenterPanel() {
         JPanel centerPanel = new JPanel(new BorderLayout());
         centerPanel.setOpaque(false);
-        
-        // Gast-Name - Verwende Kundennamen konsistent
-        String name = reservation.getCustomer() != null ? 
-                      reservation.getCustomer().getName() : 
-                      "Unbekannt";
-        JLabel nameLabel = new JLabel(name);
-        nameLabel.setFont(new Font("Arial", Font.BOLD, 14));
+
+        nameLabel.setFont(CardStyles.NAME_FONT);
         centerPanel.add(nameLabel, BorderLayout.NORTH);
-        
-        // Kontakt - Verwende Kundenkontakt konsistent
-        String contact = reservation.getCustomer() != null ? 
-                        reservation.getCustomer().getContact() : 
-                        "Keine Kontaktdaten";
-        JLabel contactLabel = new JLabel(contact);
-        contactLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-        contactLabel.setForeground(new Color(100, 100, 100));
+
+        contactLabel.setFont(CardStyles.DETAIL_FONT);
+        contactLabel.setForeground(CardStyles.DETAIL_COLOR);
         centerPanel.add(contactLabel, BorderLayout.SOUTH);
-        
+
         return centerPanel;
     }
-    
-    private JPanel createRightPanel() {
+
+    private JPanel createRightPanel(Consumer<Reservation> onEdit, Consumer<Reservation> onDelete) {
         JPanel rightPanel = new JPanel(new BorderLayout());
         rightPanel.setOpaque(false);
-        rightPanel.setPreferredSize(new Dimension(80, 0));
-        
+        rightPanel.setPreferredSize(CardStyles.RIGHT_SIZE);
+
         // Personenzahl
-        JLabel personsLabel = new JLabel(reservation.getPersons() + " Pers.");
-        personsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        personsLabel.setFont(CardStyles.DETAIL_FONT);
         personsLabel.setHorizontalAlignment(SwingConstants.RIGHT);
         rightPanel.add(personsLabel, BorderLayout.NORTH);
-        
+
         // Aktions-Buttons
         JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
         actionPanel.setOpaque(false);
-        
+
         // Bearbeiten-Button
-        JButton editButton = new JButton("✏️");
-        ImageIcon editIcon = UIHelper.loadIcon("/icons/edit.png");
-        if (editIcon != null) {
-            editButton.setIcon(editIcon);
-            editButton.setText(null);
-        }
-        editButton.setToolTipText("Bearbeiten");
-        editButton.setPreferredSize(new Dimension(24, 24));
-        editButton.setFocusPainted(false);
-        editButton.setBorderPainted(false);
-        editButton.setContentAreaFilled(false);
+        JButton editButton = createActionButton("✏️", CardStyles.EDIT_ICON, "Bearbeiten", ACTION_EDIT);
         editButton.addActionListener(e -> onEdit.accept(reservation));
         actionPanel.add(editButton);
-        
+
         // Löschen-Button
-        JButton deleteButton = new JButton("🗑️");
-        ImageIcon deleteIcon = UIHelper.loadIcon("/icons/delete.png");
-        if (deleteIcon != null) {
-            deleteButton.setIcon(deleteIcon);
-            deleteButton.setText(null);
-        }
-        deleteButton.setToolTipText("Löschen");
-        deleteButton.setPreferredSize(new Dimension(24, 24));
-        deleteButton.setFocusPainted(false);
-        deleteButton.setBorderPainted(false);
-        deleteButton.setContentAreaFilled(false);
+        JButton deleteButton = createActionButton("🗑️", CardStyles.DELETE_ICON, "Löschen", ACTION_DELETE);
         deleteButton.addActionListener(e -> onDelete.accept(reservation));
         actionPanel.add(deleteButton);
-        
+
         rightPanel.add(actionPanel, BorderLayout.SOUTH);
-        
+
         return rightPanel;
     }
-}
\ No newline at end of file
+
+    private static JButton createActionButton(String symbol, ImageIcon icon, String toolTip, String actionCommand) {
+        JButton button = new JButton(symbol);
+        if (icon != null) {
+            button.setIcon(icon);
+            button.setText(null);
+        }
+        button.setToolTipText(toolTip);
+        button.setPreferredSize(CardStyles.BUTTON_SIZE);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setContentAreaFilled(false);
+        button.setActionCommand(actionCommand);
+        return button;
+    }
+}
@@ -0,0 +1,149 @@
+package ui.components;
+
+import models.Reservation;
+
+import javax.swing.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Listenmodell der anstehenden Reservierungen, gruppiert nach Datum.
+ * Jede Zeile ist entweder ein Datums-Kopf ({@link LocalDate}) oder eine {@link Reservation}.
+ * Das Modell hält nur Daten; gezeichnet wird über {@link ReservationListRenderer},
+ * so dass unabhängig von der Anzahl der Reservierungen nur die sichtbaren Zeilen Komponenten brauchen.
+ */
+public class ReservationListModel extends AbstractListModel<Object> {
+    // Sortierung nach Datum, Beginn und ID (ohne Uhrzeit-Strings zu parsen)
+    private static final Comparator<Reservation> ORDER = Comparator
+            .comparing(Reservation::getDate)
+            .thenComparingInt((Reservation r) -> r.getSlot().getStart())
+            .thenComparingInt(Reservation::getId);
+
+    // Geladene Reservierungen nach ID; eine erneut gelieferte Reservierung ersetzt die bisherige
+    private final Map<Integer, Reservation> reservations = new HashMap<>();
+    private final List<Object> rows = new ArrayList<>();
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public Object getElementAt(int index) {
+        return rows.get(index);
+    }
+
+    /**
+     * Prüft, ob die Zeile ein Datums-Kopf ist.
+     */
+    public boolean isHeader(int index) {
+        return rows.get(index) instanceof LocalDate;
+    }
+
+    /**
+     * Liefert die Reservierung der Zeile oder null für Datums-Köpfe bzw. ungültige Indizes.
+     */
+    public Reservation getReservationAt(int index) {
+        if (index < 0 || index >= rows.size()) {
+            return null;
+        }
+        Object row = rows.get(index);
+        return row instanceof Reservation ? (Reservation) row : null;
+    }
+
+    public int getReservationCount() {
+        return reservations.size();
+    }
+
+    /**
+     * Ersetzt den gesamten Inhalt.
+     */
+    public void setReservations(Collection<Reservation> newReservations) {
+        reservations.clear();
+        putAll(newReservations);
+        rebuild();
+    }
+
+    /**
+     * Hängt weitere Reservierungen (z.B. die nächste Seite) an.
+     */
+    public void addReservations(Collection<Reservation> more) {
+        if (more.isEmpty()) {
+            return;
+        }
+        putAll(more);
+        rebuild();
+    }
+    
+    /**
+     * Übernimmt Änderungen seit dem letzten Stand. Neue oder geänderte Reservierungen werden nur
+     * übernommen, wenn sie im bereits geladenen Bereich liegen; dahinter liegende kommen mit den
+     * nächsten Seiten.
+     * @param inLoadedRange prüft, ob eine Reservierung im geladenen Bereich liegt
+     * @return true, wenn sich die Liste geändert hat
+     */
+    public boolean applyChanges(Collection<Reservation> upserted, Collection<Integer> deletedIds,
+                                Predicate<Reservation> inLoadedRange) {
+        boolean changed = false;
+        for (Integer id : deletedIds) {
+            changed |= reservations.remove(id) != null;
+        }
+        for (Reservation reservation : upserted) {
+            if (inLoadedRange.test(reservation)) {
+                reservations.put(reservation.getId(), reservation);
+                changed = true;
+            } else {
+                // Ggf. aus dem geladenen Bereich heraus verschoben
+                changed |= reservations.remove(reservation.getId()) != null;
+            }
+        }
+        if (changed) {
+            rebuild();
+        }
+        return changed;
+    }
+    
+    private void putAll(Collection<Reservation> more) {
+        for (Reservation reservation : more) {
+            reservations.put(reservation.getId(), reservation);
+        }
+    }
+
+    public void clear() {
+        reservations.clear();
+        rebuild();
+    }
+
+    /**
+     * Sortiert die Reservierungen und erzeugt die Zeilen inklusive Datums-Köpfen neu.
+     */
+    private void rebuild() {
+        int oldSize = rows.size();
+        List<Reservation> sorted = new ArrayList<>(reservations.values());
+        sorted.sort(ORDER);
+        rows.clear();
+        LocalDate currentDate = null;
+        for (Reservation reservation : sorted) {
+            if (!reservation.getDate().equals(currentDate)) {
+                currentDate = reservation.getDate();
+                rows.add(currentDate);
+            }
+            rows.add(reservation);
+        }
+        if (oldSize > rows.size()) {
+            fireIntervalRemoved(this, rows.size(), oldSize - 1);
+        } else if (oldSize < rows.size()) {
+            fireIntervalAdded(this, oldSize, rows.size() - 1);
+        }
+        int common = Math.min(oldSize, rows.size());
+        if (common > 0) {
+            fireContentsChanged(this, 0, common - 1);
+        }
+    }
+}
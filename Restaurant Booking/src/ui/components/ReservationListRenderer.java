@@ -0,0 +1,125 @@
+package ui.components;
+
+import models.Reservation;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renderer für {@link ReservationListModel}: zeichnet Datums-Köpfe und Reservierungskarten als Stempel.
+ * Alle Zeilen haben dieselbe Höhe ({@link #ROW_HEIGHT}), damit die Liste ihre Größe berechnen kann,
+ * ohne jede Zeile zu rendern. Für alle Reservierungen wird dieselbe Karte verwendet und nur neu gebunden.
+ */
+public class ReservationListRenderer implements ListCellRenderer<Object> {
+    public static final int ROW_HEIGHT = 76;
+    // Abstand unter jeder Karte (ersetzt die früheren Abstandshalter zwischen den Karten)
+    private static final int CARD_GAP = 10;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter WEEKDAY_FORMATTER = DateTimeFormatter.ofPattern("EEEE, dd.MM.yyyy");
+    
+    private final JPanel headerCell;
+    private final JLabel headerLabel;
+    private final JPanel cardCell;
+    // Stempel für alle Reservierungszeilen; wird beim ersten Zeichnen angelegt
+    private ReservationCard card;
+    private int hoverIndex = -1;
+    
+    public ReservationListRenderer() {
+        // Datums-Kopf: Text am unteren Rand, darüber Abstand zum vorherigen Tag
+        JPanel datePanel = new JPanel(new BorderLayout());
+        datePanel.setBackground(CardStyles.HEADER_BACKGROUND);
+        datePanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        headerLabel = new JLabel();
+        headerLabel.setFont(CardStyles.HEADER_FONT);
+        datePanel.add(headerLabel, BorderLayout.WEST);
+        
+        headerCell = new JPanel(new BorderLayout());
+        headerCell.setBackground(CardStyles.BACKGROUND);
+        headerCell.setBorder(BorderFactory.createEmptyBorder(0, 0, CARD_GAP, 0));
+        headerCell.add(datePanel, BorderLayout.SOUTH);
+        
+        cardCell = new JPanel(new BorderLayout());
+        cardCell.setBackground(CardStyles.BACKGROUND);
+        cardCell.setBorder(BorderFactory.createEmptyBorder(0, 0, CARD_GAP, 0));
+    }
+    
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                  boolean isSelected, boolean cellHasFocus) {
+        if (value instanceof LocalDate) {
+            headerLabel.setText(formatDate((LocalDate) value));
+            return headerCell;
+        }
+        bindCard((Reservation) value);
+        card.setBackground(index == hoverIndex ? CardStyles.HOVER_BACKGROUND : CardStyles.BACKGROUND);
+        return cardCell;
+    }
+    
+    /**
+     * Die Karte wird nur als Stempel benutzt; die Aktionen laufen über {@link #getActionAt}.
+     */
+    private void bindCard(Reservation reservation) {
+        if (card == null) {
+            card = new ReservationCard(reservation, ignored -> { }, ignored -> { });
+            cardCell.add(card, BorderLayout.CENTER);
+        } else {
+            card.bind(reservation);
+        }
+    }
+    
+    /**
+     * Liefert die Aktionskennung ({@link ReservationCard#ACTION_EDIT}, {@link ReservationCard#ACTION_DELETE})
+     * des Buttons unter dem Punkt (in Listen-Koordinaten) oder null.
+     */
+    public String getActionAt(JList<Object> list, int index, Point point) {
+        Rectangle bounds = list.getCellBounds(index, index);
+        if (bounds == null || !bounds.contains(point)) {
+            return null;
+        }
+        Component cell = getListCellRendererComponent(list, list.getModel().getElementAt(index), index, false, false);
+        if (cell != cardCell) {
+            return null;
+        }
+        cardCell.setSize(bounds.width, bounds.height);
+        layoutTree(cardCell);
+        Component hit = SwingUtilities.getDeepestComponentAt(cardCell, point.x - bounds.x, point.y - bounds.y);
+        return hit instanceof AbstractButton ? ((AbstractButton) hit).getActionCommand() : null;
+    }
+    
+    /**
+     * Setzt die Zeile mit Hover-Hervorhebung; liefert true, wenn sich etwas geändert hat.
+     */
+    public boolean setHoverIndex(int index) {
+        if (index == hoverIndex) {
+            return false;
+        }
+        hoverIndex = index;
+        return true;
+    }
+    
+    public int getHoverIndex() {
+        return hoverIndex;
+    }
+    
+    // Datum mit besonderem Format für heute und morgen
+    private static String formatDate(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (date.equals(today)) {
+            return "Heute (" + date.format(DATE_FORMATTER) + ")";
+        } else if (date.equals(today.plusDays(1))) {
+            return "Morgen (" + date.format(DATE_FORMATTER) + ")";
+        }
+        return date.format(WEEKDAY_FORMATTER);
+    }
+    
+    private static void layoutTree(Container container) {
+        container.doLayout();
+        for (Component child : container.getComponents()) {
+            if (child instanceof Container) {
+                layoutTree((Container) child);
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package ui.components;
+
+import models.Reservation;
+import models.TimeSlot;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Tabellenmodell für die Reservierungsübersicht, spaltenweise in primitiven Arrays gespeichert.
+ * Zellinhalte wie "dd.MM.yyyy" oder "Tisch N (M Plätze)" werden erst formatiert, wenn der Renderer
+ * sie anfragt, also nur für sichtbare Zeilen. Sortiert und nach Kunden gefiltert wird über eine
+ * Indexpermutation, ohne die Spalten selbst umzukopieren.
+ */
+public class ReservationTableModel extends AbstractTableModel {
+    public static final int COLUMN_ID = 0;
+    public static final int COLUMN_DATE = 1;
+    public static final int COLUMN_TIME = 2;
+    public static final int COLUMN_NAME = 3;
+    public static final int COLUMN_CONTACT = 4;
+    public static final int COLUMN_TABLE = 5;
+    public static final int COLUMN_PERSONS = 6;
+
+    private static final String[] COLUMN_NAMES = {"ID", "Datum", "Uhrzeit", "Kundenname", "Kontakt", "Tisch", "Personen"};
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Spalten; gültig sind jeweils die ersten size Einträge (Speicherreihenfolge)
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private byte[] slotStarts = new byte[INITIAL_CAPACITY];
+    private byte[] slotDurations = new byte[INITIAL_CAPACITY];
+    private int[] tableIds = new int[INITIAL_CAPACITY];
+    // Plätze aller reservierten Tische; Tischnummern wie "3+4" nur bei zusammengestellten Tischen, sonst null
+    private int[] tableCapacities = new int[INITIAL_CAPACITY];
+    private String[] joinedTableNumbers = new String[INITIAL_CAPACITY];
+    private int[] persons = new int[INITIAL_CAPACITY];
+    private int[] customerIds = new int[INITIAL_CAPACITY];
+    // Kundendaten werden unverändert angezeigt und daher als Referenzen gehalten
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] contacts = new String[INITIAL_CAPACITY];
+
+    // Anzeigezeile -> Speicherzeile; null, solange weder sortiert noch gefiltert wird
+    private int[] order;
+    private int sortColumn = -1;
+    private boolean sortAscending = true;
+    // Angezeigte Kunden-IDs; null zeigt alle Zeilen
+    private BitSet customerFilter;
+
+    @Override
+    public int getRowCount() {
+        return order == null ? size : order.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Tabelle nicht editierbar machen
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int i = storageIndex(row);
+        switch (column) {
+            case COLUMN_ID:
+                return ids[i];
+            case COLUMN_DATE:
+                return LocalDate.ofEpochDay(epochDays[i]).format(DATE_FORMATTER);
+            case COLUMN_TIME:
+                return new TimeSlot(slotStarts[i], slotDurations[i]).toString();
+            case COLUMN_NAME:
+                return names[i];
+            case COLUMN_CONTACT:
+                return contacts[i];
+            case COLUMN_TABLE:
+                return "Tisch " + (joinedTableNumbers[i] != null ? joinedTableNumbers[i] : tableIds[i])
+                        + " (" + tableCapacities[i] + " Plätze)";
+            case COLUMN_PERSONS:
+                return persons[i];
+            default:
+                throw new IndexOutOfBoundsException("Spalte " + column);
+        }
+    }
+
+    public int getReservationId(int row) {
+        return ids[storageIndex(row)];
+    }
+
+    public String getCustomerName(int row) {
+        return names[storageIndex(row)];
+    }
+
+    public LocalDate getDate(int row) {
+        return LocalDate.ofEpochDay(epochDays[storageIndex(row)]);
+    }
+
+    private int storageIndex(int row) {
+        return order == null ? row : order[row];
+    }
+
+    /**
+     * Entfernt alle Zeilen.
+     */
+    public void clear() {
+        size = 0;
+        updateOrder();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Hängt Reservierungen (z.B. eine nachgeladene Seite) an.
+     */
+    public void addReservations(Collection<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        int first = size;
+        ensureCapacity(size + reservations.size());
+        for (Reservation reservation : reservations) {
+            set(size++, reservation);
+        }
+        if (order != null) {
+            updateOrder();
+            fireTableDataChanged();
+        } else {
+            fireTableRowsInserted(first, size - 1);
+        }
+    }
+
+    /**
+     * Übernimmt Änderungen seit dem letzten Stand: gelöschte Zeilen werden entfernt, geänderte ersetzt.
+     * Neue Reservierungen werden nur angehängt, wenn sie im bereits geladenen Bereich liegen.
+     * @param inLoadedRange prüft, ob eine Reservierung im geladenen Bereich liegt
+     */
+    public void applyChanges(Collection<Reservation> upserted, Collection<Integer> deletedIds,
+                             Predicate<Reservation> inLoadedRange) {
+        if (upserted.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> removed = new HashSet<>(deletedIds);
+        Map<Integer, Reservation> replacements = new HashMap<>();
+        for (Reservation reservation : upserted) {
+            replacements.put(reservation.getId(), reservation);
+        }
+        // Spalten in einem Durchlauf verdichten und vorhandene Zeilen ersetzen
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Reservation reservation = replacements.remove(ids[i]);
+            if (removed.contains(ids[i]) || (reservation != null && !inLoadedRange.test(reservation))) {
+                continue;
+            }
+            if (kept != i) {
+                move(i, kept);
+            }
+            if (reservation != null) {
+                set(kept, reservation);
+            }
+            kept++;
+        }
+        size = kept;
+        for (Reservation reservation : replacements.values()) {
+            if (inLoadedRange.test(reservation)) {
+                ensureCapacity(size + 1);
+                set(size++, reservation);
+            }
+        }
+        updateOrder();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Sortiert die Anzeige nach der Spalte. Ein erneuter Aufruf mit derselben Spalte kehrt die Richtung um.
+     */
+    public void sortBy(int column) {
+        sortAscending = column != sortColumn || !sortAscending;
+        sortColumn = column;
+        updateOrder();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Zeigt nur Reservierungen der angegebenen Kunden (z.B. Treffer der Kundensuche).
+     * @param customerIds Kunden-IDs, oder null für alle Reservierungen
+     */
+    public void setCustomerFilter(BitSet customerIds) {
+        customerFilter = customerIds;
+        updateOrder();
+        fireTableDataChanged();
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isSortAscending() {
+        return sortAscending;
+    }
+
+    /**
+     * Berechnet die Anzeigereihenfolge aus Filter und Sortierung neu.
+     */
+    private void updateOrder() {
+        if (customerFilter == null && sortColumn < 0) {
+            order = null;
+            return;
+        }
+        int[] rows = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (customerFilter == null || customerFilter.get(customerIds[i])) {
+                rows[count++] = i;
+            }
+        }
+        rows = count == size ? rows : Arrays.copyOf(rows, count);
+        if (sortColumn >= 0) {
+            sort(rows);
+        }
+        order = rows;
+    }
+
+    /**
+     * Sortiert die Speicherindizes nach der Sortierspalte.
+     */
+    private void sort(int[] rows) {
+        if (sortColumn == COLUMN_NAME || sortColumn == COLUMN_CONTACT) {
+            String[] values = sortColumn == COLUMN_NAME ? names : contacts;
+            Integer[] boxed = new Integer[rows.length];
+            for (int k = 0; k < rows.length; k++) {
+                boxed[k] = rows[k];
+            }
+            Comparator<Integer> comparator = Comparator.comparing(i -> values[i], String.CASE_INSENSITIVE_ORDER);
+            Arrays.sort(boxed, sortAscending ? comparator : comparator.reversed());
+            for (int k = 0; k < rows.length; k++) {
+                rows[k] = boxed[k];
+            }
+            return;
+        }
+        // Numerische Spalten: Schlüssel und Speicherindex in ein long packen und primitiv sortieren
+        long[] keys = new long[rows.length];
+        for (int k = 0; k < rows.length; k++) {
+            long key = numericKey(rows[k]);
+            keys[k] = ((sortAscending ? key : -key) << 24) | rows[k];
+        }
+        Arrays.sort(keys);
+        for (int k = 0; k < rows.length; k++) {
+            rows[k] = (int) (keys[k] & 0xFFFFFF);
+        }
+    }
+
+    /**
+     * Sortierschlüssel (höchstens 39 Bit), damit zusammen mit dem Speicherindex (24 Bit, also bis
+     * ca. 16 Mio. Zeilen) ein long genügt.
+     */
+    private long numericKey(int i) {
+        switch (sortColumn) {
+            case COLUMN_ID:
+                return ids[i];
+            case COLUMN_DATE:
+                // Datum, dann Uhrzeit
+                return (long) epochDays[i] * TimeSlot.SLOTS_PER_DAY + slotStarts[i];
+            case COLUMN_TIME:
+                return (long) slotStarts[i] * TimeSlot.SLOTS_PER_DAY + slotDurations[i];
+            case COLUMN_TABLE:
+                return tableIds[i];
+            case COLUMN_PERSONS:
+                return persons[i];
+            default:
+                return i;
+        }
+    }
+
+    private void set(int i, Reservation reservation) {
+        ids[i] = reservation.getId();
+        epochDays[i] = (int) reservation.getDate().toEpochDay();
+        slotStarts[i] = (byte) reservation.getSlot().getStart();
+        slotDurations[i] = (byte) reservation.getSlot().getDuration();
+        tableIds[i] = reservation.getTable().getId();
+        tableCapacities[i] = reservation.getSeats();
+        joinedTableNumbers[i] = reservation.getJoinedTables().isEmpty() ? null : reservation.getTableNumbers();
+        persons[i] = reservation.getPersons();
+        customerIds[i] = reservation.getCustomer().getId();
+        names[i] = reservation.getCustomer().getName();
+        contacts[i] = reservation.getCustomer().getContact();
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        epochDays[to] = epochDays[from];
+        slotStarts[to] = slotStarts[from];
+        slotDurations[to] = slotDurations[from];
+        tableIds[to] = tableIds[from];
+        tableCapacities[to] = tableCapacities[from];
+        joinedTableNumbers[to] = joinedTableNumbers[from];
+        persons[to] = persons[from];
+        customerIds[to] = customerIds[from];
+        names[to] = names[from];
+        contacts[to] = contacts[from];
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        slotStarts = Arrays.copyOf(slotStarts, capacity);
+        slotDurations = Arrays.copyOf(slotDurations, capacity);
+        tableIds = Arrays.copyOf(tableIds, capacity);
+        tableCapacities = Arrays.copyOf(tableCapacities, capacity);
+        joinedTableNumbers = Arrays.copyOf(joinedTableNumbers, capacity);
+        persons = Arrays.copyOf(persons, capacity);
+        customerIds = Arrays.copyOf(customerIds, capacity);
+        names = Arrays.copyOf(names, capacity);
+        contacts = Arrays.copyOf(contacts, capacity);
+    }
+}
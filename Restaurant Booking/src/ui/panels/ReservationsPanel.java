@@ -1,42 +1,81 @@
 package ui.panels;
 
 import models.Reservation;
+import monitoring.PanelPaintEvent;
+import monitoring.PanelRefreshEvent;
+import services.ReservationEventBatch;
+import services.ReservationPage;
 import services.ReservationService;
 import ui.components.ReservationCard;
+import ui.components.ReservationListModel;
+import ui.components.ReservationListRenderer;
+import ui.utils.UIHelper;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * Panel zur Anzeige der kommenden Reservierungen
+ * Panel zur Anzeige der kommenden Reservierungen.
+ * Die Reservierungen werden in einer virtualisierten Liste angezeigt: nur sichtbare Zeilen werden
+ * gezeichnet, weitere Seiten werden beim Scrollen nachgeladen.
  */
 public class ReservationsPanel extends JPanel {
-    private final ReservationService service;
-    private final JPanel contentPanel;
+    private static final Logger LOGGER = Logger.getLogger(ReservationsPanel.class.getName());
+    // Wird erst nach der Initialisierung der Datenbank gesetzt (siehe start)
+    private ReservationService service;
     private final Consumer<Reservation> onEditReservation;
     private final Consumer<Reservation> onDeleteReservation;
     
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    // Anzahl der Reservierungen, die pro Seite nachgeladen werden
+    private static final int PAGE_SIZE = 50;
+    private static final int DAY_CHECK_INTERVAL_MS = 60000;
+    // Name der Ansicht in den JFR-Ereignissen
+    private static final String PANEL_NAME = "Übersicht";
     
-    public ReservationsPanel(ReservationService service, 
-                             Consumer<Reservation> onEdit, 
+    private final ReservationListModel listModel = new ReservationListModel();
+    private final ReservationListRenderer renderer = new ReservationListRenderer();
+    private final JList<Object> reservationList;
+    private final JScrollPane scrollPane;
+    private final JLabel noReservationsLabel;
+    // Hinweis im Kopf, solange ein Abruf fehlgeschlagen ist und die Liste veraltet sein kann
+    private final JLabel staleLabel;
+    private final JButton refreshButton;
+    // Einmaliger Hinweis, sobald die erste Seite angezeigt wird (Startmessung)
+    private Runnable onFirstPageShown;
+    
+    // Position für die nächste Seite
+    private ReservationPage.Cursor nextCursor = ReservationPage.Cursor.start();
+    private boolean hasMore;
+    // Die nächste geladene Seite ersetzt den bisherigen Inhalt (nach einem Neuladen)
+    private boolean replaceOnNextPage;
+    // Laufendes Nachladen; verhindert doppelte Anfragen für dieselbe Seite
+    private boolean loading;
+    // Wird bei jedem Neuladen erhöht, damit Antworten veralteter Anfragen verworfen werden
+    private int generation;
+    // Änderungsstand der angezeigten Daten (-1: noch nichts geladen)
+    private long version = -1;
+    // Tag, ab dem geladen wurde; nach Mitternacht fallen Reservierungen heraus, dann vollständig neu laden
+    private LocalDate loadedFor;
+    // Laufender bzw. während des Abrufs erneut angeforderter Änderungsabruf
+    private boolean updating;
+    private boolean updatePending;
+    
+    /**
+     * Baut nur die Oberfläche auf; Daten werden erst mit {@link #start} geladen, damit das Fenster
+     * schon vor der Initialisierung der Datenbank angezeigt werden kann.
+     */
+    public ReservationsPanel(Consumer<Reservation> onEdit, 
                              Consumer<Reservation> onDelete) {
         super(new BorderLayout());
-        this.service = service;
         this.onEditReservation = onEdit;
         this.onDeleteReservation = onDelete;
         
-        // Panel für die Liste der kommenden Reservierungen
-        contentPanel = new JPanel();
-        contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
-        contentPanel.setBackground(Color.WHITE);
-        
         // Header-Bereich für Reservierungen
         JPanel headerPanel = new JPanel(new BorderLayout());
         headerPanel.setBackground(Color.WHITE);
@@ -45,103 +84,325 @@ public class ReservationsPanel extends JPanel {
         reservationsTitle.setFont(new Font("Arial", Font.BOLD, 18));
         headerPanel.add(reservationsTitle, BorderLayout.WEST);
         
+        staleLabel = new JLabel();
+        staleLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        staleLabel.setForeground(UIHelper.ERROR_COLOR);
+        staleLabel.setHorizontalAlignment(SwingConstants.RIGHT);
+        staleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 10));
+        headerPanel.add(staleLabel, BorderLayout.CENTER);
+        
         // Aktualisieren-Button
-        JButton refreshButton = new JButton("Aktualisieren");
+        refreshButton = new JButton("Aktualisieren");
         refreshButton.setFont(new Font("Arial", Font.PLAIN, 12));
+        refreshButton.setEnabled(false);
         refreshButton.addActionListener(e -> refreshReservations());
         headerPanel.add(refreshButton, BorderLayout.EAST);
         
         add(headerPanel, BorderLayout.NORTH);
         
+        // Liste der kommenden Reservierungen; feste Zeilenhöhe, damit nie alle Zeilen gerendert werden müssen
+        reservationList = new JList<>(listModel) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                PanelPaintEvent event = new PanelPaintEvent(PANEL_NAME);
+                event.begin();
+                super.paintComponent(g);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.rows = Math.max(0, getLastVisibleIndex() - getFirstVisibleIndex() + 1);
+                    event.commit();
+                }
+            }
+        };
+        reservationList.setCellRenderer(renderer);
+        reservationList.setFixedCellHeight(ReservationListRenderer.ROW_HEIGHT);
+        reservationList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        reservationList.setBackground(Color.WHITE);
+        installMouseHandling();
+        
+        noReservationsLabel = new JLabel("Reservierungen werden geladen …");
+        noReservationsLabel.setFont(new Font("Arial", Font.ITALIC, 14));
+        noReservationsLabel.setForeground(new Color(100, 100, 100));
+        noReservationsLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        noReservationsLabel.setVerticalAlignment(SwingConstants.TOP);
+        
         // Scrollpane für Reservierungen
-        JScrollPane scrollPane = new JScrollPane(contentPanel);
+        // Bis zur ersten Seite steht der Ladehinweis im sichtbaren Bereich
+        scrollPane = new JScrollPane(noReservationsLabel);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        scrollPane.getViewport().setBackground(Color.WHITE);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        // Nächste Seite laden, sobald das Ende der Liste sichtbar wird
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            if (!e.getValueIsAdjusting() && hasMore && !loading
+                    && bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - ReservationListRenderer.ROW_HEIGHT) {
+                loadNextPage();
+            }
+        });
         add(scrollPane, BorderLayout.CENTER);
+    }
+    
+    /**
+     * Beginnt mit dem Laden der Reservierungen, sobald der Service bereit ist (auf dem EDT aufrufen).
+     * @param onFirstPageShown wird einmalig ausgeführt, wenn die erste Seite angezeigt wird (darf null sein)
+     */
+    public void start(ReservationService service, Runnable onFirstPageShown) {
+        this.service = service;
+        this.onFirstPageShown = onFirstPageShown;
+        refreshButton.setEnabled(true);
+        
+        // Änderungen (eigene und von anderen Arbeitsplätzen) kommen über den Ereignisbus
+        service.getEvents().subscribe(batch -> SwingUtilities.invokeLater(() -> onReservationEvents(batch)));
+        // Nach Mitternacht fallen die Reservierungen des Vortags heraus (reine Datumsprüfung, kein Datenbankzugriff)
+        Timer dayChangeTimer = new Timer(DAY_CHECK_INTERVAL_MS, e -> {
+            if (!LocalDate.now().equals(loadedFor) && !loading) {
+                loadUpcomingReservations();
+            }
+        });
+        dayChangeTimer.start();
         
         // Füge die nächsten Reservierungen hinzu
         refreshReservations();
     }
     
     /**
-     * Aktualisiert die Liste der anstehenden Reservierungen
+     * Zeigt statt der Liste einen Fehlerhinweis an (z.B. wenn die Datenbank nicht geöffnet werden konnte).
+     */
+    public void showStartupError(String message) {
+        noReservationsLabel.setText(message);
+        noReservationsLabel.setForeground(UIHelper.ERROR_COLOR);
+    }
+    
+    /**
+     * Die Karten in der Liste sind nur gezeichnet; Klicks auf ihre Buttons werden per Trefferprüfung
+     * an die Bearbeiten- und Löschen-Aktionen weitergeleitet.
+     */
+    private void installMouseHandling() {
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = reservationList.locationToIndex(e.getPoint());
+                Reservation reservation = listModel.getReservationAt(index);
+                if (reservation == null || !SwingUtilities.isLeftMouseButton(e)) {
+                    return;
+                }
+                String action = renderer.getActionAt(reservationList, index, e.getPoint());
+                if (ReservationCard.ACTION_EDIT.equals(action)) {
+                    onEditReservation.accept(reservation);
+                } else if (ReservationCard.ACTION_DELETE.equals(action)) {
+                    onDeleteReservation.accept(reservation);
+                }
+            }
+            
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int index = reservationList.locationToIndex(e.getPoint());
+                Rectangle bounds = index < 0 ? null : reservationList.getCellBounds(index, index);
+                updateHover(bounds != null && bounds.contains(e.getPoint()) ? index : -1);
+            }
+            
+            @Override
+            public void mouseExited(MouseEvent e) {
+                updateHover(-1);
+            }
+        };
+        reservationList.addMouseListener(mouseHandler);
+        reservationList.addMouseMotionListener(mouseHandler);
+    }
+    
+    private void updateHover(int index) {
+        int previous = renderer.getHoverIndex();
+        if (renderer.setHoverIndex(index)) {
+            repaintRow(previous);
+            repaintRow(index);
+        }
+    }
+    
+    private void repaintRow(int index) {
+        Rectangle bounds = index < 0 ? null : reservationList.getCellBounds(index, index);
+        if (bounds != null) {
+            reservationList.repaint(bounds);
+        }
+    }
+    
+    /**
+     * Lädt die Liste der anstehenden Reservierungen vollständig neu
      */
     public void refreshReservations() {
         SwingUtilities.invokeLater(this::loadUpcomingReservations);
     }
     
     /**
-     * Lädt die Liste der anstehenden Reservierungen aus dem Service und zeigt sie an
+     * Übernimmt einen Stapel von Reservierungsereignissen (auf dem EDT).
+     * Passt der Stapel nicht an den geladenen Stand an, werden die fehlenden Änderungen nachgeladen.
+     */
+    private void onReservationEvents(ReservationEventBatch batch) {
+        if (version < 0 || batch.toVersion() <= version) {
+            // Erste Seite lädt noch bzw. Stapel ist bereits enthalten
+            return;
+        }
+        if (batch.fromVersion() > version || !LocalDate.now().equals(loadedFor)) {
+            loadChanges();
+            return;
+        }
+        PanelRefreshEvent event = new PanelRefreshEvent(PANEL_NAME, "Ereignisse");
+        event.begin();
+        long applyStart = System.nanoTime();
+        version = batch.toVersion();
+        if (listModel.applyChanges(batch.upserted(), batch.deletedIds(), this::isInLoadedRange)) {
+            updateView();
+        }
+        finishRefresh(event, batch.upserted().size() + batch.deletedIds().size(), applyStart);
+    }
+    
+    /**
+     * Lädt die Änderungen seit dem zuletzt geladenen Stand nach; ohne geladenen Stand wird neu geladen
+     */
+    private void loadChanges() {
+        if (version < 0 || !LocalDate.now().equals(loadedFor)) {
+            if (!loading) {
+                loadUpcomingReservations();
+            }
+            return;
+        }
+        if (updating) {
+            updatePending = true;
+            return;
+        }
+        updating = true;
+        int requested = generation;
+        PanelRefreshEvent event = new PanelRefreshEvent(PANEL_NAME, "Änderungen");
+        event.begin();
+        service.getChangesSinceAsync(version)
+                .whenCompleteAsync((changes, error) -> {
+                    updating = false;
+                    if (error != null) {
+                        // Stand bleibt; der nächste Ereignisstapel passt nicht an und fragt erneut ab
+                        markStale("Änderungen konnten nicht geladen werden", error);
+                    } else if (requested == generation && version >= 0 && changes.version() > version) {
+                        staleLabel.setText("");
+                        long applyStart = System.nanoTime();
+                        version = changes.version();
+                        if (listModel.applyChanges(changes.upserted(), changes.deletedIds(), this::isInLoadedRange)) {
+                            updateView();
+                        }
+                        finishRefresh(event, changes.upserted().size() + changes.deletedIds().size(), applyStart);
+                    }
+                    if (updatePending) {
+                        updatePending = false;
+                        loadChanges();
+                    }
+                }, UIHelper.EDT);
+    }
+    
+    /**
+     * Reservierungen hinter dem Cursor werden ohnehin mit den nächsten Seiten geladen
+     */
+    private boolean isInLoadedRange(Reservation reservation) {
+        if (!hasMore) {
+            return true;
+        }
+        int byDate = reservation.getDate().compareTo(nextCursor.date());
+        return byDate < 0 || (byDate == 0 && reservation.getId() <= nextCursor.id());
+    }
+    
+    /**
+     * Lädt die erste Seite der anstehenden Reservierungen aus dem Service und zeigt sie an
      */
     private void loadUpcomingReservations() {
-        contentPanel.removeAll();
-        
-        // Reservierungen für heute und die nächsten 7 Tage abrufen
-        List<Reservation> reservations = service.getUpcomingReservations();
-        
-        if (reservations.isEmpty()) {
-            // Keine Reservierungen vorhanden
-            JLabel noReservationsLabel = new JLabel("Keine bevorstehenden Reservierungen");
-            noReservationsLabel.setFont(new Font("Arial", Font.ITALIC, 14));
-            noReservationsLabel.setForeground(new Color(100, 100, 100));
-            noReservationsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            contentPanel.add(noReservationsLabel);
-        } else {
-            // Sortierung nach Datum und Zeit
-            reservations.sort((r1, r2) -> {
-                LocalDateTime dt1 = LocalDateTime.of(r1.getDate(), LocalTime.parse(r1.getTime()));
-                LocalDateTime dt2 = LocalDateTime.of(r2.getDate(), LocalTime.parse(r2.getTime()));
-                return dt1.compareTo(dt2);
-            });
-            
-            // Gruppiert nach Datum anzeigen
-            LocalDate currentDate = null;
-            
-            for (Reservation reservation : reservations) {
-                // Wenn das Datum sich ändert, füge einen Datumstrennbalken ein
-                if (currentDate == null || !currentDate.equals(reservation.getDate())) {
-                    currentDate = reservation.getDate();
-                    
-                    // Abstand zum vorherigen Datum
-                    if (contentPanel.getComponentCount() > 0) {
-                        contentPanel.add(Box.createRigidArea(new Dimension(0, 15)));
+        generation++;
+        loading = false;
+        version = -1;
+        loadedFor = LocalDate.now();
+        replaceOnNextPage = true;
+        nextCursor = ReservationPage.Cursor.start();
+        loadNextPage();
+    }
+    
+    /**
+     * Hängt die nächste Seite an die bereits geladenen Reservierungen an.
+     * Die Abfrage läuft im Hintergrund, angezeigt wird wieder auf dem EDT.
+     */
+    private void loadNextPage() {
+        if (loading) {
+            return;
+        }
+        loading = true;
+        int requested = generation;
+        PanelRefreshEvent event = new PanelRefreshEvent(PANEL_NAME, "Seite");
+        event.begin();
+        service.getUpcomingReservationsAsync(nextCursor, PAGE_SIZE)
+                .whenCompleteAsync((page, error) -> {
+                    if (requested != generation) {
+                        return;
                     }
-                    
-                    // Datumstrennbalken
-                    JPanel datePanel = new JPanel(new BorderLayout());
-                    datePanel.setBackground(new Color(240, 240, 240));
-                    datePanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
-                    datePanel.setMaximumSize(new Dimension(Short.MAX_VALUE, 30));
-                    
-                    // Datum mit besonderem Format für heute und morgen
-                    String dateText;
-                    if (currentDate.equals(LocalDate.now())) {
-                        dateText = "Heute (" + currentDate.format(DATE_FORMATTER) + ")";
-                    } else if (currentDate.equals(LocalDate.now().plusDays(1))) {
-                        dateText = "Morgen (" + currentDate.format(DATE_FORMATTER) + ")";
+                    loading = false;
+                    if (error != null) {
+                        markStale("Reservierungen konnten nicht geladen werden", error);
+                        return;
+                    }
+                    staleLabel.setText("");
+                    long applyStart = System.nanoTime();
+                    // Beim Neuladen erst jetzt ersetzen, damit die Liste bis zur Antwort nicht leer aufblitzt
+                    if (replaceOnNextPage) {
+                        replaceOnNextPage = false;
+                        // Stand vor dem Lesen der ersten Seite: spätere Änderungen kommen per Änderungsabruf
+                        version = page.version();
+                        // Änderungen, die der Bus während des Ladens veröffentlicht hat, nachholen
+                        if (service.getEvents().getVersion() > version) {
+                            SwingUtilities.invokeLater(this::loadChanges);
+                        }
+                        listModel.setReservations(page.reservations());
                     } else {
-                        dateText = currentDate.format(DateTimeFormatter.ofPattern("EEEE, dd.MM.yyyy"));
+                        listModel.addReservations(page.reservations());
                     }
-                    
-                    JLabel dateLabel = new JLabel(dateText);
-                    dateLabel.setFont(new Font("Arial", Font.BOLD, 14));
-                    datePanel.add(dateLabel, BorderLayout.WEST);
-                    
-                    contentPanel.add(datePanel);
-                }
-                
-                // Eine Karte für jede Reservierung
-                ReservationCard card = new ReservationCard(
-                    reservation, 
-                    onEditReservation, 
-                    onDeleteReservation
-                );
-                contentPanel.add(card);
-                contentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-            }
+                    nextCursor = page.next();
+                    hasMore = page.hasMore();
+                    updateView();
+                    finishRefresh(event, page.reservations().size(), applyStart);
+                    if (onFirstPageShown != null) {
+                        Runnable callback = onFirstPageShown;
+                        onFirstPageShown = null;
+                        callback.run();
+                    }
+                }, UIHelper.EDT);
+    }
+    
+    /**
+     * Protokolliert einen fehlgeschlagenen Abruf und zeigt an, dass die Liste veraltet sein kann,
+     * bis ein späterer Abruf (Ereignis oder „Aktualisieren“) gelingt
+     */
+    private void markStale(String message, Throwable error) {
+        LOGGER.log(Level.WARNING, message, error);
+        staleLabel.setText("Nicht aktuell – bitte aktualisieren");
+    }
+    
+    /**
+     * Schließt das JFR-Ereignis einer Aktualisierung ab (nur bei laufender Aufzeichnung werden Felder gesetzt)
+     */
+    private void finishRefresh(PanelRefreshEvent event, int rows, long applyStart) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.totalRows = listModel.getSize();
+            event.applyTime = System.nanoTime() - applyStart;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Zeigt je nach Inhalt die Liste oder den Hinweis auf fehlende Reservierungen an
+     */
+    private void updateView() {
+        noReservationsLabel.setText("Keine bevorstehenden Reservierungen");
+        Component view = listModel.getSize() == 0 ? noReservationsLabel : reservationList;
+        if (scrollPane.getViewport().getView() != view) {
+            scrollPane.setViewportView(view);
+        }
+        // Füllt die erste Seite den sichtbaren Bereich nicht, gleich weiterladen
+        if (hasMore && reservationList.getPreferredSize().height <= scrollPane.getViewport().getHeight()) {
+            loadNextPage();
         }
-        
-        contentPanel.revalidate();
-        contentPanel.repaint();
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import javax.swing.*;
 import javax.swing.border.LineBorder;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 import java.net.URL;
 
@@ -22,6 +23,12 @@ public class UIHelper {
     public static final Color ERROR_COLOR = new Color(204, 0, 0);
     public static final Color SUCCESS_COLOR = new Color(0, 153, 0);
     public static final Color NEUTRAL_COLOR = new Color(102, 102, 102);
+
+    /**
+     * Executor für den Event Dispatch Thread, z.B. für
+     * {@code future.thenAcceptAsync(ergebnis -> ..., UIHelper.EDT)}
+     */
+    public static final Executor EDT = SwingUtilities::invokeLater;
     
     /**
      * Erstellt einen Header-Bereich mit Titel
@@ -113,6 +120,18 @@ public class UIHelper {
         );
     }
     
+    /**
+     * Aktiviert bzw. deaktiviert eine Komponente samt aller enthaltenen Komponenten
+     */
+    public static void setEnabledRecursively(Component component, boolean enabled) {
+        component.setEnabled(enabled);
+        if (component instanceof Container container) {
+            for (Component child : container.getComponents()) {
+                setEnabledRecursively(child, enabled);
+            }
+        }
+    }
+    
     /**
      * Versucht, ein Icon aus den Ressourcen zu laden
      * Wenn das Icon nicht gefunden wird, wird null zurückgegeben